@@ -0,0 +1,107 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.NonNullList;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Tiers;
+import net.minecraft.world.item.crafting.CraftingBookCategory;
+import net.minecraft.world.item.crafting.CraftingInput;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Allocation regression gate for the single-click tool paths.
+ * Each operation is warmed up so the JIT can scalar-replace what it is able to, then measured with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}. Exits non-zero when any operation
+ * allocates more bytes per call than its budget; wired into {@code check} as the {@code allocationGate} task.
+ */
+public final class AllocationGate {
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<String> failures = new ArrayList<>();
+    // Consumed results, so the JIT cannot drop the measured work
+    private int sink;
+
+    private AllocationGate() {}
+
+    public static void main(String[] args) {
+        BenchmarkBootstrap.init();
+        AllocationGate gate = new AllocationGate();
+        gate.run();
+        if (!gate.failures.isEmpty()) {
+            gate.failures.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println("Allocation gate passed");
+    }
+
+    private void run() {
+        // Hammer: cycle lookup, transition and property preservation
+        Block stairs = Blocks.OAK_STAIRS;
+        BlockState stairsState = stairs.defaultBlockState();
+        check("hammer.cycle", 0, () -> {
+            BlockVariantCycle cycle = BlockVariantRegistry.getCycle(stairs);
+            Block next = cycle.getNext(stairs);
+            return ConstructionHammerItem.preserveCompatibleProperties(stairsState, next.defaultBlockState()).hashCode();
+        });
+
+        // Brush: paint-use reads and color dispatch on every stroke
+        ItemStack brush = new ItemStack(BenchmarkBootstrap.createItem(() -> new PaintBrushItem(new Item.Properties())));
+        PaintBrushItem.chargeBrush(brush, DyeColor.RED, PaintBrushItem.MAX_PAINT_USES);
+        check("brush.read", 0, () -> PaintBrushItem.getPaintUses(brush) + PaintBrushItem.getPaintColor(brush).getId());
+        check("brush.dispatch", 0, () -> {
+            Block target = PaintVariantRegistry.byColor(PaintVariantRegistry.getFamily(Blocks.WHITE_WOOL), DyeColor.RED);
+            return PaintVariantRegistry.isPaintable(target) ? 1 : 0;
+        });
+        // Spending one use must copy the custom data (components are immutable), but only once
+        check("brush.spend", 512, () -> {
+            PaintBrushItem.setPaintUses(brush, PaintBrushItem.MAX_PAINT_USES - 1);
+            return PaintBrushItem.getPaintUses(brush);
+        });
+
+        // Recipe matching runs on every crafting grid change
+        ItemStack bucket = new ItemStack(BenchmarkBootstrap.createItem(
+                () -> new PaintBucketItem(new Item.Properties(), DyeColor.BLUE)));
+        NonNullList<ItemStack> grid = NonNullList.withSize(9, ItemStack.EMPTY);
+        grid.set(0, brush);
+        grid.set(4, bucket);
+        CraftingInput input = CraftingInput.of(3, 3, grid);
+        PaintBrushRecipe recipe = new PaintBrushRecipe(CraftingBookCategory.MISC);
+        check("recipe.matches", 0, () -> recipe.matches(input, null) ? 1 : 0);
+
+        // Paxel speed queries run every mining tick
+        PaxelItem paxel = BenchmarkBootstrap.createItem(() -> new PaxelItem(Tiers.IRON, new Item.Properties()));
+        ItemStack paxelStack = new ItemStack(paxel);
+        BlockState stone = Blocks.STONE.defaultBlockState();
+        check("paxel.speed", 0, () -> (int) paxel.getDestroySpeed(paxelStack, stone)
+                + (paxel.isCorrectToolForDrops(paxelStack, stone) ? 1 : 0));
+    }
+
+    private void check(String name, long budgetBytes, IntSupplier operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            sink += operation.getAsInt();
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += operation.getAsInt();
+        }
+        long perOp = (threads.getThreadAllocatedBytes(thread) - before) / ITERATIONS;
+
+        System.out.println(name + ": " + perOp + " B/op (budget " + budgetBytes + ")");
+        if (perOp > budgetBytes) {
+            failures.add(name + " allocated " + perOp + " B/op, budget is " + budgetBytes + " B/op");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.styenvy.egtools;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.Item;
+
+import java.lang.reflect.Field;
+import java.util.IdentityHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bootstraps the vanilla registries for benchmarks running outside of FML.
+ * Mod items are never registered here; {@link #createItem} only lets them be constructed.
+ */
+final class BenchmarkBootstrap {
+    private static boolean done;
+
+    private BenchmarkBootstrap() {}
+
+    static synchronized void init() {
+        if (done) return;
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        done = true;
+    }
+
+    /**
+     * Constructs an item after the item registry has been frozen.
+     * Item constructors create an intrusive holder, which frozen registries refuse; re-open that map for the call.
+     */
+    static <T extends Item> T createItem(Supplier<T> factory) {
+        init();
+        try {
+            Field field = MappedRegistry.class.getDeclaredField("unregisteredIntrusiveHolders");
+            field.setAccessible(true);
+            Object previous = field.get(BuiltInRegistries.ITEM);
+            field.set(BuiltInRegistries.ITEM, new IdentityHashMap<>());
+            try {
+                return factory.get();
+            } finally {
+                field.set(BuiltInRegistries.ITEM, previous);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to construct benchmark item", e);
+        }
+    }
+}
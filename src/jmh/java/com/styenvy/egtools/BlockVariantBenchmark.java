@@ -0,0 +1,62 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.StairBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.BlockStateProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the Construction Hammer: cycle lookup, next/previous and property preservation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BlockVariantBenchmark {
+    private Block cycled;
+    private Block uncycled;
+    private BlockVariantCycle cycle;
+    private BlockState stairs;
+    private BlockState slab;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.init();
+        cycled = Blocks.DEEPSLATE_TILE_STAIRS;
+        uncycled = Blocks.DIAMOND_ORE;
+        cycle = BlockVariantRegistry.getCycle(cycled);
+        stairs = Blocks.OAK_STAIRS.defaultBlockState()
+                .setValue(StairBlock.FACING, Direction.EAST)
+                .setValue(BlockStateProperties.WATERLOGGED, true);
+        slab = Blocks.OAK_SLAB.defaultBlockState();
+    }
+
+    @Benchmark
+    public BlockVariantCycle getCycleHit() {
+        return BlockVariantRegistry.getCycle(cycled);
+    }
+
+    @Benchmark
+    public BlockVariantCycle getCycleMiss() {
+        return BlockVariantRegistry.getCycle(uncycled);
+    }
+
+    @Benchmark
+    public Block getNext() {
+        return cycle.getNext(cycled);
+    }
+
+    @Benchmark
+    public Block getPrevious() {
+        return cycle.getPrevious(cycled);
+    }
+
+    @Benchmark
+    public BlockState preserveCompatibleProperties() {
+        return ConstructionHammerItem.preserveCompatibleProperties(stairs, slab);
+    }
+}
@@ -0,0 +1,403 @@
+package com.styenvy.egtools;
+
+import com.mojang.serialization.Lifecycle;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.*;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.registries.VanillaRegistries;
+import net.minecraft.resources.RegistryDataLoader;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.sounds.SoundEvent;
+import net.minecraft.sounds.SoundSource;
+import net.minecraft.util.profiling.InactiveProfiler;
+import net.minecraft.world.Difficulty;
+import net.minecraft.world.TickRateManager;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.flag.FeatureFlagSet;
+import net.minecraft.world.flag.FeatureFlags;
+import net.minecraft.world.item.alchemy.PotionBrewing;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.GameRules;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkSource;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.minecraft.world.level.dimension.BuiltinDimensionTypes;
+import net.minecraft.world.level.entity.EntityLookup;
+import net.minecraft.world.level.entity.EntitySectionStorage;
+import net.minecraft.world.level.entity.LevelEntityGetter;
+import net.minecraft.world.level.entity.LevelEntityGetterAdapter;
+import net.minecraft.world.level.entity.Visibility;
+import net.minecraft.world.level.gameevent.GameEvent;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.level.saveddata.maps.MapId;
+import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
+import net.minecraft.world.level.storage.WritableLevelData;
+import net.minecraft.world.phys.Vec3;
+import net.minecraft.world.scores.Scoreboard;
+import net.minecraft.world.ticks.BlackholeTickAccess;
+import net.minecraft.world.ticks.LevelTickAccess;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A headless overworld kept entirely in memory, so tool logic can be tested and benchmarked without a server.
+ * Chunks are real {@link LevelChunk}s (paletted sections, heightmaps, block entities) created on first access.
+ * There is no lighting, no entities and no ticking, and nothing is sent to clients.
+ * Every {@link #setBlock} call is recorded with its flags (see {@link #getRecordedWrites()}).
+ * Only {@code Bootstrap.bootStrap()} is needed first; datapack registries come from the vanilla bootstrap.
+ * Not thread-safe: use a level from the thread that created it.
+ * {@link InMemoryLevelParity} checks that tools give the same results here as on a server level.
+ */
+public class InMemoryLevel extends Level {
+    private static final EnumSet<Heightmap.Types> HEIGHTMAPS = EnumSet.of(Heightmap.Types.MOTION_BLOCKING,
+            Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, Heightmap.Types.OCEAN_FLOOR, Heightmap.Types.WORLD_SURFACE);
+    @Nullable
+    private static RegistryAccess.Frozen registries;
+
+    private final Long2ObjectOpenHashMap<LevelChunk> chunks = new Long2ObjectOpenHashMap<>();
+    private final Chunks chunkSource = new Chunks();
+    private final Holder<Biome> biome;
+    private final TickRateManager tickRateManager = new TickRateManager();
+    private final Scoreboard scoreboard = new Scoreboard();
+    private final RecipeManager recipeManager;
+    private final LevelEntityGetter<Entity> entities = new LevelEntityGetterAdapter<>(new EntityLookup<>(),
+            new EntitySectionStorage<>(Entity.class, pos -> Visibility.HIDDEN));
+
+    private final BlockChangeList writes = new BlockChangeList(64);
+    private final IntArrayList writeFlags = new IntArrayList();
+    private boolean recording = true;
+
+    public InMemoryLevel() {
+        super(new Data(), Level.OVERWORLD, registries(),
+                registries().registryOrThrow(Registries.DIMENSION_TYPE).getHolderOrThrow(BuiltinDimensionTypes.OVERWORLD),
+                () -> InactiveProfiler.INSTANCE, false, false, 0L, 1_000_000);
+        this.biome = registryAccess().registryOrThrow(Registries.BIOME).getHolderOrThrow(Biomes.PLAINS);
+        this.recipeManager = new RecipeManager(registryAccess());
+    }
+
+    /**
+     * Builds the registry access shared by all in-memory levels: the built-in registries plus the datapack
+     * registries (biomes, damage types, dimension types, ...) produced by the vanilla bootstrap.
+     */
+    private static synchronized RegistryAccess.Frozen registries() {
+        if (registries == null) {
+            HolderLookup.Provider vanilla = VanillaRegistries.createLookup();
+            List<Registry<?>> all = new ArrayList<>();
+            BuiltInRegistries.REGISTRY.forEach(all::add);
+            for (RegistryDataLoader.RegistryData<?> data : RegistryDataLoader.WORLDGEN_REGISTRIES) {
+                copy(vanilla, data.key(), all);
+            }
+            registries = new RegistryAccess.ImmutableRegistryAccess(all).freeze();
+        }
+        return registries;
+    }
+
+    private static <T> void copy(HolderLookup.Provider lookup, ResourceKey<? extends Registry<T>> key, List<Registry<?>> out) {
+        lookup.lookup(key).ifPresent(source -> {
+            MappedRegistry<T> registry = new MappedRegistry<>(key, Lifecycle.stable());
+            source.listElements().forEach(holder -> registry.register(holder.key(), holder.value(), RegistrationInfo.BUILT_IN));
+            out.add(registry.freeze());
+        });
+    }
+
+    /* =========================
+       Recorded writes
+       ========================= */
+
+    @Override
+    public boolean setBlock(BlockPos pos, BlockState state, int flags, int recursionLeft) {
+        if (!recording) {
+            return super.setBlock(pos, state, flags, recursionLeft);
+        }
+        BlockState old = getBlockState(pos);
+        boolean changed = super.setBlock(pos, state, flags, recursionLeft);
+        writes.add(pos, old, state);
+        writeFlags.add(flags);
+        return changed;
+    }
+
+    /**
+     * Gets every recorded {@code setBlock} call: position, state before the call and requested state.
+     * Includes calls that changed nothing and neighbor updates made by the blocks themselves.
+     */
+    public BlockChangeList getRecordedWrites() {
+        return writes;
+    }
+
+    /**
+     * Gets the update flags of a recorded write.
+     */
+    public int getRecordedFlags(int index) {
+        return writeFlags.getInt(index);
+    }
+
+    public void clearRecorded() {
+        writes.clear();
+        writeFlags.clear();
+    }
+
+    /**
+     * Turns recording on or off; large synthetic edits should switch it off.
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Gets the number of chunks created so far.
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /* =========================
+       Level
+       ========================= */
+
+    @Override
+    public ChunkSource getChunkSource() {
+        return chunkSource;
+    }
+
+    @Override
+    public void sendBlockUpdated(BlockPos pos, BlockState oldState, BlockState newState, int flags) {}
+
+    @Override
+    public void playSeededSound(@Nullable Player player, double x, double y, double z, Holder<SoundEvent> sound,
+                                SoundSource source, float volume, float pitch, long seed) {}
+
+    @Override
+    public void playSeededSound(@Nullable Player player, Entity entity, Holder<SoundEvent> sound, SoundSource source,
+                                float volume, float pitch, long seed) {}
+
+    @Override
+    public void levelEvent(@Nullable Player player, int type, BlockPos pos, int data) {}
+
+    @Override
+    public void gameEvent(Holder<GameEvent> gameEvent, Vec3 pos, GameEvent.Context context) {}
+
+    @Override
+    public void destroyBlockProgress(int breakerId, BlockPos pos, int progress) {}
+
+    @Override
+    public String gatherChunkSourceStats() {
+        return chunkSource.gatherStats();
+    }
+
+    @Nullable
+    @Override
+    public Entity getEntity(int id) {
+        return null;
+    }
+
+    @Override
+    protected LevelEntityGetter<Entity> getEntities() {
+        return entities;
+    }
+
+    @Override
+    public List<? extends Player> players() {
+        return List.of();
+    }
+
+    @Override
+    public TickRateManager tickRateManager() {
+        return tickRateManager;
+    }
+
+    @Override
+    public LevelTickAccess<Block> getBlockTicks() {
+        return BlackholeTickAccess.emptyLevelList();
+    }
+
+    @Override
+    public LevelTickAccess<Fluid> getFluidTicks() {
+        return BlackholeTickAccess.emptyLevelList();
+    }
+
+    @Nullable
+    @Override
+    public MapItemSavedData getMapData(MapId mapId) {
+        return null;
+    }
+
+    @Override
+    public void setMapData(MapId mapId, MapItemSavedData mapData) {}
+
+    @Override
+    public MapId getFreeMapId() {
+        return new MapId(0);
+    }
+
+    @Override
+    public Scoreboard getScoreboard() {
+        return scoreboard;
+    }
+
+    @Override
+    public RecipeManager getRecipeManager() {
+        return recipeManager;
+    }
+
+    @Override
+    public PotionBrewing potionBrewing() {
+        return PotionBrewing.EMPTY;
+    }
+
+    @Override
+    public FeatureFlagSet enabledFeatures() {
+        return FeatureFlags.DEFAULT_FLAGS;
+    }
+
+    @Override
+    public Holder<Biome> getUncachedNoiseBiome(int x, int y, int z) {
+        return biome;
+    }
+
+    @Override
+    public float getShade(Direction direction, boolean shade) {
+        return 1.0F;
+    }
+
+    // NeoForge day length API; time never advances here
+    public float getDayTimeFraction() {
+        return 0.0F;
+    }
+
+    public float getDayTimePerTick() {
+        return 1.0F;
+    }
+
+    public void setDayTimeFraction(float fraction) {}
+
+    public void setDayTimePerTick(float perTick) {}
+
+    /**
+     * Creates chunks on demand; nothing is ever unloaded.
+     */
+    private final class Chunks extends ChunkSource {
+        private final LevelLightEngine lightEngine = new LevelLightEngine(this, false, false);
+
+        @Nullable
+        @Override
+        public ChunkAccess getChunk(int x, int z, ChunkStatus status, boolean requireChunk) {
+            long key = ChunkPos.asLong(x, z);
+            LevelChunk chunk = chunks.get(key);
+            if (chunk == null && requireChunk) {
+                chunk = new LevelChunk(InMemoryLevel.this, new ChunkPos(x, z));
+                for (Heightmap.Types type : HEIGHTMAPS) {
+                    chunk.getOrCreateHeightmapUnprimed(type);
+                }
+                chunks.put(key, chunk);
+            }
+            return chunk;
+        }
+
+        @Override
+        public void tick(BooleanSupplier hasTimeLeft, boolean tickChunks) {}
+
+        @Override
+        public String gatherStats() {
+            return "InMemoryLevel chunks: " + chunks.size();
+        }
+
+        @Override
+        public int getLoadedChunksCount() {
+            return chunks.size();
+        }
+
+        @Override
+        public LevelLightEngine getLightEngine() {
+            return lightEngine;
+        }
+
+        @Override
+        public Level getLevel() {
+            return InMemoryLevel.this;
+        }
+    }
+
+    private static final class Data implements WritableLevelData {
+        private final GameRules gameRules = new GameRules();
+        private BlockPos spawnPos = BlockPos.ZERO;
+        private float spawnAngle;
+        private boolean raining;
+
+        @Override
+        public BlockPos getSpawnPos() {
+            return spawnPos;
+        }
+
+        @Override
+        public float getSpawnAngle() {
+            return spawnAngle;
+        }
+
+        @Override
+        public void setSpawn(BlockPos pos, float angle) {
+            this.spawnPos = pos.immutable();
+            this.spawnAngle = angle;
+        }
+
+        @Override
+        public long getGameTime() {
+            return 0L;
+        }
+
+        @Override
+        public long getDayTime() {
+            return 0L;
+        }
+
+        @Override
+        public boolean isThundering() {
+            return false;
+        }
+
+        @Override
+        public boolean isRaining() {
+            return raining;
+        }
+
+        @Override
+        public void setRaining(boolean raining) {
+            this.raining = raining;
+        }
+
+        @Override
+        public boolean isHardcore() {
+            return false;
+        }
+
+        @Override
+        public GameRules getGameRules() {
+            return gameRules;
+        }
+
+        @Override
+        public Difficulty getDifficulty() {
+            return Difficulty.NORMAL;
+        }
+
+        @Override
+        public boolean isDifficultyLocked() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.InteractionResult;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Tiers;
+import net.minecraft.world.item.context.UseOnContext;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tool logic end to end against an {@link InMemoryLevel}: single-block hammer, brush and paxel edits, and a
+ * million-block restyle planned from snapshots and applied by palette rewrites.
+ * Setup checks that every tool actually changed blocks, so a broken path cannot benchmark as a fast no-op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InMemoryLevelBenchmark {
+    // 128 x 64 x 128 = 1,048,576 blocks over 8 x 4 x 8 sections
+    private static final BoundingBox REGION = new BoundingBox(0, 0, 0, 127, 63, 127);
+
+    private InMemoryLevel level;
+    private ConstructionHammerItem hammer;
+    private ItemStack paxel;
+    private BlockPos hammerPos;
+    private BlockPos paintPos;
+    private BlockPos paxelPos;
+    private RestyleMapping oakToSpruce;
+    private RestyleMapping spruceToOak;
+    private boolean spruce;
+    private boolean cyan;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.init();
+        level = new InMemoryLevel();
+        hammer = BenchmarkBootstrap.createItem(() -> new ConstructionHammerItem(new Item.Properties()));
+        paxel = new ItemStack(BenchmarkBootstrap.createItem(() -> new PaxelItem(Tiers.DIAMOND, new Item.Properties())));
+        hammerPos = new BlockPos(0, 100, 0);
+        paintPos = new BlockPos(2, 100, 0);
+        paxelPos = new BlockPos(4, 100, 0);
+        oakToSpruce = RestyleMapping.families(BlockVariantRegistry.getCycleByFamily("oak"),
+                BlockVariantRegistry.getCycleByFamily("spruce"));
+        spruceToOak = RestyleMapping.families(BlockVariantRegistry.getCycleByFamily("spruce"),
+                BlockVariantRegistry.getCycleByFamily("oak"));
+
+        level.setBlock(hammerPos, Blocks.STONE_BRICKS.defaultBlockState(), Block.UPDATE_ALL);
+        level.setBlock(paintPos, Blocks.PINK_WOOL.defaultBlockState(), Block.UPDATE_ALL);
+        level.setBlock(paxelPos, Blocks.OAK_LOG.defaultBlockState(), Block.UPDATE_ALL);
+        level.clearRecorded();
+        check(hammer.cycleBlock(level, hammerPos, null, false) > 0, "hammer did not cycle");
+        check(PaintVariantRegistry.paint(level, paintPos, DyeColor.CYAN), "brush did not paint");
+        check(paxel() == InteractionResult.SUCCESS, "paxel did not strip");
+        check(level.getRecordedWrites().size() >= 3, "tool writes were not recorded");
+        level.setRecording(false);
+        level.setBlock(paxelPos, Blocks.OAK_LOG.defaultBlockState(), Block.UPDATE_CLIENTS);
+
+        BlockState planks = Blocks.OAK_PLANKS.defaultBlockState();
+        for (BlockPos pos : BlockPos.betweenClosed(REGION.minX(), REGION.minY(), REGION.minZ(),
+                REGION.maxX(), REGION.maxY(), REGION.maxZ())) {
+            level.setBlock(pos, planks, Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE);
+        }
+        check(restyle() == REGION.getXSpan() * REGION.getYSpan() * REGION.getZSpan(), "restyle missed blocks");
+        check(level.getBlockState(BlockPos.ZERO).is(Blocks.SPRUCE_PLANKS), "restyle did not apply");
+        check(planRestyle().size() == REGION.getXSpan() * REGION.getYSpan() * REGION.getZSpan(), "plan missed blocks");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+
+    private InteractionResult paxel() {
+        BlockHitResult hit = new BlockHitResult(Vec3.atCenterOf(paxelPos), Direction.UP, paxelPos, false);
+        return paxel.getItem().useOn(new UseOnContext(level, null, InteractionHand.MAIN_HAND, paxel, hit) {});
+    }
+
+    @Benchmark
+    public int hammerCycle() {
+        return hammer.cycleBlock(level, hammerPos, null, false);
+    }
+
+    @Benchmark
+    public boolean paint() {
+        cyan = !cyan;
+        return PaintVariantRegistry.paint(level, paintPos, cyan ? DyeColor.LIME : DyeColor.CYAN);
+    }
+
+    /**
+     * Strips the log and puts it back, so this includes one plain {@code setBlock}.
+     */
+    @Benchmark
+    public InteractionResult paxelStrip() {
+        InteractionResult result = paxel();
+        level.setBlock(paxelPos, Blocks.OAK_LOG.defaultBlockState(), Block.UPDATE_CLIENTS);
+        return result;
+    }
+
+    /**
+     * Snapshots the region and plans the restyle on the planner pool; the level is left untouched.
+     */
+    @Benchmark
+    public BulkEditPlanner.Plan planRestyle() {
+        RestyleMapping mapping = spruce ? spruceToOak : oakToSpruce;
+        return BulkEditPlanner.plan(RegionSnapshot.capture(level, REGION, mapping::mayAffect), mapping).join();
+    }
+
+    /**
+     * Rewrites the palettes of every section in the region, alternating between oak and spruce.
+     */
+    @Benchmark
+    public int restyle() {
+        RestyleMapping mapping = spruce ? spruceToOak : oakToSpruce;
+        spruce = !spruce;
+        BlockChangeList changes = new BlockChangeList(REGION.getXSpan() * REGION.getYSpan() * REGION.getZSpan());
+        int changed = 0;
+        for (int sx = REGION.minX() >> 4; sx <= REGION.maxX() >> 4; sx++) {
+            for (int sy = REGION.minY() >> 4; sy <= REGION.maxY() >> 4; sy++) {
+                for (int sz = REGION.minZ() >> 4; sz <= REGION.maxZ() >> 4; sz++) {
+                    changed += PaletteRewriter.rewrite(level, SectionPos.of(sx, sy, sz), mapping, changes);
+                }
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,34 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.item.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds {@link InMemoryLevel} to the hammer and brush results of a server level: runs
+ * {@link EgToolsGameTests#TOOL_CASES}, which the {@code toolCases} gametest runs on a real level with the same
+ * expectations. Exits non-zero on any difference; wired into {@code check} as the {@code inMemoryLevelParity} task.
+ */
+public final class InMemoryLevelParity {
+    private InMemoryLevelParity() {}
+
+    public static void main(String[] args) {
+        BenchmarkBootstrap.init();
+        ConstructionHammerItem hammer = BenchmarkBootstrap.createItem(() -> new ConstructionHammerItem(new Item.Properties()));
+        InMemoryLevel level = new InMemoryLevel();
+        level.setRecording(false);
+
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < EgToolsGameTests.TOOL_CASES.size(); i++) {
+            String failure = EgToolsGameTests.TOOL_CASES.get(i).run(level, new BlockPos(2 * i, 100, 0), hammer);
+            if (failure != null) failures.add(failure);
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println("In-memory level matched " + EgToolsGameTests.TOOL_CASES.size() + " tool cases");
+    }
+}
@@ -0,0 +1,64 @@
+package com.styenvy.egtools;
+
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the Paint Brush: paintability checks, color dispatch and the brush's paint-use accessors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaintBenchmark {
+    private Block wool;
+    private Block pane;
+    private Block unpaintable;
+    private ItemStack brush;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.init();
+        wool = Blocks.PINK_WOOL;
+        pane = Blocks.PINK_STAINED_GLASS_PANE;
+        unpaintable = Blocks.STONE;
+        brush = new ItemStack(BenchmarkBootstrap.createItem(() -> new PaintBrushItem(new Item.Properties())));
+        PaintBrushItem.chargeBrush(brush, DyeColor.CYAN, PaintBrushItem.MAX_PAINT_USES);
+    }
+
+    @Benchmark
+    public boolean isPaintableHit() {
+        return PaintVariantRegistry.isPaintable(pane);
+    }
+
+    @Benchmark
+    public boolean isPaintableMiss() {
+        return PaintVariantRegistry.isPaintable(unpaintable);
+    }
+
+    @Benchmark
+    public Block paintDispatch() {
+        return PaintVariantRegistry.byColor(PaintVariantRegistry.getFamily(wool), DyeColor.LIME);
+    }
+
+    @Benchmark
+    public int getPaintUses() {
+        return PaintBrushItem.getPaintUses(brush);
+    }
+
+    @Benchmark
+    public DyeColor getPaintColor() {
+        return PaintBrushItem.getPaintColor(brush);
+    }
+
+    @Benchmark
+    public int setPaintUses() {
+        PaintBrushItem.setPaintUses(brush, PaintBrushItem.MAX_PAINT_USES - 1);
+        return PaintBrushItem.getPaintUses(brush);
+    }
+}
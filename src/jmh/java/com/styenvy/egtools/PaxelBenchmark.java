@@ -0,0 +1,43 @@
+package com.styenvy.egtools;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Tiers;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the Paxel queried every mining tick: destroy speed and correct-tool checks.
+ * Block tags are not bound outside a loaded world, so these measure the full tag-miss chain (the worst case).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaxelBenchmark {
+    private PaxelItem paxel;
+    private ItemStack stack;
+    private BlockState stone;
+    private BlockState log;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.init();
+        paxel = BenchmarkBootstrap.createItem(() -> new PaxelItem(Tiers.DIAMOND, new Item.Properties()));
+        stack = new ItemStack(paxel);
+        stone = Blocks.STONE.defaultBlockState();
+        log = Blocks.OAK_LOG.defaultBlockState();
+    }
+
+    @Benchmark
+    public float getDestroySpeed() {
+        return paxel.getDestroySpeed(stack, stone);
+    }
+
+    @Benchmark
+    public boolean isCorrectToolForDrops() {
+        return paxel.isCorrectToolForDrops(stack, log);
+    }
+}
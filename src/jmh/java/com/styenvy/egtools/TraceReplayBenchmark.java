@@ -0,0 +1,112 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Tiers;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a recorded workload trace against a fresh {@link InMemoryLevel} per iteration, through the server-less
+ * {@link WorkloadReplay#run} path.
+ * Pass a production trace with {@code -p trace=/path/to/build_event.egtrace}; without one a small synthetic
+ * trace mixing all operations is generated. Compare runs before and after registry or paxel changes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TraceReplayBenchmark {
+    @Param("")
+    public String trace;
+
+    private List<WorkloadTrace.Op> ops;
+    private ConstructionHammerItem hammer;
+    private ItemStack paxel;
+    private WorkloadReplay replay;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        BenchmarkBootstrap.init();
+        hammer = BenchmarkBootstrap.createItem(() -> new ConstructionHammerItem(new Item.Properties()));
+        paxel = new ItemStack(BenchmarkBootstrap.createItem(() -> new PaxelItem(Tiers.NETHERITE, new Item.Properties())));
+        Path file = trace.isEmpty() ? synthetic() : Path.of(trace);
+        ops = WorkloadTrace.read(file);
+        if (ops.isEmpty()) throw new IllegalStateException("Trace " + file + " holds no operations");
+    }
+
+    @Setup(Level.Iteration)
+    public void freshLevel() {
+        InMemoryLevel level = new InMemoryLevel();
+        level.setRecording(false);
+        replay = new WorkloadReplay(level, hammer, paxel, true);
+    }
+
+    @Benchmark
+    public WorkloadReplay.Result replay() {
+        return replay.run(ops);
+    }
+
+    /**
+     * Writes a trace of hammer clicks, paints and paxel strips on a 100x100 floor, then one bulk job of every kind a
+     * trace can rebuild over it. Each bulk job is checked to resolve from its recorded name, so a replay never
+     * skips one.
+     */
+    private static Path synthetic() throws IOException {
+        Path file = Files.createTempFile("egtools", WorkloadTrace.EXTENSION);
+        file.toFile().deleteOnExit();
+        UUID player = UUID.randomUUID();
+        String dimension = "minecraft:overworld";
+        try (OutputStream out = Files.newOutputStream(file);
+             WorkloadTrace.Writer writer = new WorkloadTrace.Writer(out, System.currentTimeMillis())) {
+            long tick = 0;
+            for (int i = 0; i < 10_000; i++, tick += i % 4 == 0 ? 1 : 0) {
+                BlockPos pos = new BlockPos(i % 100, 100, i / 100);
+                switch (i % 3) {
+                    case 0 -> writer.hammer(tick, player, "builder", dimension, pos, Blocks.STONE_BRICKS.defaultBlockState(),
+                            Blocks.STONE.defaultBlockState(), Blocks.AIR.defaultBlockState(), false);
+                    case 1 -> writer.paint(tick, player, "builder", dimension, pos, Blocks.WHITE_WOOL.defaultBlockState(),
+                            DyeColor.byId(i % 16));
+                    default -> writer.paxel(tick, player, "builder", dimension, pos, Blocks.OAK_LOG.defaultBlockState(),
+                            Blocks.AIR.defaultBlockState(), Direction.UP);
+                }
+            }
+            Map<Block, Double> bricks = new LinkedHashMap<>();
+            bricks.put(Blocks.STONE_BRICKS, 0.7);
+            bricks.put(Blocks.CRACKED_STONE_BRICKS, 0.3);
+            Map<DyeColor, Double> colors = new LinkedHashMap<>();
+            colors.put(DyeColor.RED, 1.0);
+            colors.put(DyeColor.BLUE, 2.0);
+            List<BulkOperation> bulk = List.of(BulkOperation.cycle(false), BulkOperation.cycle(true),
+                    BulkOperation.paint(DyeColor.LIME),
+                    RestyleMapping.families(BlockVariantRegistry.getCycleByFamily("oak"),
+                            BlockVariantRegistry.getCycleByFamily("spruce")),
+                    RestyleMapping.colors(DyeColor.LIME, DyeColor.WHITE),
+                    ScatterOperation.variants(bricks, 42L), ScatterOperation.colors(colors, 42L));
+            for (BulkOperation operation : bulk) {
+                String name = operation.traceName();
+                if (WorkloadReplay.resolve(name) == null) {
+                    throw new IllegalStateException("Recorded name " + name + " does not resolve on replay");
+                }
+                writer.bulk(++tick, player, "builder", dimension, new BoundingBox(0, 99, 0, 99, 101, 99), name);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,60 @@
+package com.styenvy.egtools;
+
+/**
+ * Samples an index from fixed weights in constant time with Vose's alias method: each column holds its own
+ * index plus at most one alias, so a draw is one column pick and one biased coin.
+ * Immutable once built, so one sampler is shared by every planning thread.
+ */
+final class AliasSampler {
+    private static final double UNIT = 0x1.0p-53;
+
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights Non-negative weights, at least one of them positive
+     * @throws IllegalArgumentException if the weights are empty, negative or all zero
+     */
+    AliasSampler(double[] weights) {
+        int n = weights.length;
+        if (n == 0) throw new IllegalArgumentException("No weights");
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) throw new IllegalArgumentException("Bad weight " + weight);
+            total += weight;
+        }
+        if (total <= 0) throw new IllegalArgumentException("All weights are zero");
+
+        probability = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n], large = new int[n];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount], more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) small[smallCount++] = more;
+            else large[largeCount++] = more;
+        }
+        // Whatever is left is 1 up to rounding
+        while (largeCount > 0) probability[large[--largeCount]] = 1.0;
+        while (smallCount > 0) probability[small[--smallCount]] = 1.0;
+    }
+
+    /**
+     * Draws an index from 64 random bits: the high bits pick the column, the low 53 bits flip the coin.
+     * Taking one long per draw lets callers skip draws by discarding longs.
+     */
+    int sample(long bits) {
+        int column = (int) Math.multiplyHigh(bits >>> 1, (long) probability.length << 1);
+        double coin = (bits & (1L << 53) - 1) * UNIT;
+        return coin < probability[column] ? column : alias[column];
+    }
+}
@@ -0,0 +1,423 @@
+package com.styenvy.egtools;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.Util;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.storage.LevelResource;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only, per-dimension log of every block change made by the tools, used for auditing and rollback.
+ * The server thread only enqueues records; a single background writer batches them into segments, deflates each
+ * sealed segment and writes it through a memory-mapped file. A segment is sealed when full, before a query, at
+ * shutdown, and once its oldest record is {@code maxUnsealedSeconds} old, so a crash loses at most that window.
+ * Every segment is indexed by time range, players and touched chunks (kept in memory and persisted in
+ * {@code index.bin}), so a rollback only inflates segments that can contain matching records.
+ * Rollbacks are applied as bulk edits.
+ * Files live in {@code <dimension folder>/egtools/audit/}.
+ * Record layout (40 bytes): packed pos, old state id, new state id, player UUID (msb, lsb), epoch millis.
+ * State ids are only stable for one set of registered blocks; segments written with a different
+ * block state registry size are skipped on rollback.
+ */
+@EventBusSubscriber(modid = EgTools.MODID)
+public final class AuditLog {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int RECORD_BYTES = 40;
+    private static final int SEGMENT_MAGIC = 0x45474153; // "EGAS"
+    private static final int SEGMENT_HEADER_BYTES = 20;
+    private static final long FLUSH_INTERVAL_MILLIS = 1_000L;
+
+    private static final Map<ResourceKey<Level>, AuditLog> logs = new ConcurrentHashMap<>();
+    @Nullable
+    private static ScheduledExecutorService writer;
+
+    private final Path dir;
+    private final Queue<Record> pending = new ConcurrentLinkedQueue<>();
+    private final List<SegmentIndex> index = new ArrayList<>(); // writer thread only
+    private final ByteBuffer buffer; // writer thread only
+    private long oldestBuffered; // writer thread only; time of the first record in the buffer
+    private int nextSegment;
+
+    private AuditLog(Path dir) {
+        this.dir = dir;
+        this.buffer = ByteBuffer.allocate(segmentRecords() * RECORD_BYTES);
+    }
+
+    /**
+     * Logs the changes of one tool operation. Never blocks: records are handed to the background writer.
+     */
+    public static void record(Level level, @Nullable Player player, BlockChangeList changes) {
+        if (!(level instanceof ServerLevel serverLevel) || changes.isEmpty() || !EgToolsConfig.AUDIT_ENABLED.get()) {
+            return;
+        }
+        AuditLog log = forLevel(serverLevel);
+        UUID id = player == null ? Util.NIL_UUID : player.getUUID();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < changes.size(); i++) {
+            log.pending.add(new Record(changes.getPos(i), Block.getId(changes.getOldState(i)),
+                    Block.getId(changes.getNewState(i)), id.getMostSignificantBits(), id.getLeastSignificantBits(), now));
+        }
+    }
+
+    /**
+     * Finds the changes made by {@code player} since {@code sinceMillis} within {@code radius} blocks of
+     * {@code center}, newest first. Runs on the writer thread after everything pending has been written.
+     */
+    public static CompletableFuture<BlockChangeList> query(ServerLevel level, UUID player, long sinceMillis,
+                                                           BlockPos center, int radius) {
+        AuditLog log = forLevel(level);
+        return CompletableFuture.supplyAsync(() -> {
+            log.drain();
+            log.seal();
+            return log.scan(player, sinceMillis, center, radius);
+        }, writer());
+    }
+
+    /**
+     * Starts reverting the queried changes as a {@link BulkEdit} over their positions, so the blocks are restored
+     * under the bulk tick budget with their chunks loaded through tickets. Must be called on the server thread.
+     * A position is only restored while it still holds the state the logged operation produced; block entity
+     * data (shulker box contents, banner patterns) is carried over to the restored block.
+     *
+     * @param changes Changes newest first, as returned by {@link #query}
+     * @param player  The player to attribute the restored blocks to, or null
+     * @return The running edit
+     */
+    public static BulkEdit rollback(ServerLevel level, BlockChangeList changes, @Nullable Player player) {
+        // Unwind each position's history newest first as long as the records chain up: {state now, state to restore}
+        Long2ObjectOpenHashMap<BlockState[]> steps = new Long2ObjectOpenHashMap<>();
+        LongOpenHashSet broken = new LongOpenHashSet();
+        for (int i = 0; i < changes.size(); i++) {
+            long pos = changes.getPos(i);
+            BlockState[] step = steps.get(pos);
+            if (step == null) {
+                steps.put(pos, new BlockState[]{changes.getNewState(i), changes.getOldState(i)});
+            } else if (!broken.contains(pos)) {
+                if (step[1] == changes.getNewState(i)) step[1] = changes.getOldState(i);
+                else broken.add(pos);
+            }
+        }
+        Set<BlockState> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        steps.values().forEach(step -> expected.add(step[0]));
+
+        BulkOperation operation = new BulkOperation() {
+            @Override
+            public String name() {
+                return "rollback";
+            }
+
+            @Override
+            public boolean mayAffect(BlockState state) {
+                return expected.contains(state);
+            }
+
+            @Override
+            public SectionPlanner forSection(SectionPos section) {
+                return (x, y, z, state) -> {
+                    BlockState[] step = steps.get(BlockPos.asLong(x, y, z));
+                    return step == null || step[0] != state || step[1] == state ? null : step[1];
+                };
+            }
+
+            @Override
+            public int writeFlags() {
+                // Like the brush: halves of a bed must not break each other while they differ
+                return Block.UPDATE_ALL | Block.UPDATE_KNOWN_SHAPE;
+            }
+        };
+        return BulkEditScheduler.submit(level, steps.keySet(), operation, player);
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent e) {
+        ScheduledExecutorService executor = writer;
+        if (executor == null) return;
+        executor.execute(() -> logs.values().forEach(log -> {
+            log.drain();
+            log.seal();
+        }));
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("Timed out writing the EgTools audit log");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        logs.clear();
+    }
+
+    // --- Writer side ---
+
+    private static synchronized ScheduledExecutorService writer() {
+        if (writer == null) {
+            writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "EgTools Audit Writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            writer.scheduleWithFixedDelay(() -> logs.values().forEach(AuditLog::flush),
+                    FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return writer;
+    }
+
+    private static AuditLog forLevel(ServerLevel level) {
+        return logs.computeIfAbsent(level.dimension(), key -> {
+            MinecraftServer server = level.getServer();
+            Path dir = DimensionType.getStorageFolder(key, server.getWorldPath(LevelResource.ROOT))
+                    .resolve(EgTools.MODID).resolve("audit");
+            AuditLog log = new AuditLog(dir);
+            writer().execute(log::loadIndex);
+            return log;
+        });
+    }
+
+    /**
+     * Drains pending records, then seals the partial segment once its oldest record has waited long enough, so a
+     * crash loses at most that much of the log.
+     */
+    private void flush() {
+        drain();
+        long maxAge = EgToolsConfig.AUDIT_MAX_UNSEALED_SECONDS.get() * 1_000L;
+        if (buffer.position() > 0 && System.currentTimeMillis() - oldestBuffered >= maxAge) seal();
+    }
+
+    /** Moves pending records into the segment buffer, sealing full segments. */
+    private void drain() {
+        Record record;
+        while ((record = pending.poll()) != null) {
+            if (!buffer.hasRemaining()) seal();
+            if (buffer.position() == 0) oldestBuffered = record.time;
+            buffer.putLong(record.pos).putInt(record.oldState).putInt(record.newState)
+                    .putLong(record.playerMost).putLong(record.playerLeast).putLong(record.time);
+        }
+    }
+
+    /** Compresses the buffered records into a new segment file and indexes it. */
+    private void seal() {
+        if (buffer.position() == 0) return;
+        byte[] raw = Arrays.copyOf(buffer.array(), buffer.position());
+        int count = raw.length / RECORD_BYTES;
+        buffer.clear();
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+
+        int id = nextSegment++;
+        SegmentIndex segment = SegmentIndex.of(id, ByteBuffer.wrap(raw), count);
+        try {
+            Files.createDirectories(dir);
+            try (FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        SEGMENT_HEADER_BYTES + compressed.size());
+                mapped.putInt(SEGMENT_MAGIC).putInt(count).putInt(raw.length)
+                        .putInt(Block.BLOCK_STATE_REGISTRY.size()).putInt(compressed.size());
+                mapped.put(compressed.toByteArray());
+                mapped.force();
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(dir.resolve("index.bin"), StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+                segment.write(out);
+            }
+            index.add(segment);
+        } catch (IOException e) {
+            LOGGER.error("Failed to write EgTools audit segment {} in {}", id, dir, e);
+        }
+    }
+
+    private void loadIndex() {
+        Path file = dir.resolve("index.bin");
+        if (!Files.exists(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (in.available() > 0) {
+                SegmentIndex segment = SegmentIndex.read(in);
+                index.add(segment);
+                nextSegment = Math.max(nextSegment, segment.id + 1);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to read EgTools audit index {}; older segments will not be searched", file, e);
+        }
+    }
+
+    // --- Query side (writer thread) ---
+
+    private BlockChangeList scan(UUID player, long sinceMillis, BlockPos center, int radius) {
+        long[] chunks = chunksAround(center, radius);
+        long radiusSq = (long) radius * radius;
+        BlockChangeList result = new BlockChangeList();
+
+        // Newest segment first, newest record first, so reverting in list order unwinds history
+        for (int s = index.size() - 1; s >= 0; s--) {
+            SegmentIndex segment = index.get(s);
+            if (segment.maxTime < sinceMillis || !segment.hasPlayer(player) || !segment.touchesAny(chunks)) continue;
+
+            ByteBuffer records = readSegment(segment.id);
+            if (records == null) continue;
+            for (int i = segment.count - 1; i >= 0; i--) {
+                int base = i * RECORD_BYTES;
+                long time = records.getLong(base + 32);
+                if (time < sinceMillis) break;
+                if (records.getLong(base + 16) != player.getMostSignificantBits()
+                        || records.getLong(base + 24) != player.getLeastSignificantBits()) continue;
+                long pos = records.getLong(base);
+                if (BlockPos.of(pos).distSqr(center) > radiusSq) continue;
+                result.add(pos, Block.stateById(records.getInt(base + 8)), Block.stateById(records.getInt(base + 12)));
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private ByteBuffer readSegment(int id) {
+        try (FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt() != SEGMENT_MAGIC) return null;
+            mapped.getInt(); // record count, also in the index
+            int rawLength = mapped.getInt();
+            if (mapped.getInt() != Block.BLOCK_STATE_REGISTRY.size()) {
+                LOGGER.warn("Skipping EgTools audit segment {}: written with a different block set", id);
+                return null;
+            }
+            byte[] compressed = new byte[mapped.getInt()];
+            mapped.get(compressed);
+
+            Inflater inflater = new Inflater();
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            inflater.inflate(raw);
+            inflater.end();
+            return ByteBuffer.wrap(raw);
+        } catch (IOException | DataFormatException e) {
+            LOGGER.warn("Failed to read EgTools audit segment {}", id, e);
+            return null;
+        }
+    }
+
+    private Path segmentPath(int id) {
+        return dir.resolve("segment-" + id + ".bin");
+    }
+
+    private static long[] chunksAround(BlockPos center, int radius) {
+        ChunkPos min = new ChunkPos(center.offset(-radius, 0, -radius));
+        ChunkPos max = new ChunkPos(center.offset(radius, 0, radius));
+        long[] chunks = new long[(max.x - min.x + 1) * (max.z - min.z + 1)];
+        int n = 0;
+        for (int x = min.x; x <= max.x; x++) {
+            for (int z = min.z; z <= max.z; z++) {
+                chunks[n++] = ChunkPos.asLong(x, z);
+            }
+        }
+        return chunks;
+    }
+
+    private static int segmentRecords() {
+        return EgToolsConfig.AUDIT_SEGMENT_RECORDS.get();
+    }
+
+    private record Record(long pos, int oldState, int newState, long playerMost, long playerLeast, long time) {}
+
+    /** Per-segment index: time range, distinct players and sorted touched chunks. */
+    private record SegmentIndex(int id, int count, long minTime, long maxTime, long[] players, long[] chunks) {
+        static SegmentIndex of(int id, ByteBuffer raw, int count) {
+            long minTime = Long.MAX_VALUE;
+            long maxTime = Long.MIN_VALUE;
+            Set<UUID> players = new HashSet<>();
+            Set<Long> chunks = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                int base = i * RECORD_BYTES;
+                BlockPos pos = BlockPos.of(raw.getLong(base));
+                chunks.add(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+                players.add(new UUID(raw.getLong(base + 16), raw.getLong(base + 24)));
+                long time = raw.getLong(base + 32);
+                minTime = Math.min(minTime, time);
+                maxTime = Math.max(maxTime, time);
+            }
+            long[] playerBits = new long[players.size() * 2];
+            int n = 0;
+            for (UUID player : players) {
+                playerBits[n++] = player.getMostSignificantBits();
+                playerBits[n++] = player.getLeastSignificantBits();
+            }
+            long[] chunkArray = chunks.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new SegmentIndex(id, count, minTime, maxTime, playerBits, chunkArray);
+        }
+
+        boolean hasPlayer(UUID player) {
+            for (int i = 0; i < players.length; i += 2) {
+                if (players[i] == player.getMostSignificantBits() && players[i + 1] == player.getLeastSignificantBits()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean touchesAny(long[] query) {
+            for (long chunk : query) {
+                if (Arrays.binarySearch(chunks, chunk) >= 0) return true;
+            }
+            return false;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(id);
+            out.writeInt(count);
+            out.writeLong(minTime);
+            out.writeLong(maxTime);
+            out.writeInt(players.length);
+            for (long bits : players) out.writeLong(bits);
+            out.writeInt(chunks.length);
+            for (long chunk : chunks) out.writeLong(chunk);
+        }
+
+        static SegmentIndex read(DataInputStream in) throws IOException {
+            int id = in.readInt();
+            int count = in.readInt();
+            long minTime = in.readLong();
+            long maxTime = in.readLong();
+            long[] players = new long[in.readInt()];
+            for (int i = 0; i < players.length; i++) players[i] = in.readLong();
+            long[] chunks = new long[in.readInt()];
+            for (int i = 0; i < chunks.length; i++) chunks[i] = in.readLong();
+            return new SegmentIndex(id, count, minTime, maxTime, players, chunks);
+        }
+    }
+}
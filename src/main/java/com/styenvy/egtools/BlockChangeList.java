@@ -0,0 +1,103 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.Arrays;
+
+/**
+ * Compact list of block changes (packed position, old state, new state) in the order they were made.
+ * Backed by parallel arrays so large operations do not allocate one object per change.
+ */
+public final class BlockChangeList {
+    private long[] positions;
+    private BlockState[] oldStates;
+    private BlockState[] newStates;
+    private int size;
+
+    public BlockChangeList() {
+        this(8);
+    }
+
+    public BlockChangeList(int capacity) {
+        int initial = Math.max(1, capacity);
+        this.positions = new long[initial];
+        this.oldStates = new BlockState[initial];
+        this.newStates = new BlockState[initial];
+    }
+
+    /**
+     * Appends a change.
+     */
+    public void add(BlockPos pos, BlockState oldState, BlockState newState) {
+        add(pos.asLong(), oldState, newState);
+    }
+
+    /**
+     * Appends a change at a packed position (see {@link BlockPos#asLong()}).
+     */
+    public void add(long pos, BlockState oldState, BlockState newState) {
+        if (size == positions.length) {
+            int capacity = positions.length * 2;
+            positions = Arrays.copyOf(positions, capacity);
+            oldStates = Arrays.copyOf(oldStates, capacity);
+            newStates = Arrays.copyOf(newStates, capacity);
+        }
+        positions[size] = pos;
+        oldStates[size] = oldState;
+        newStates[size] = newState;
+        size++;
+    }
+
+    /**
+     * Appends every change of another list.
+     */
+    public void addAll(BlockChangeList other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.positions[i], other.oldStates[i], other.newStates[i]);
+        }
+    }
+
+    /**
+     * Gets the packed position of a change (see {@link BlockPos#of(long)}).
+     */
+    public long getPos(int index) {
+        checkIndex(index);
+        return positions[index];
+    }
+
+    public BlockState getOldState(int index) {
+        checkIndex(index);
+        return oldStates[index];
+    }
+
+    public BlockState getNewState(int index) {
+        checkIndex(index);
+        return newStates[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(oldStates, 0, size, null);
+        Arrays.fill(newStates, 0, size, null);
+        size = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BlockChangeList{size=" + size + '}';
+    }
+}
@@ -0,0 +1,108 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.data.BlockFamilies;
+import net.minecraft.data.BlockFamily;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.Block;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Derives cycles from {@link BlockFamily} data, the same families datagen uses for stairs, slabs, walls and the
+ * rest of a material's shapes: every vanilla family in {@link BlockFamilies} and any family handed to
+ * {@link #registerFamily}. {@link BlockFamilies} only holds vanilla's own families, so modded families are covered
+ * only when their mod registers them. Signs and other blocks with block entities are left out.
+ * Derived cycles only fill gaps: a block already in a registered cycle is left out, so the hand-written list and
+ * cycles registered by other mods act as overrides. Families sharing a base block are merged into one cycle.
+ */
+final class BlockFamilyCycles {
+    private static final Collection<BlockFamily> registered = new ConcurrentLinkedQueue<>();
+
+    private BlockFamilyCycles() {}
+
+    /**
+     * Adds a family that is not part of {@link BlockFamilies}. Thread-safe.
+     */
+    static void registerFamily(BlockFamily family) {
+        registered.add(family);
+    }
+
+    /**
+     * Derives one cycle per base block, from the base block and its variants in {@link BlockFamily.Variant} order.
+     * Reads only frozen registries, so it runs on any thread once blocks are registered.
+     *
+     * @param taken       Blocks already in a cycle, left out of derived ones
+     * @param takenNames  Family names already in use
+     * @return The derived cycles; families left with fewer than two blocks are dropped
+     */
+    static List<BlockVariantCycle> derive(Set<Block> taken, Set<String> takenNames) {
+        Map<Block, Set<Block>> byBase = new LinkedHashMap<>();
+        BlockFamilies.getAllFamilies().forEach(family -> collect(family, byBase));
+        registered.forEach(family -> collect(family, byBase));
+
+        List<BlockVariantCycle> cycles = new ArrayList<>();
+        Set<Block> used = new HashSet<>(taken);
+        Set<String> names = new HashSet<>(takenNames);
+        for (Map.Entry<Block, Set<Block>> entry : byBase.entrySet()) {
+            List<Block> blocks = new ArrayList<>();
+            for (Block block : entry.getValue()) {
+                if (!used.contains(block)) blocks.add(block);
+            }
+            if (blocks.size() < 2) continue;
+            String name = familyName(entry.getKey(), names);
+            cycles.add(new BlockVariantCycle(name, blocks.toArray(Block[]::new)));
+            used.addAll(blocks);
+            names.add(name);
+        }
+        return cycles;
+    }
+
+    private static void collect(BlockFamily family, Map<Block, Set<Block>> byBase) {
+        Set<Block> blocks = byBase.computeIfAbsent(family.getBaseBlock(), base -> new LinkedHashSet<>());
+        if (cyclable(family.getBaseBlock())) blocks.add(family.getBaseBlock());
+        for (BlockFamily.Variant variant : BlockFamily.Variant.values()) {
+            // Signs carry their text in a block entity, and a standing sign is no wall sign
+            if (variant == BlockFamily.Variant.SIGN || variant == BlockFamily.Variant.WALL_SIGN) continue;
+            Block block = family.get(variant);
+            if (block != null && cyclable(block)) blocks.add(block);
+        }
+    }
+
+    /**
+     * Checks whether the hammer may swap a block in place: block entity data would be lost.
+     */
+    private static boolean cyclable(Block block) {
+        return !block.defaultBlockState().hasBlockEntity();
+    }
+
+    /**
+     * Names a derived cycle after its base block ("oak_planks" becomes "oak"), prefixed with the namespace for
+     * modded blocks or when the short name is taken.
+     */
+    private static String familyName(Block base, Set<String> taken) {
+        ResourceLocation id = BuiltInRegistries.BLOCK.getKey(base);
+        String path = id.getPath();
+        for (String suffix : new String[]{"_planks", "_block"}) {
+            if (path.endsWith(suffix) && path.length() > suffix.length()) {
+                path = path.substring(0, path.length() - suffix.length());
+                break;
+            }
+        }
+        String name = id.getNamespace().equals(ResourceLocation.DEFAULT_NAMESPACE) ? path : id.getNamespace() + "_" + path;
+        if (!taken.contains(name)) return name;
+        String qualified = id.getNamespace() + "_" + id.getPath();
+        for (int i = 2; taken.contains(qualified); i++) {
+            qualified = id.getNamespace() + "_" + id.getPath() + "_" + i;
+        }
+        return qualified;
+    }
+}
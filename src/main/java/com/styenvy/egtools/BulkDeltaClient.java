@@ -0,0 +1,75 @@
+package com.styenvy.egtools;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.client.renderer.LevelRenderer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.lighting.LightEngine;
+
+import java.util.Map;
+
+/**
+ * Client side of {@link BulkDeltaPayload}. Only loaded on the client.
+ * States are written straight into the chunk sections; each section (and each neighbor whose faces it borders)
+ * is marked for re-meshing once, instead of once per block as with vanilla block updates.
+ */
+final class BulkDeltaClient {
+    private BulkDeltaClient() {}
+
+    static void apply(BulkDeltaPayload payload) {
+        Minecraft minecraft = Minecraft.getInstance();
+        ClientLevel level = minecraft.level;
+        if (level == null) return;
+
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (BulkDeltaPayload.SectionDelta delta : payload.sections()) {
+            SectionPos section = SectionPos.of(delta.section());
+            LevelChunk chunk = level.getChunkSource().getChunk(section.x(), section.z(), false);
+            int index = level.getSectionIndexFromSectionY(section.y());
+            if (chunk == null || index < 0 || index >= chunk.getSectionsCount()) continue;
+            LevelChunkSection target = chunk.getSection(index);
+
+            int minX = 16, minY = 16, minZ = 16, maxX = -1, maxY = -1, maxZ = -1;
+            for (int i = 0; i < delta.positions().length; i++) {
+                int local = delta.positions()[i];
+                int x = local & 15, z = local >> 4 & 15, y = local >> 8 & 15;
+                BlockState state = delta.palette()[delta.indices()[i]];
+                pos.set(section.minBlockX() + x, section.minBlockY() + y, section.minBlockZ() + z);
+
+                BlockState old = target.getBlockState(x, y, z);
+                if (old == state) continue;
+                if (old.hasBlockEntity() || state.hasBlockEntity()) {
+                    // Block entities need the full client path
+                    level.setServerVerifiedBlockState(pos, state, 19);
+                    continue;
+                }
+
+                target.setBlockState(x, y, z, state);
+                for (Map.Entry<Heightmap.Types, Heightmap> heightmap : chunk.getHeightmaps()) {
+                    heightmap.getValue().update(x, pos.getY(), z, state);
+                }
+                if (LightEngine.hasDifferentLightProperties(level, pos, old, state)) {
+                    level.getChunkSource().getLightEngine().checkBlock(pos);
+                }
+                minX = Math.min(minX, x); maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y); maxY = Math.max(maxY, y);
+                minZ = Math.min(minZ, z); maxZ = Math.max(maxZ, z);
+            }
+            if (maxX < 0) continue;
+
+            LevelRenderer renderer = minecraft.levelRenderer;
+            renderer.setSectionDirty(section.x(), section.y(), section.z());
+            if (minX == 0) renderer.setSectionDirty(section.x() - 1, section.y(), section.z());
+            if (maxX == 15) renderer.setSectionDirty(section.x() + 1, section.y(), section.z());
+            if (minY == 0) renderer.setSectionDirty(section.x(), section.y() - 1, section.z());
+            if (maxY == 15) renderer.setSectionDirty(section.x(), section.y() + 1, section.z());
+            if (minZ == 0) renderer.setSectionDirty(section.x(), section.y(), section.z() - 1);
+            if (maxZ == 15) renderer.setSectionDirty(section.x(), section.y(), section.z() + 1);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.styenvy.egtools;
+
+import io.netty.handler.codec.DecoderException;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The block changes of a bulk edit within one chunk, sent instead of vanilla's per-section update packets.
+ * Each section is encoded as: section pos, a palette of state ids, the changed positions (a 4096-bit mask when
+ * dense, varint gaps when sparse) and the palette index of every position bit-packed into longs.
+ * The connection's own compression applies on top. Clients apply a section in one pass and re-mesh it once
+ * (see {@link BulkDeltaClient}).
+ */
+public record BulkDeltaPayload(List<SectionDelta> sections) implements CustomPacketPayload {
+    public static final Type<BulkDeltaPayload> TYPE =
+            new Type<>(ResourceLocation.fromNamespaceAndPath(EgTools.MODID, "bulk_delta"));
+    public static final StreamCodec<FriendlyByteBuf, BulkDeltaPayload> STREAM_CODEC =
+            StreamCodec.ofMember(BulkDeltaPayload::write, BulkDeltaPayload::read);
+
+    private static final int SECTION_BLOCKS = 4096;
+    // Above this many changes the position mask (512 bytes) is smaller than the gap list
+    private static final int DENSE_THRESHOLD = 384;
+
+    @Override
+    public Type<BulkDeltaPayload> type() {
+        return TYPE;
+    }
+
+    /**
+     * Groups changes into one payload per chunk. A position changed twice keeps its last state.
+     */
+    public static Map<ChunkPos, BulkDeltaPayload> byChunk(BlockChangeList changes) {
+        Long2ObjectLinkedOpenHashMap<BlockState[]> sections = new Long2ObjectLinkedOpenHashMap<>();
+        for (int i = 0; i < changes.size(); i++) {
+            long pos = changes.getPos(i);
+            int x = BlockPos.getX(pos), y = BlockPos.getY(pos), z = BlockPos.getZ(pos);
+            long key = SectionPos.asLong(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(y),
+                    SectionPos.blockToSectionCoord(z));
+            sections.computeIfAbsent(key, k -> new BlockState[SECTION_BLOCKS])[localIndex(x, y, z)] = changes.getNewState(i);
+        }
+
+        Map<ChunkPos, BulkDeltaPayload> chunks = new LinkedHashMap<>();
+        for (Long2ObjectLinkedOpenHashMap.Entry<BlockState[]> entry : sections.long2ObjectEntrySet()) {
+            SectionPos section = SectionPos.of(entry.getLongKey());
+            chunks.computeIfAbsent(section.chunk(), c -> new BulkDeltaPayload(new ArrayList<>()))
+                    .sections.add(SectionDelta.of(entry.getLongKey(), entry.getValue()));
+        }
+        return chunks;
+    }
+
+    static int localIndex(int x, int y, int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    private void write(FriendlyByteBuf buf) {
+        buf.writeVarInt(sections.size());
+        for (SectionDelta section : sections) {
+            section.write(buf);
+        }
+    }
+
+    private static BulkDeltaPayload read(FriendlyByteBuf buf) {
+        int count = buf.readVarInt();
+        if (count < 0 || count > 4096) throw new DecoderException("Bad section count " + count);
+        List<SectionDelta> sections = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sections.add(SectionDelta.read(buf));
+        }
+        return new BulkDeltaPayload(sections);
+    }
+
+    /**
+     * The changes within one section.
+     *
+     * @param section   Packed section position (see {@link SectionPos#asLong()})
+     * @param palette   Distinct new states
+     * @param positions Changed local indices (y << 8 | z << 4 | x), ascending
+     * @param indices   Palette index of each position
+     */
+    public record SectionDelta(long section, BlockState[] palette, short[] positions, int[] indices) {
+
+        static SectionDelta of(long section, BlockState[] states) {
+            Reference2IntOpenHashMap<BlockState> ids = new Reference2IntOpenHashMap<>();
+            List<BlockState> palette = new ArrayList<>();
+            int count = 0;
+            for (BlockState state : states) {
+                if (state != null) count++;
+            }
+            short[] positions = new short[count];
+            int[] indices = new int[count];
+            int n = 0;
+            for (int i = 0; i < states.length; i++) {
+                BlockState state = states[i];
+                if (state == null) continue;
+                int id = ids.getOrDefault(state, -1);
+                if (id < 0) {
+                    id = palette.size();
+                    ids.put(state, id);
+                    palette.add(state);
+                }
+                positions[n] = (short) i;
+                indices[n++] = id;
+            }
+            return new SectionDelta(section, palette.toArray(BlockState[]::new), positions, indices);
+        }
+
+        private void write(FriendlyByteBuf buf) {
+            buf.writeLong(section);
+            buf.writeVarInt(palette.length);
+            for (BlockState state : palette) {
+                buf.writeVarInt(Block.getId(state));
+            }
+
+            buf.writeVarInt(positions.length);
+            boolean dense = positions.length >= DENSE_THRESHOLD;
+            buf.writeBoolean(dense);
+            if (dense) {
+                long[] mask = new long[SECTION_BLOCKS / Long.SIZE];
+                for (short position : positions) {
+                    mask[position >>> 6] |= 1L << (position & 63);
+                }
+                for (long word : mask) {
+                    buf.writeLong(word);
+                }
+            } else {
+                int previous = -1;
+                for (short position : positions) {
+                    buf.writeVarInt(position - previous - 1);
+                    previous = position;
+                }
+            }
+
+            int bits = bitsFor(palette.length);
+            if (bits > 0) {
+                buf.writeLongArray(pack(indices, bits));
+            }
+        }
+
+        private static SectionDelta read(FriendlyByteBuf buf) {
+            long section = buf.readLong();
+            int paletteSize = buf.readVarInt();
+            if (paletteSize < 1 || paletteSize > SECTION_BLOCKS) throw new DecoderException("Bad palette size " + paletteSize);
+            BlockState[] palette = new BlockState[paletteSize];
+            for (int i = 0; i < paletteSize; i++) {
+                BlockState state = Block.BLOCK_STATE_REGISTRY.byId(buf.readVarInt());
+                if (state == null) throw new DecoderException("Unknown block state in bulk delta");
+                palette[i] = state;
+            }
+
+            int count = buf.readVarInt();
+            if (count < 0 || count > SECTION_BLOCKS) throw new DecoderException("Bad change count " + count);
+            short[] positions = new short[count];
+            if (buf.readBoolean()) {
+                int n = 0;
+                for (int word = 0; word < SECTION_BLOCKS / Long.SIZE; word++) {
+                    long bitsSet = buf.readLong();
+                    while (bitsSet != 0) {
+                        if (n == count) throw new DecoderException("Position mask does not match change count");
+                        positions[n++] = (short) (word << 6 | Long.numberOfTrailingZeros(bitsSet));
+                        bitsSet &= bitsSet - 1;
+                    }
+                }
+                if (n != count) throw new DecoderException("Position mask does not match change count");
+            } else {
+                int position = -1;
+                for (int i = 0; i < count; i++) {
+                    position += buf.readVarInt() + 1;
+                    if (position >= SECTION_BLOCKS) throw new DecoderException("Position out of section");
+                    positions[i] = (short) position;
+                }
+            }
+
+            int bits = bitsFor(paletteSize);
+            int[] indices = bits == 0 ? new int[count] : unpack(buf.readLongArray(null, SECTION_BLOCKS), bits, count);
+            for (int index : indices) {
+                if (index >= paletteSize) throw new DecoderException("Palette index out of range");
+            }
+            return new SectionDelta(section, palette, positions, indices);
+        }
+
+        private static int bitsFor(int paletteSize) {
+            return paletteSize <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(paletteSize - 1);
+        }
+
+        // Values do not span longs, like SimpleBitStorage
+        private static long[] pack(int[] values, int bits) {
+            int perLong = Long.SIZE / bits;
+            long[] packed = new long[(values.length + perLong - 1) / perLong];
+            for (int i = 0; i < values.length; i++) {
+                packed[i / perLong] |= (long) values[i] << (i % perLong * bits);
+            }
+            return packed;
+        }
+
+        private static int[] unpack(long[] packed, int bits, int count) {
+            int perLong = Long.SIZE / bits;
+            if (packed.length < (count + perLong - 1) / perLong) throw new DecoderException("Truncated palette indices");
+            long mask = (1L << bits) - 1;
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = (int) (packed[i / perLong] >>> (i % perLong * bits) & mask);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package com.styenvy.egtools;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.Clearable;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * One running bulk edit, applied by {@link BulkEditScheduler} on the server thread within the per-tick budget.
+ * The region's chunks are brought in through tickets by a {@link RegionChunkLoader}, a bounded number at a time,
+ * and each chunk is edited as soon as it is available: snapshotted, planned off-thread, applied one section at
+ * a time, then released. Nothing here loads a chunk synchronously.
+ * A planned change is only applied while the block still holds the state it was planned from; blocks that
+ * changed in between are collected and planned again from a fresh snapshot of their chunk, up to the configured
+ * number of re-plans.
+ * Operations with a palette mapping first rewrite the palettes of the chunk's sections lying fully inside the box,
+ * under the same budget; whatever is left (partial or unsafe sections) is then snapshotted and planned.
+ * Writes use {@link BulkOperation#writeFlags()}, by default {@link Block#UPDATE_CLIENTS} like /fill:
+ * shapes update and clients are told, neighbors are not ticked. Operations that also skip shape updates
+ * cannot change anything but their own blocks, so clients get those changes as one
+ * {@link BulkDeltaPayload} per chunk and tick instead of vanilla section updates.
+ * Blocks with a block entity keep its data across the change when the new block has the same kind of entity.
+ * Before a chunk is touched, the {@link EditPermission} is asked whether the player may edit it; denied chunks are
+ * skipped whole.
+ * An edit of a batch of positions instead of a box only tickets the chunks holding them, skips palette rewrites
+ * and plans exactly those positions.
+ * Effects of the applied changes ({@link BulkOperation#effects}) are collected in a {@link ToolEffects} and
+ * emitted once when the edit finishes, and its changes are collected for the one {@link ToolOperationEvent.Post}
+ * posted then (also when the edit is cancelled or fails part way), so listeners see a whole edit in one call.
+ */
+public final class BulkEdit {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    // Blocks applied between deadline checks
+    private static final int CHECK_INTERVAL = 64;
+
+    private final ServerLevel level;
+    @Nullable
+    private final Player player;
+    private final BulkOperation operation;
+    private final BoundingBox bounds;
+    private final CompletableFuture<Result> result = new CompletableFuture<>();
+    private final ToolOperationJfrEvent event = new ToolOperationJfrEvent();
+    private final RegionChunkLoader chunks;
+    // Loaded chunks being edited, in the order they became available
+    private final List<ChunkEdit> active = new ArrayList<>();
+    // Emitted once when the edit finishes
+    private final ToolEffects effects = new ToolEffects();
+    // Every change made, for the ToolOperationEvent.Post posted when the edit finishes
+    private final BlockChangeList changes = new BlockChangeList(256);
+    // Protection answers per chunk, asked as each chunk starts
+    private final EditPermissions.Session permissions;
+    // Positions of a batch edit by chunk, handed to each chunk edit as it starts; null for box edits
+    @Nullable
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> batch;
+
+    private int rewrittenSections;
+    private int conflicts;
+    private int replans;
+    private long serverNanos;
+    private volatile int chunksDone;
+    private volatile int planned;
+    private volatile int applied;
+    private volatile boolean cancelled;
+
+    BulkEdit(ServerLevel level, @Nullable Player player, BulkOperation operation, BoundingBox bounds) {
+        this.level = level;
+        this.player = player;
+        this.operation = operation;
+        this.bounds = bounds;
+        this.batch = null;
+        this.permissions = EditPermissions.session(level, player);
+        this.chunks = new RegionChunkLoader(level, bounds, EgToolsConfig.BULK_MAX_TICKETED_CHUNKS.get(), places(operation));
+        event.begin();
+    }
+
+    /**
+     * Creates an edit of the given packed positions only.
+     */
+    BulkEdit(ServerLevel level, @Nullable Player player, BulkOperation operation, LongCollection positions) {
+        this.level = level;
+        this.player = player;
+        this.operation = operation;
+        this.batch = new Long2ObjectOpenHashMap<>();
+        this.permissions = EditPermissions.session(level, player);
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (long packed : positions) {
+            int x = BlockPos.getX(packed), y = BlockPos.getY(packed), z = BlockPos.getZ(packed);
+            minX = Math.min(minX, x); minY = Math.min(minY, y); minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x); maxY = Math.max(maxY, y); maxZ = Math.max(maxZ, z);
+            batch.computeIfAbsent(ChunkPos.asLong(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z)),
+                    chunk -> new LongOpenHashSet()).add(packed);
+        }
+        this.bounds = positions.isEmpty() ? new BoundingBox(BlockPos.ZERO)
+                : new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+        this.chunks = new RegionChunkLoader(level, batch.keySet(), EgToolsConfig.BULK_MAX_TICKETED_CHUNKS.get(), places(operation));
+        event.begin();
+    }
+
+    /**
+     * Checks whether an operation places blocks into air, and so needs chunks generated that never were; the
+     * others only change existing blocks and skip them.
+     */
+    private static boolean places(BulkOperation operation) {
+        return operation.mayAffect(Blocks.AIR.defaultBlockState());
+    }
+
+    /**
+     * Gets the future completed when the edit has been applied, cancelled or failed.
+     */
+    public CompletableFuture<Result> result() {
+        return result;
+    }
+
+    public BulkOperation operation() {
+        return operation;
+    }
+
+    public BoundingBox bounds() {
+        return bounds;
+    }
+
+    /**
+     * Gets the fraction of the edit's chunks that are done (edited or given up on), from 0 to 1.
+     */
+    public double progress() {
+        int total = chunks.total();
+        return total == 0 ? 1.0 : Math.min(1.0, (double) chunksDone / total);
+    }
+
+    /**
+     * Gets the number of changes planned so far, including re-plans.
+     */
+    public int planned() {
+        return planned;
+    }
+
+    /**
+     * Gets the number of blocks changed so far.
+     */
+    public int applied() {
+        return applied;
+    }
+
+    /**
+     * Stops the edit at the next tick. Blocks already changed stay changed.
+     * Cancelling {@link #result()} does the same.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Loads chunks and applies planned changes until {@code deadlineNanos}.
+     *
+     * @return true when the edit is finished and can be dropped
+     */
+    boolean tick(long deadlineNanos) {
+        if (cancelled || result.isCancelled()) {
+            active.forEach(ChunkEdit::cancel);
+            finish(true);
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            return applyUntil(deadlineNanos);
+        } catch (RuntimeException e) {
+            LOGGER.error("Bulk edit {} failed", operation.name(), e);
+            chunks.releaseAll();
+            postChanges();
+            result.completeExceptionally(e);
+            return true;
+        } finally {
+            serverNanos += System.nanoTime() - start;
+        }
+    }
+
+    private boolean applyUntil(long deadlineNanos) {
+        int timedOut = chunks.timedOut();
+        chunks.poll(chunk -> active.add(new ChunkEdit(chunk)));
+        chunksDone += chunks.timedOut() - timedOut;
+        Iterator<ChunkEdit> it = active.iterator();
+        while (it.hasNext() && System.nanoTime() < deadlineNanos) {
+            ChunkEdit edit = it.next();
+            if (edit.advance(deadlineNanos)) {
+                it.remove();
+                chunks.release(edit.chunk);
+                chunksDone++;
+            }
+        }
+        if (active.isEmpty() && chunks.isDone()) {
+            finish(false);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The edit of one loaded chunk column, clipped to the box.
+     */
+    private final class ChunkEdit {
+        private final long chunk;
+        private final BoundingBox box;
+        @Nullable
+        private final LongOpenHashSet positions;
+        @Nullable
+        private LongArrayList rewriteQueue;
+        private int rewriteIndex;
+        @Nullable
+        private CompletableFuture<BulkEditPlanner.Plan> planning;
+        @Nullable
+        private BulkEditPlanner.Plan plan;
+        private int sectionIndex;
+        private int changeIndex;
+        private LongOpenHashSet conflicts = new LongOpenHashSet();
+        private int replans;
+        private final boolean denied;
+
+        ChunkEdit(long chunk) {
+            this.chunk = chunk;
+            ChunkPos pos = new ChunkPos(chunk);
+            this.box = new BoundingBox(Math.max(bounds.minX(), pos.getMinBlockX()), bounds.minY(),
+                    Math.max(bounds.minZ(), pos.getMinBlockZ()), Math.min(bounds.maxX(), pos.getMaxBlockX()),
+                    bounds.maxY(), Math.min(bounds.maxZ(), pos.getMaxBlockZ()));
+            this.positions = batch == null ? null : batch.remove(chunk);
+            BlockPos sample = positions != null ? BlockPos.of(positions.iterator().nextLong()) : box.getCenter();
+            this.denied = !permissions.mayEdit(sample);
+            if (denied) return;
+            if (positions == null && operation.paletteMapping() != null) {
+                rewriteQueue = coveredSections(level, box);
+            } else {
+                startPlanning();
+            }
+        }
+
+        /**
+         * Works on this chunk until the deadline.
+         *
+         * @return true once the chunk is done and its ticket can be released
+         */
+        boolean advance(long deadlineNanos) {
+            if (denied) return true;
+            if (rewriteQueue != null) {
+                if (!rewritePalettes(deadlineNanos)) return false;
+                rewriteQueue = null;
+                startPlanning();
+            }
+            if (plan == null) {
+                if (!planning.isDone()) return false;
+                try {
+                    plan = planning.join();
+                } catch (CompletionException e) {
+                    throw new IllegalStateException("Planning failed", e.getCause());
+                }
+                planned += plan.size();
+                sectionIndex = 0;
+                changeIndex = 0;
+            }
+
+            BlockChangeList written = new BlockChangeList(256);
+            BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+            try {
+                while (sectionIndex < plan.sections().size()) {
+                    BlockChangeList section = plan.sections().get(sectionIndex);
+                    while (changeIndex < section.size()) {
+                        long packed = section.getPos(changeIndex);
+                        BlockState expected = section.getOldState(changeIndex);
+                        BlockState target = section.getNewState(changeIndex);
+                        changeIndex++;
+
+                        BlockState live = level.getBlockState(pos.set(packed));
+                        if (live == expected) {
+                            if (setBlock(pos, expected, target)) {
+                                written.add(packed, expected, target);
+                            }
+                        } else if (live != target) {
+                            conflicts.add(packed);
+                        }
+                        if (changeIndex % CHECK_INTERVAL == 0 && System.nanoTime() >= deadlineNanos) {
+                            return false;
+                        }
+                    }
+                    sectionIndex++;
+                    changeIndex = 0;
+                    if (System.nanoTime() >= deadlineNanos) {
+                        return false;
+                    }
+                }
+            } finally {
+                flush(written);
+            }
+
+            if (!conflicts.isEmpty() && replans < EgToolsConfig.BULK_MAX_REPLANS.get()) {
+                replans++;
+                BulkEdit.this.replans++;
+                RegionSnapshot snapshot = RegionSnapshot.capture(level, conflicts, operation::mayAffect);
+                conflicts = new LongOpenHashSet();
+                plan = null;
+                planning = BulkEditPlanner.plan(snapshot, operation);
+                return false;
+            }
+            BulkEdit.this.conflicts += conflicts.size();
+            return true;
+        }
+
+        /**
+         * Rewrites queued section palettes until the deadline.
+         *
+         * @return true once the queue is exhausted
+         */
+        private boolean rewritePalettes(long deadlineNanos) {
+            PaletteRewriter.Mapping mapping = operation.paletteMapping();
+            BlockChangeList written = new BlockChangeList(256);
+            try {
+                while (rewriteIndex < rewriteQueue.size()) {
+                    SectionPos section = SectionPos.of(rewriteQueue.getLong(rewriteIndex++));
+                    if (PaletteRewriter.rewrite(level, section, mapping, written) > 0) {
+                        rewrittenSections++;
+                    }
+                    if (System.nanoTime() >= deadlineNanos) {
+                        return rewriteIndex >= rewriteQueue.size();
+                    }
+                }
+                return true;
+            } finally {
+                // Palette rewrites never notify clients themselves
+                record(written);
+                EgToolsNetwork.sendBulkChanges(level, written);
+            }
+        }
+
+        private void startPlanning() {
+            // Rewritten sections no longer hold any source state, so the palette check skips them here
+            RegionSnapshot snapshot = positions != null
+                    ? RegionSnapshot.capture(level, positions, operation::mayAffect)
+                    : RegionSnapshot.capture(level, box, operation::mayAffect);
+            planning = BulkEditPlanner.plan(snapshot, operation);
+        }
+
+        void cancel() {
+            if (planning != null) planning.cancel(false);
+        }
+    }
+
+    private void flush(BlockChangeList written) {
+        record(written);
+        if (sendsDeltas()) {
+            EgToolsNetwork.sendBulkChanges(level, written);
+        }
+    }
+
+    private void record(BlockChangeList written) {
+        applied += written.size();
+        AuditLog.record(level, player, written);
+        changes.addAll(written);
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int i = 0; i < written.size(); i++) {
+            operation.effects(effects, pos.set(written.getPos(i)), written.getOldState(i), written.getNewState(i));
+        }
+    }
+
+    /**
+     * Writes one planned change. A block entity's data is saved before the swap and loaded into the new block
+     * entity when it has the same type, so a changed shulker box keeps its items and a banner its patterns;
+     * containers are cleared first so nothing drops.
+     */
+    private boolean setBlock(BlockPos pos, BlockState expected, BlockState target) {
+        BlockEntity old = expected.hasBlockEntity() ? level.getBlockEntity(pos) : null;
+        if (old == null) return level.setBlock(pos, target, writeFlags());
+
+        CompoundTag data = old.saveWithoutMetadata(level.registryAccess());
+        BlockEntityType<?> type = old.getType();
+        Clearable.tryClear(old);
+        if (!level.setBlock(pos, target, writeFlags())) {
+            old.loadWithComponents(data, level.registryAccess());
+            return false;
+        }
+        BlockEntity fresh = level.getBlockEntity(pos);
+        if (fresh != null && fresh.getType() == type) {
+            fresh.loadWithComponents(data, level.registryAccess());
+            fresh.setChanged();
+            level.sendBlockUpdated(pos, target, target, Block.UPDATE_CLIENTS);
+        }
+        return true;
+    }
+
+    private boolean sendsDeltas() {
+        return (operation.writeFlags() & Block.UPDATE_KNOWN_SHAPE) != 0;
+    }
+
+    private int writeFlags() {
+        return sendsDeltas() ? operation.writeFlags() & ~Block.UPDATE_CLIENTS : operation.writeFlags();
+    }
+
+    /**
+     * Lists the sections lying entirely inside {@code bounds}, in x-z-y order.
+     */
+    static LongArrayList coveredSections(Level level, BoundingBox bounds) {
+        LongArrayList sections = new LongArrayList();
+        int minY = Math.max(SectionPos.blockToSectionCoord(bounds.minY() + 15), level.getMinSection());
+        int maxY = Math.min(SectionPos.blockToSectionCoord(bounds.maxY() + 1) - 1, level.getMaxSection() - 1);
+        for (int x = SectionPos.blockToSectionCoord(bounds.minX() + 15); x < SectionPos.blockToSectionCoord(bounds.maxX() + 1); x++) {
+            for (int z = SectionPos.blockToSectionCoord(bounds.minZ() + 15); z < SectionPos.blockToSectionCoord(bounds.maxZ() + 1); z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    sections.add(SectionPos.asLong(x, y, z));
+                }
+            }
+        }
+        return sections;
+    }
+
+    private void finish(boolean wasCancelled) {
+        chunks.releaseAll();
+        effects.emit(level);
+        postChanges();
+        int changed = applied;
+        EgToolsMetrics.record(ToolOperation.BULK, player, level, changed, serverNanos);
+        event.complete(ToolOperation.BULK, operation.name(), changed, player, level, bounds.getCenter());
+        result.complete(new Result(changed, rewrittenSections, conflicts, replans, chunks.timedOut(),
+                permissions.deniedChunks(), wasCancelled));
+    }
+
+    private void postChanges() {
+        if (!changes.isEmpty()) {
+            ToolOperationEvent.post(ToolOperation.BULK, level, player, ItemStack.EMPTY, bounds, changes);
+        }
+    }
+
+    /**
+     * Outcome of a bulk edit.
+     *
+     * @param changed           Blocks changed
+     * @param rewrittenSections Sections changed by rewriting their palette
+     * @param conflicts         Blocks left unchanged because they kept changing after the last re-plan
+     * @param replans           Re-plans performed
+     * @param missingChunks     Chunks skipped because they did not load in time or, for edits placing nothing, were never generated
+     * @param deniedChunks      Chunks skipped because the {@link EditPermission} denied the player
+     * @param cancelled         Whether the edit was cancelled before completing
+     */
+    public record Result(int changed, int rewrittenSections, int conflicts, int replans, int missingChunks, int deniedChunks,
+                         boolean cancelled) {}
+}
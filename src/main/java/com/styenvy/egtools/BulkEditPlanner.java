@@ -0,0 +1,143 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes the change list of a {@link BulkOperation} from a {@link RegionSnapshot} on a dedicated ForkJoin pool.
+ * Sections are planned in parallel; the server thread only receives the finished diff.
+ */
+public final class BulkEditPlanner {
+    // Sections per leaf task; a section is up to 4096 blocks, so small batches already amortize the fork
+    private static final int SECTIONS_PER_TASK = 4;
+
+    @Nullable
+    private static ForkJoinPool pool;
+
+    private BulkEditPlanner() {}
+
+    /**
+     * Plans {@code operation} over {@code snapshot} asynchronously.
+     */
+    public static CompletableFuture<Plan> plan(RegionSnapshot snapshot, BulkOperation operation) {
+        return CompletableFuture.supplyAsync(() -> planNow(snapshot, operation), pool());
+    }
+
+    /**
+     * Plans on the calling thread, forking onto the planner pool when called from one of its workers.
+     */
+    static Plan planNow(RegionSnapshot snapshot, BulkOperation operation) {
+        List<SectionSnapshot> sections = snapshot.sections();
+        BlockChangeList[] results = new BlockChangeList[sections.size()];
+        new PlanTask(snapshot, operation, results, 0, results.length).invoke();
+
+        List<BlockChangeList> nonEmpty = new ArrayList<>();
+        int total = 0;
+        for (BlockChangeList changes : results) {
+            if (!changes.isEmpty()) {
+                nonEmpty.add(changes);
+                total += changes.size();
+            }
+        }
+        return new Plan(nonEmpty, total, snapshot.missingChunks());
+    }
+
+    private static BlockChangeList planSection(RegionSnapshot snapshot, SectionSnapshot section, BulkOperation operation) {
+        SectionPos pos = section.pos();
+        BoundingBox bounds = snapshot.bounds();
+        int minX = Math.max(bounds.minX(), pos.minBlockX()), maxX = Math.min(bounds.maxX(), pos.maxBlockX());
+        int minY = Math.max(bounds.minY(), pos.minBlockY()), maxY = Math.min(bounds.maxY(), pos.maxBlockY());
+        int minZ = Math.max(bounds.minZ(), pos.minBlockZ()), maxZ = Math.min(bounds.maxZ(), pos.maxBlockZ());
+
+        BulkOperation.SectionPlanner planner = operation.forSection(pos);
+        BlockChangeList changes = new BlockChangeList(64);
+        // y-z-x order matches the section storage layout
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    BlockState state = section.get(x & 15, y & 15, z & 15);
+                    if (!operation.mayAffect(state)) continue;
+                    long packed = BlockPos.asLong(x, y, z);
+                    if (!snapshot.includes(packed)) continue;
+                    BlockState planned = planner.plan(x, y, z, state);
+                    if (planned != null && planned != state) {
+                        changes.add(packed, state, planned);
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Gets the planner pool; region scans run on it too.
+     */
+    static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int threads = EgToolsConfig.SPEC.isLoaded() ? EgToolsConfig.BULK_PLANNER_THREADS.get() : 0;
+            if (threads <= 0) {
+                threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            }
+            pool = new ForkJoinPool(threads, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("EgTools Planner-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+
+    /**
+     * A planned bulk edit: one change list per affected section, in section order.
+     *
+     * @param sections      Non-empty change lists, each confined to one section
+     * @param size          Total number of planned changes
+     * @param missingChunks Chunks skipped because they were not loaded
+     */
+    public record Plan(List<BlockChangeList> sections, int size, int missingChunks) {
+        public Plan {
+            sections = Collections.unmodifiableList(sections);
+        }
+    }
+
+    private static final class PlanTask extends RecursiveAction {
+        private final RegionSnapshot snapshot;
+        private final BulkOperation operation;
+        private final BlockChangeList[] results;
+        private final int from;
+        private final int to;
+
+        PlanTask(RegionSnapshot snapshot, BulkOperation operation, BlockChangeList[] results, int from, int to) {
+            this.snapshot = snapshot;
+            this.operation = operation;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SECTIONS_PER_TASK) {
+                List<SectionSnapshot> sections = snapshot.sections();
+                for (int i = from; i < to; i++) {
+                    results[i] = planSection(snapshot, sections.get(i), operation);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PlanTask(snapshot, operation, results, from, mid),
+                    new PlanTask(snapshot, operation, results, mid, to));
+        }
+    }
+}
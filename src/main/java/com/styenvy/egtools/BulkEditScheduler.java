@@ -0,0 +1,134 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Runs {@link BulkEdit}s on the server tick.
+ * All running edits share one time budget per tick ({@link EgToolsConfig#BULK_TICK_BUDGET_MILLIS}) and take
+ * turns, so a large edit cannot starve a small one. Other long jobs that work through a region, like clipboard
+ * copies, run as {@link Task}s under the same budget, alternating with the edits. Server thread only.
+ */
+@EventBusSubscriber(modid = EgTools.MODID)
+public final class BulkEditScheduler {
+    private static final Deque<BulkEdit> running = new ArrayDeque<>();
+    private static final Deque<Task> tasks = new ArrayDeque<>();
+
+    private BulkEditScheduler() {}
+
+    /**
+     * Starts {@code operation} over the area; its chunks are loaded through tickets from the next tick on.
+     * If a {@link ToolOperationEvent.Pre} listener cancels it, the edit completes as cancelled on the next tick.
+     * Must be called on the server thread.
+     *
+     * @param player The player to attribute the changes to, or null
+     * @return The running edit
+     */
+    public static BulkEdit submit(ServerLevel level, BoundingBox bounds, BulkOperation operation, @Nullable Player player) {
+        BulkEdit edit = new BulkEdit(level, player, operation, bounds);
+        if (ToolOperationEvent.cancelled(ToolOperation.BULK, level, player, ItemStack.EMPTY, bounds)) {
+            edit.cancel();
+        } else {
+            WorkloadRecorder.bulk(level, player, bounds, operation);
+        }
+        running.addLast(edit);
+        return edit;
+    }
+
+    /**
+     * Starts {@code operation} on the given packed positions only; just the chunks holding them are loaded.
+     * Must be called on the server thread. Position batches are not recorded in workload traces.
+     *
+     * @param player The player to attribute the changes to, or null
+     * @return The running edit
+     */
+    public static BulkEdit submit(ServerLevel level, LongCollection positions, BulkOperation operation, @Nullable Player player) {
+        BulkEdit edit = new BulkEdit(level, player, operation, positions);
+        if (ToolOperationEvent.cancelled(ToolOperation.BULK, level, player, ItemStack.EMPTY, edit.bounds())) {
+            edit.cancel();
+        }
+        running.addLast(edit);
+        return edit;
+    }
+
+    /**
+     * Starts a task on the next tick. Must be called on the server thread.
+     */
+    static void run(Task task) {
+        tasks.addLast(task);
+    }
+
+    /**
+     * Gets the edits still running, oldest first.
+     */
+    public static List<BulkEdit> running() {
+        return List.copyOf(running);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post e) {
+        if (running.isEmpty() && tasks.isEmpty()) return;
+        long deadline = System.nanoTime() + EgToolsConfig.BULK_TICK_BUDGET_MILLIS.get() * 1_000_000L;
+        int editTurns = running.size();
+        int taskTurns = tasks.size();
+        while ((editTurns > 0 || taskTurns > 0) && System.nanoTime() < deadline) {
+            if (editTurns > 0) {
+                editTurns--;
+                BulkEdit edit = running.pollFirst();
+                if (!edit.tick(deadline)) {
+                    running.addLast(edit);
+                }
+            }
+            if (taskTurns > 0 && System.nanoTime() < deadline) {
+                taskTurns--;
+                Task task = tasks.pollFirst();
+                if (!task.tick(deadline)) {
+                    tasks.addLast(task);
+                }
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent e) {
+        for (BulkEdit edit : running) {
+            edit.cancel();
+            edit.tick(0L);
+        }
+        running.clear();
+        for (Task task : tasks) {
+            task.cancel();
+            task.tick(0L);
+        }
+        tasks.clear();
+    }
+
+    /**
+     * A job run a slice at a time under the bulk tick budget.
+     */
+    interface Task {
+        /**
+         * Works until {@code deadlineNanos}.
+         *
+         * @return true when the task is finished and can be dropped
+         */
+        boolean tick(long deadlineNanos);
+
+        /**
+         * Stops the task at its next tick, which must then release whatever it holds and finish.
+         */
+        void cancel();
+    }
+}
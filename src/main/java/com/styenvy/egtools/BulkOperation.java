@@ -0,0 +1,176 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.sounds.SoundEvent;
+import net.minecraft.sounds.SoundEvents;
+import net.minecraft.sounds.SoundSource;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * An area edit that can be planned off the server thread by {@link BulkEditPlanner}.
+ * Implementations only read the immutable block states they are given, so they run on worker threads.
+ */
+public interface BulkOperation {
+
+    /**
+     * Gets a short label for metrics, JFR events and messages (e.g., "cycle", "paint:red").
+     */
+    String name();
+
+    /**
+     * Gets what a workload trace records for this operation, which {@link WorkloadReplay#resolve} turns back into
+     * the operation. Defaults to {@link #name()}; operations whose name leaves out parameters include them here.
+     */
+    default String traceName() {
+        return name();
+    }
+
+    /**
+     * Cheap filter checked against section palettes; sections whose palette matches nothing are never copied.
+     *
+     * @return false if this operation can never change {@code state}
+     */
+    boolean mayAffect(BlockState state);
+
+    /**
+     * Creates the planner for one section. Called once per section on a worker thread.
+     */
+    SectionPlanner forSection(SectionPos section);
+
+    /**
+     * Gets the palette form of this operation, letting sections that lie fully inside the edit have their palette
+     * entries rewritten instead of their blocks (see {@link PaletteRewriter}).
+     *
+     * @return The mapping, or null if the operation depends on positions
+     */
+    @Nullable
+    default PaletteRewriter.Mapping paletteMapping() {
+        return null;
+    }
+
+    /**
+     * Gets the {@link net.minecraft.world.level.Level#setBlock} flags used when applying planned changes.
+     */
+    default int writeFlags() {
+        return Block.UPDATE_CLIENTS;
+    }
+
+    /**
+     * Adds the effects of one applied change. The edit emits them aggregated once it is done, so a sound
+     * added for every block still plays once.
+     */
+    default void effects(ToolEffects effects, BlockPos pos, BlockState oldState, BlockState newState) {}
+
+    /**
+     * The effects of one applied change, for operations built with {@link #of}.
+     */
+    @FunctionalInterface
+    interface Effects {
+        Effects NONE = (effects, pos, oldState, newState) -> {};
+
+        void add(ToolEffects effects, BlockPos pos, BlockState oldState, BlockState newState);
+    }
+
+    @FunctionalInterface
+    interface SectionPlanner {
+        /**
+         * Plans the new state of one block.
+         *
+         * @param x     Absolute block X
+         * @param y     Absolute block Y
+         * @param z     Absolute block Z
+         * @param state The state in the snapshot
+         * @return The new state, or null to leave the block alone
+         */
+        @Nullable
+        BlockState plan(int x, int y, int z, BlockState state);
+    }
+
+    /**
+     * Creates a position-independent operation from a state transform.
+     */
+    static BulkOperation of(String name, Predicate<BlockState> mayAffect, UnaryOperator<BlockState> transform) {
+        return of(name, mayAffect, transform, Block.UPDATE_CLIENTS);
+    }
+
+    /**
+     * Creates a position-independent operation from a state transform, applied with the given block update flags.
+     */
+    static BulkOperation of(String name, Predicate<BlockState> mayAffect, UnaryOperator<BlockState> transform,
+                            int writeFlags) {
+        return of(name, mayAffect, transform, writeFlags, Effects.NONE);
+    }
+
+    /**
+     * Creates a position-independent operation from a state transform, applied with the given block update flags,
+     * playing {@code sound} where blocks changed.
+     */
+    static BulkOperation of(String name, Predicate<BlockState> mayAffect, UnaryOperator<BlockState> transform,
+                            int writeFlags, @Nullable SoundEvent sound) {
+        return of(name, mayAffect, transform, writeFlags, sound == null ? Effects.NONE
+                : (effects, pos, oldState, newState) -> effects.addSound(null, pos, sound, SoundSource.BLOCKS, 1.0F, 1.0F));
+    }
+
+    /**
+     * Creates a position-independent operation from a state transform, applied with the given block update flags,
+     * adding {@code effects} for every change.
+     */
+    static BulkOperation of(String name, Predicate<BlockState> mayAffect, UnaryOperator<BlockState> transform,
+                            int writeFlags, Effects effects) {
+        SectionPlanner planner = (x, y, z, state) -> transform.apply(state);
+        return new BulkOperation() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public boolean mayAffect(BlockState state) {
+                return mayAffect.test(state);
+            }
+
+            @Override
+            public SectionPlanner forSection(SectionPos section) {
+                return planner;
+            }
+
+            @Override
+            public int writeFlags() {
+                return writeFlags;
+            }
+
+            @Override
+            public void effects(ToolEffects collected, BlockPos pos, BlockState oldState, BlockState newState) {
+                effects.add(collected, pos, oldState, newState);
+            }
+        };
+    }
+
+    /**
+     * Cycles every cyclable block like the Construction Hammer does, with the place sound of each new block.
+     */
+    static BulkOperation cycle(boolean backward) {
+        return of(backward ? "cycle_back" : "cycle",
+                state -> BlockVariantRegistry.getCycle(state.getBlock()) != null,
+                state -> ConstructionHammerItem.cycledState(state, backward), Block.UPDATE_CLIENTS,
+                (effects, pos, oldState, newState) -> effects.addPlaceSound(pos, newState));
+    }
+
+    /**
+     * Repaints every single-block paintable like the Paint Brush does.
+     */
+    static BulkOperation paint(DyeColor color) {
+        return of("paint:" + color.getSerializedName(),
+                state -> PaintVariantRegistry.isPaintable(state.getBlock()),
+                state -> PaintVariantRegistry.paintedState(state, color),
+                // Recoloring keeps the shape, so neighbors need no shape updates
+                Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE, SoundEvents.BRUSH_SAND_COMPLETED);
+    }
+}
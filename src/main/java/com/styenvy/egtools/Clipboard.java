@@ -0,0 +1,278 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+/**
+ * A copied box of blocks, used by {@code /egtools copy} and {@code /egtools paste}.
+ * Stored in 16x16x16 cells on the clipboard's own grid, each a palette of the states it uses plus indices
+ * packed at the fewest bits that palette needs (none for a single-state cell), the same layout chunk sections
+ * use: a built-up region costs a few bits per block rather than a reference per block.
+ * Immutable, so pastes plan from it on worker threads; remapping on paste only rewrites palettes.
+ * Blocks with block entities are copied as their state but never pasted, and never pasted over.
+ */
+public final class Clipboard {
+    private final int sizeX, sizeY, sizeZ;
+    private final int cellsX, cellsY, cellsZ;
+    private final Cell[] cells;
+    // Where the copier stood, relative to the box's minimum corner; pastes line it up with the paster
+    private final BlockPos anchor;
+
+    private Clipboard(int sizeX, int sizeY, int sizeZ, Cell[] cells, BlockPos anchor) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.cellsX = (sizeX + 15) >> 4;
+        this.cellsY = (sizeY + 15) >> 4;
+        this.cellsZ = (sizeZ + 15) >> 4;
+        this.cells = cells;
+        this.anchor = anchor;
+    }
+
+    /**
+     * Copies {@code bounds}. The box's chunks are loaded through tickets by a {@link RegionChunkLoader} and their
+     * sections captured (a palette copy each) one chunk at a time under the bulk tick budget, like a
+     * {@link BulkEdit}; packing then runs on the background executor. Must be called on the server thread.
+     *
+     * @param origin The copier's position; pastes put it at the paster's position
+     * @return The clipboard, or a failed future if part of the box did not load or was never generated
+     */
+    public static CompletableFuture<Clipboard> copy(ServerLevel level, BoundingBox bounds, BlockPos origin) {
+        BlockPos anchor = origin.subtract(new BlockPos(bounds.minX(), bounds.minY(), bounds.minZ()));
+        Capture capture = new Capture(level, bounds, anchor);
+        BulkEditScheduler.run(capture);
+        return capture.result;
+    }
+
+    private static Clipboard pack(BoundingBox bounds, List<SectionSnapshot> captured, BlockPos anchor) {
+        Long2ObjectOpenHashMap<SectionSnapshot> sections = new Long2ObjectOpenHashMap<>();
+        for (SectionSnapshot section : captured) sections.put(section.pos().asLong(), section);
+
+        int sizeX = bounds.getXSpan(), sizeY = bounds.getYSpan(), sizeZ = bounds.getZSpan();
+        int cellsX = (sizeX + 15) >> 4, cellsY = (sizeY + 15) >> 4, cellsZ = (sizeZ + 15) >> 4;
+        Cell[] cells = new Cell[cellsX * cellsY * cellsZ];
+        int[] indices = new int[4096];
+        Reference2IntOpenHashMap<BlockState> paletteIndex = new Reference2IntOpenHashMap<>();
+        List<BlockState> palette = new ArrayList<>();
+        BlockState air = Blocks.AIR.defaultBlockState();
+
+        for (int cy = 0; cy < cellsY; cy++) {
+            for (int cz = 0; cz < cellsZ; cz++) {
+                for (int cx = 0; cx < cellsX; cx++) {
+                    paletteIndex.clear();
+                    palette.clear();
+                    SectionSnapshot section = null;
+                    long sectionKey = Long.MIN_VALUE;
+                    for (int ly = 0; ly < 16; ly++) {
+                        for (int lz = 0; lz < 16; lz++) {
+                            for (int lx = 0; lx < 16; lx++) {
+                                int x = (cx << 4) + lx, y = (cy << 4) + ly, z = (cz << 4) + lz;
+                                BlockState state = air;
+                                if (x < sizeX && y < sizeY && z < sizeZ) {
+                                    int wx = bounds.minX() + x, wy = bounds.minY() + y, wz = bounds.minZ() + z;
+                                    long key = SectionPos.asLong(wx >> 4, wy >> 4, wz >> 4);
+                                    if (key != sectionKey) {
+                                        section = sections.get(key);
+                                        sectionKey = key;
+                                    }
+                                    if (section != null) state = section.get(wx & 15, wy & 15, wz & 15);
+                                }
+                                int index = paletteIndex.getOrDefault(state, -1);
+                                if (index < 0) {
+                                    index = palette.size();
+                                    paletteIndex.put(state, index);
+                                    palette.add(state);
+                                }
+                                indices[ly << 8 | lz << 4 | lx] = index;
+                            }
+                        }
+                    }
+                    cells[(cy * cellsZ + cz) * cellsX + cx] = Cell.pack(palette.toArray(BlockState[]::new), indices);
+                }
+            }
+        }
+        return new Clipboard(sizeX, sizeY, sizeZ, cells, anchor);
+    }
+
+    /**
+     * Creates a clipboard with every state passed through {@code mapping}. Only palettes are rewritten; the packed
+     * indices are shared.
+     */
+    public Clipboard remap(UnaryOperator<BlockState> mapping) {
+        Cell[] remapped = new Cell[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            BlockState[] palette = cells[i].palette().clone();
+            for (int j = 0; j < palette.length; j++) palette[j] = mapping.apply(palette[j]);
+            remapped[i] = new Cell(palette, cells[i].bits(), cells[i].data());
+        }
+        return new Clipboard(sizeX, sizeY, sizeZ, remapped, anchor);
+    }
+
+    /**
+     * Gets a state by clipboard coordinates, from 0 to the size minus one on each axis.
+     */
+    public BlockState get(int x, int y, int z) {
+        Cell cell = cells[((y >> 4) * cellsZ + (z >> 4)) * cellsX + (x >> 4)];
+        return cell.get((y & 15) << 8 | (z & 15) << 4 | x & 15);
+    }
+
+    /**
+     * Gets the box a paste by someone standing at {@code pos} covers.
+     */
+    public BoundingBox pasteBounds(BlockPos pos) {
+        BlockPos min = pos.subtract(anchor);
+        return new BoundingBox(min.getX(), min.getY(), min.getZ(),
+                min.getX() + sizeX - 1, min.getY() + sizeY - 1, min.getZ() + sizeZ - 1);
+    }
+
+    /**
+     * Creates the bulk operation pasting this clipboard into {@code bounds} (see {@link #pasteBounds}).
+     * The edit writes the changed blocks section by section under the bulk tick budget.
+     */
+    public BulkOperation paste(BoundingBox bounds) {
+        int minX = bounds.minX(), minY = bounds.minY(), minZ = bounds.minZ();
+        return new BulkOperation() {
+            @Override
+            public String name() {
+                return "paste";
+            }
+
+            @Override
+            public boolean mayAffect(BlockState state) {
+                return !state.hasBlockEntity();
+            }
+
+            @Override
+            public SectionPlanner forSection(SectionPos section) {
+                return (x, y, z, state) -> {
+                    BlockState target = get(x - minX, y - minY, z - minZ);
+                    return target == state || target.hasBlockEntity() ? null : target;
+                };
+            }
+
+            @Override
+            public void effects(ToolEffects effects, BlockPos pos, BlockState oldState, BlockState newState) {
+                effects.addPlaceSound(pos, newState);
+            }
+        };
+    }
+
+    public int volume() {
+        return sizeX * sizeY * sizeZ;
+    }
+
+    /**
+     * Estimates the memory the packed cells use.
+     */
+    public long sizeBytes() {
+        long bytes = 0;
+        for (Cell cell : cells) {
+            bytes += 32 + cell.palette().length * 8L + (cell.data() == null ? 0 : 16 + cell.data().length * 8L);
+        }
+        return bytes;
+    }
+
+    /**
+     * Captures the sections of a box chunk by chunk as the chunks come in, then packs them.
+     */
+    private static final class Capture implements BulkEditScheduler.Task {
+        private final ServerLevel level;
+        private final BoundingBox bounds;
+        private final BlockPos anchor;
+        private final RegionChunkLoader chunks;
+        // Loaded chunks not captured yet
+        private final LongArrayList ready = new LongArrayList();
+        private final List<SectionSnapshot> sections = new ArrayList<>();
+        private final CompletableFuture<Clipboard> result = new CompletableFuture<>();
+        private volatile boolean cancelled;
+
+        Capture(ServerLevel level, BoundingBox bounds, BlockPos anchor) {
+            this.level = level;
+            this.bounds = bounds;
+            this.anchor = anchor;
+            this.chunks = new RegionChunkLoader(level, bounds, EgToolsConfig.BULK_MAX_TICKETED_CHUNKS.get(), false);
+        }
+
+        @Override
+        public boolean tick(long deadlineNanos) {
+            if (cancelled || result.isCancelled()) {
+                chunks.releaseAll();
+                result.completeExceptionally(new CancellationException("Copy cancelled"));
+                return true;
+            }
+            try {
+                chunks.poll(ready::add);
+                while (!ready.isEmpty() && System.nanoTime() < deadlineNanos) {
+                    long chunk = ready.removeLong(ready.size() - 1);
+                    ChunkPos pos = new ChunkPos(chunk);
+                    BoundingBox box = new BoundingBox(Math.max(bounds.minX(), pos.getMinBlockX()), bounds.minY(),
+                            Math.max(bounds.minZ(), pos.getMinBlockZ()), Math.min(bounds.maxX(), pos.getMaxBlockX()),
+                            bounds.maxY(), Math.min(bounds.maxZ(), pos.getMaxBlockZ()));
+                    sections.addAll(RegionSnapshot.capture(level, box, state -> true).sections());
+                    chunks.release(chunk);
+                }
+                if (!ready.isEmpty() || !chunks.isDone()) return false;
+            } catch (RuntimeException e) {
+                chunks.releaseAll();
+                result.completeExceptionally(e);
+                return true;
+            }
+
+            if (chunks.timedOut() > 0) {
+                result.completeExceptionally(new IllegalStateException(
+                        chunks.timedOut() + " chunks did not load or were never generated"));
+            } else {
+                CompletableFuture.supplyAsync(() -> pack(bounds, sections, anchor), Util.backgroundExecutor())
+                        .whenComplete((clipboard, e) -> {
+                            if (e != null) result.completeExceptionally(e);
+                            else result.complete(clipboard);
+                        });
+            }
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * One 16x16x16 cell: a palette and, for more than one state, indices packed {@code 64 / bits} to a long
+     * without spanning longs (as {@link net.minecraft.util.SimpleBitStorage} does).
+     */
+    private record Cell(BlockState[] palette, int bits, @Nullable long[] data) {
+        static Cell pack(BlockState[] palette, int[] indices) {
+            if (palette.length == 1) return new Cell(palette, 0, null);
+            int bits = 32 - Integer.numberOfLeadingZeros(palette.length - 1);
+            int perLong = 64 / bits;
+            long[] data = new long[(indices.length + perLong - 1) / perLong];
+            for (int i = 0; i < indices.length; i++) {
+                data[i / perLong] |= (long) indices[i] << (i % perLong) * bits;
+            }
+            return new Cell(palette, bits, data);
+        }
+
+        BlockState get(int index) {
+            if (data == null) return palette[0];
+            int perLong = 64 / bits;
+            return palette[(int) (data[index / perLong] >>> (index % perLong) * bits & (1L << bits) - 1)];
+        }
+    }
+}
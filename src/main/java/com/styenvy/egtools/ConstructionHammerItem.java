@@ -15,6 +15,7 @@ import net.minecraft.world.level.block.state.properties.DoubleBlockHalf;
 import net.minecraft.world.level.block.state.properties.Property;
 import net.minecraft.world.level.block.state.properties.SlabType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 
@@ -26,6 +27,7 @@ import java.util.List;
  * - When cycling TO a slab: always creates bottom slab
  * - When cycling FROM a top slab: moves it down if space below is free
  * - When cycling TO a door: creates both halves properly
+ * Blocks with block entities are never cycled, to or from: their data would be lost.
  */
 public class ConstructionHammerItem extends Item {
 
@@ -42,20 +44,53 @@ public class ConstructionHammerItem extends Item {
         // Return false to prevent breaking the block
         // Instead, we'll handle the cycling logic here
         if (!level.isClientSide) {
-            cycleBlock(level, pos, player, player.isShiftKeyDown());
+            ItemStack tool = player.getMainHandItem();
+            BlockVariantCycle cycle = BlockVariantRegistry.getCycle(state.getBlock());
+            // Only cycled blocks and top slabs (which may move down) can change; leave listeners out of other clicks
+            if (cycle == null && !isTopSlab(state)) return false;
+            if (!EditPermissions.mayEdit(level, player, pos)
+                    || ToolOperationEvent.cancelled(ToolOperation.HAMMER_CYCLE, level, player, tool, pos)) return false;
+            ToolOperationJfrEvent event = new ToolOperationJfrEvent();
+            event.begin();
+            long start = System.nanoTime();
+            int changed;
+            BlockChangeList changes;
+            WorkloadRecorder.hammer(level, player, pos, player.isShiftKeyDown());
+            ToolEffects.begin();
+            ToolChanges.begin();
+            try {
+                changed = cycleBlock(level, pos, player, player.isShiftKeyDown());
+            } finally {
+                changes = ToolChanges.end();
+                ToolEffects.end(level);
+            }
+            if (changed > 0) {
+                EgToolsMetrics.record(ToolOperation.HAMMER_CYCLE, player, level, changed, System.nanoTime() - start);
+                event.complete(ToolOperation.HAMMER_CYCLE, cycle == null ? "" : cycle.getFamilyName(),
+                        changed, player, level, pos);
+                AuditLog.record(level, player, changes);
+                ToolOperationEvent.post(ToolOperation.HAMMER_CYCLE, level, player, tool, pos, changes);
+            }
         }
         return false; // Prevent block breaking
     }
 
     /**
      * Main cycling logic moved to a separate method.
+     * Package-private so benchmarks can drive it against their in-memory level.
+     *
+     * @return The number of blocks changed (0 if nothing was cycled)
      */
-    private void cycleBlock(Level level, BlockPos pos, Player player, boolean cycleBackward) {
+    int cycleBlock(Level level, BlockPos pos, @Nullable Player player, boolean cycleBackward) {
         BlockState currentState = level.getBlockState(pos);
         Block currentBlock = currentState.getBlock();
+        // Swapping the block would drop its block entity data (sign text, inventories)
+        if (currentState.hasBlockEntity()) {
+            return 0;
+        }
 
         // Special handling for top slabs when cycling
-        if (currentBlock instanceof SlabBlock && currentState.getValue(SlabBlock.TYPE) == SlabType.TOP) {
+        if (isTopSlab(currentState)) {
             BlockPos belowPos = pos.below();
             BlockState belowState = level.getBlockState(belowPos);
 
@@ -63,30 +98,33 @@ public class ConstructionHammerItem extends Item {
             if (belowState.isAir() && !cycleBackward) {
                 // Move the slab down to bottom position
                 BlockState bottomSlab = currentState.setValue(SlabBlock.TYPE, SlabType.BOTTOM);
-                level.setBlock(belowPos, bottomSlab, 3);
-                level.setBlock(pos, level.getBlockState(pos.above()).isAir() ?
+                ToolChanges.setBlock(level, belowPos, bottomSlab, 3);
+                ToolChanges.setBlock(level, pos, level.getBlockState(pos.above()).isAir() ?
                         net.minecraft.world.level.block.Blocks.AIR.defaultBlockState() : currentState, 3);
-                return;
+                return 2;
             }
             // If block below exists, don't cycle from top slab
             if (!belowState.isAir()) {
-                return;
+                return 0;
             }
         }
 
         // Get the next block in the cycle
         BlockVariantCycle cycle = BlockVariantRegistry.getCycle(currentBlock);
         if (cycle == null) {
-            return;
+            return 0;
         }
 
         Block nextBlock = cycleBackward ? cycle.getPrevious(currentBlock) : cycle.getNext(currentBlock);
         if (nextBlock == null || nextBlock == currentBlock) {
-            return;
+            return 0;
         }
 
         // Create the new block state
         BlockState newState = nextBlock.defaultBlockState();
+        if (newState.hasBlockEntity()) {
+            return 0;
+        }
 
         // Special handling for doors - need to place both halves
         if (newState.getBlock() instanceof DoorBlock) {
@@ -104,12 +142,12 @@ public class ConstructionHammerItem extends Item {
                 topHalf = preserveCompatibleProperties(currentState, topHalf);
 
                 // Place both halves
-                level.setBlock(pos, bottomHalf, 3);
-                level.setBlock(abovePos, topHalf, 3);
-                return;
+                ToolChanges.setBlock(level, pos, bottomHalf, 3);
+                ToolChanges.setBlock(level, abovePos, topHalf, 3);
+                return 2;
             } else {
                 // Can't place door, skip to next block in cycle
-                return;
+                return 0;
             }
         }
 
@@ -122,32 +160,59 @@ public class ConstructionHammerItem extends Item {
         newState = preserveCompatibleProperties(currentState, newState);
 
         // Set the new block
-        level.setBlock(pos, newState, 3);
+        ToolChanges.setBlock(level, pos, newState, 3);
+        return 1;
+    }
+
+    private static boolean isTopSlab(BlockState state) {
+        return state.getBlock() instanceof SlabBlock && state.getValue(SlabBlock.TYPE) == SlabType.TOP;
+    }
+
+    /**
+     * Computes the state a block cycles to without touching the world, for bulk edits.
+     * Doors and blocks with block entities are left alone since they need neighbor or inventory handling,
+     * and slabs keep their type so a bulk pass never halves a double slab.
+     *
+     * @return The cycled state, or null if the block does not cycle this way
+     */
+    @Nullable
+    static BlockState cycledState(BlockState state, boolean backward) {
+        Block block = state.getBlock();
+        if (state.hasBlockEntity() || block instanceof DoorBlock) return null;
+
+        BlockVariantCycle cycle = BlockVariantRegistry.getCycle(block);
+        if (cycle == null) return null;
+        Block next = backward ? cycle.getPrevious(block) : cycle.getNext(block);
+        if (next == null || next == block) return null;
+
+        BlockState newState = next.defaultBlockState();
+        if (newState.hasBlockEntity() || next instanceof DoorBlock) return null;
+        newState = preserveCompatibleProperties(state, newState);
+        if (state.hasProperty(SlabBlock.TYPE) && newState.hasProperty(SlabBlock.TYPE)) {
+            newState = newState.setValue(SlabBlock.TYPE, state.getValue(SlabBlock.TYPE));
+        }
+        return newState;
     }
 
     /**
      * Preserves compatible BlockState properties when cycling between blocks.
      * This maintains properties like facing, waterlogged, powered, etc. when both blocks support them.
      */
-    private BlockState preserveCompatibleProperties(BlockState oldState, BlockState newState) {
+    static BlockState preserveCompatibleProperties(BlockState oldState, BlockState newState) {
         // Iterate through all properties of the old state
         for (Property<?> property : oldState.getProperties()) {
             // Check if the new state has the same property
             if (newState.hasProperty(property)) {
-                try {
-                    // Special handling for slab type - always use bottom
-                    if (property == SlabBlock.TYPE) {
-                        newState = newState.setValue(SlabBlock.TYPE, SlabType.BOTTOM);
-                    }
-                    // Skip door half property as we handle it separately
-                    else if (property == DoorBlock.HALF) {
-                        // Don't copy this property
-                    } else {
-                        // Copy the property value
-                        newState = copyProperty(oldState, newState, property);
-                    }
-                } catch (IllegalArgumentException e) {
-                    // Property exists but value is not valid for new block, skip it
+                // Special handling for slab type - always use bottom
+                if (property == SlabBlock.TYPE) {
+                    newState = newState.setValue(SlabBlock.TYPE, SlabType.BOTTOM);
+                }
+                // Skip door half property as we handle it separately
+                else if (property == DoorBlock.HALF) {
+                    // Don't copy this property
+                } else {
+                    // Copy the property value
+                    newState = copyProperty(oldState, newState, property);
                 }
             }
         }
@@ -157,9 +222,14 @@ public class ConstructionHammerItem extends Item {
 
     /**
      * Helper method to copy a property value from one state to another.
+     * Both states share the property instance, so the value is always valid for the target.
      */
-    private <T extends Comparable<T>> BlockState copyProperty(BlockState source, BlockState target, Property<T> property) {
-        return target.setValue(property, source.getValue(property));
+    private static <T extends Comparable<T>> BlockState copyProperty(BlockState source, BlockState target, Property<T> property) {
+        T value = source.getValue(property);
+        if (target.getValue(property) == value) {
+            return target;
+        }
+        return target.setValue(property, value);
     }
 
     @Override
@@ -0,0 +1,115 @@
+package com.styenvy.egtools;
+
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.block.Block;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Nearest-color lookup from RGB to the dye colors of one paint family, precomputed over a 32x32x32 grid
+ * (5 bits per channel) so converting a pixel is a single array read.
+ * Distances are measured in OKLab, where equal distances look about equally different, against the map color
+ * of each colored block; that tracks the block textures closely enough for murals and covers terracotta,
+ * whose colors are nothing like the dye's.
+ */
+final class DyeColorLut {
+    private static final int BITS = 5;
+    private static final int SIZE = 1 << BITS * 3;
+    private static final Map<String, DyeColorLut> cache = new ConcurrentHashMap<>();
+
+    private final DyeColor[] colors;
+    private final int[] rgb;
+    private final byte[] table = new byte[SIZE];
+
+    private DyeColorLut(DyeColor[] colors, int[] rgb) {
+        this.colors = colors;
+        this.rgb = rgb;
+        float[][] lab = new float[rgb.length][];
+        for (int i = 0; i < rgb.length; i++) lab[i] = oklab(rgb[i]);
+        // Cell centers: the midpoint of the 8 sRGB values each 5-bit step covers
+        for (int cell = 0; cell < SIZE; cell++) {
+            int r = (cell >> 2 * BITS) << 3 | 4, g = (cell >> BITS & 31) << 3 | 4, b = (cell & 31) << 3 | 4;
+            float[] target = oklab(r << 16 | g << 8 | b);
+            int best = 0;
+            float bestDistance = Float.MAX_VALUE;
+            for (int i = 0; i < lab.length; i++) {
+                float dl = target[0] - lab[i][0], da = target[1] - lab[i][1], db = target[2] - lab[i][2];
+                float distance = dl * dl + da * da + db * db;
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = i;
+                }
+            }
+            table[cell] = (byte) best;
+        }
+    }
+
+    /**
+     * Gets the table for a paint family, building it on first use (a few milliseconds). Thread-safe.
+     *
+     * @return The table, or null if the family is unknown or has no colored blocks
+     */
+    @Nullable
+    static DyeColorLut forFamily(String family) {
+        DyeColorLut lut = cache.get(family);
+        if (lut != null) return lut;
+        if (PaintVariantRegistry.familyIndex(family) < 0) return null;
+        List<DyeColor> colors = new ArrayList<>();
+        List<Integer> rgb = new ArrayList<>();
+        for (DyeColor color : DyeColor.values()) {
+            Block block = PaintVariantRegistry.byColor(family, color);
+            if (block == null) continue;
+            colors.add(color);
+            rgb.add(block.defaultMapColor().col);
+        }
+        if (colors.isEmpty()) return null;
+        return cache.computeIfAbsent(family, key -> new DyeColorLut(colors.toArray(DyeColor[]::new),
+                rgb.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Gets the palette index of the closest color to an RGB value (alpha is ignored).
+     */
+    int index(int rgb) {
+        return table[(rgb >> 19 & 31) << 2 * BITS | (rgb >> 11 & 31) << BITS | rgb >> 3 & 31] & 0xFF;
+    }
+
+    /**
+     * Gets the number of palette entries; indexes run from 0 to size - 1.
+     */
+    int size() {
+        return colors.length;
+    }
+
+    DyeColor color(int index) {
+        return colors[index];
+    }
+
+    /**
+     * Gets the RGB value the palette entry is matched by, for dithering error.
+     */
+    int rgb(int index) {
+        return rgb[index];
+    }
+
+    private static float[] oklab(int rgb) {
+        float r = linear(rgb >> 16 & 0xFF), g = linear(rgb >> 8 & 0xFF), b = linear(rgb & 0xFF);
+        float l = (float) Math.cbrt(0.4122214708F * r + 0.5363325363F * g + 0.0514459929F * b);
+        float m = (float) Math.cbrt(0.2119034982F * r + 0.6806995451F * g + 0.1073969566F * b);
+        float s = (float) Math.cbrt(0.0883024619F * r + 0.2817188376F * g + 0.6299787005F * b);
+        return new float[]{
+                0.2104542553F * l + 0.7936177850F * m - 0.0040720468F * s,
+                1.9779984951F * l - 2.4285922050F * m + 0.4505937099F * s,
+                0.0259040371F * l + 0.7827717662F * m - 0.8086757660F * s
+        };
+    }
+
+    private static float linear(int channel) {
+        float c = channel / 255.0F;
+        return c <= 0.04045F ? c / 12.92F : (float) Math.pow((c + 0.055F) / 1.055F, 2.4F);
+    }
+}
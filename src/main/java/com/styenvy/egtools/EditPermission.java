@@ -0,0 +1,47 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.level.BlockEvent;
+
+/**
+ * Decides whether a player may change blocks in a chunk, so claim and protection systems can veto tool edits.
+ * Asked once per chunk: for a click that is the clicked block's chunk, for bulk edits every chunk the edit
+ * touches, with one of the chunk's blocks as the sample. Answers are cached per player and chunk for the rest
+ * of the operation (see {@link EditPermissions.Session}), so implementations should not depend on the exact block.
+ * Install a different one with {@link EditPermissions#set}. Edits without a player are never checked.
+ */
+@FunctionalInterface
+public interface EditPermission {
+
+    /**
+     * @param pos   A block in the chunk that is about to change
+     * @param state Its current state
+     * @return true if the player may change blocks in {@code pos}'s chunk
+     */
+    boolean mayEdit(ServerLevel level, Player player, BlockPos pos, BlockState state);
+
+    /**
+     * The default: posts a {@link BlockEvent.BreakEvent} for the sample block, which protection mods already veto
+     * for their claims.
+     */
+    EditPermission EVENTS = (level, player, pos, state) ->
+            !NeoForge.EVENT_BUS.post(new BlockEvent.BreakEvent(level, pos, state, player)).isCanceled();
+
+    /**
+     * Allows everything, for servers without protection or for benchmarks.
+     */
+    EditPermission ALLOW_ALL = (level, player, pos, state) -> true;
+
+    /**
+     * Creates a stub for tests that denies the given chunks (see {@link ChunkPos#toLong()}) and allows the rest.
+     */
+    static EditPermission denyChunks(LongSet chunks) {
+        return (level, player, pos, state) -> !chunks.contains(ChunkPos.asLong(pos));
+    }
+}
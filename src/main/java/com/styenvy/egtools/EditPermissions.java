@@ -0,0 +1,83 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.longs.Long2BooleanOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the active {@link EditPermission} and caches its answers for the duration of one operation.
+ */
+public final class EditPermissions {
+    private static volatile EditPermission active = EditPermission.EVENTS;
+
+    private EditPermissions() {}
+
+    /**
+     * Replaces the permission check used by every tool and bulk edit.
+     */
+    public static void set(EditPermission permission) {
+        active = permission;
+    }
+
+    public static EditPermission get() {
+        return active;
+    }
+
+    /**
+     * Checks a single-block tool operation. Always allowed on the client and without a player.
+     */
+    public static boolean mayEdit(Level level, @Nullable Player player, BlockPos pos) {
+        if (player == null || !(level instanceof ServerLevel server)) return true;
+        return active.mayEdit(server, player, pos, level.getBlockState(pos));
+    }
+
+    /**
+     * Starts a session for one operation by one player.
+     */
+    public static Session session(ServerLevel level, @Nullable Player player) {
+        return new Session(level, player);
+    }
+
+    /**
+     * Per-chunk answers for one operation: each chunk is asked about once, however many blocks change in it.
+     * Not thread-safe; use on the server thread.
+     */
+    public static final class Session {
+        private final ServerLevel level;
+        @Nullable
+        private final Player player;
+        private final EditPermission permission = active;
+        private final Long2BooleanOpenHashMap chunks = new Long2BooleanOpenHashMap();
+        private int denied;
+
+        private Session(ServerLevel level, @Nullable Player player) {
+            this.level = level;
+            this.player = player;
+        }
+
+        /**
+         * Checks whether blocks in {@code pos}'s chunk may be changed, asking the permission check on the
+         * first call for the chunk.
+         */
+        public boolean mayEdit(BlockPos pos) {
+            if (player == null) return true;
+            long chunk = ChunkPos.asLong(pos);
+            if (chunks.containsKey(chunk)) return chunks.get(chunk);
+            boolean allowed = permission.mayEdit(level, player, pos, level.getBlockState(pos));
+            chunks.put(chunk, allowed);
+            if (!allowed) denied++;
+            return allowed;
+        }
+
+        /**
+         * Gets the number of chunks the check denied so far.
+         */
+        public int deniedChunks() {
+            return denied;
+        }
+    }
+}
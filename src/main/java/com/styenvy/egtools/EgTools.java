@@ -4,6 +4,7 @@ import com.mojang.logging.LogUtils;
 import net.neoforged.bus.api.IEventBus;
 import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
+import net.neoforged.fml.config.ModConfig;
 import org.slf4j.Logger;
 
 @Mod(EgTools.MODID)
@@ -17,6 +18,8 @@ public class EgTools {
         EgToolsTabs.REGISTER.register(modEventBus);
         EgToolsRecipeSerializers.REGISTER.register(modEventBus);
 
+        modContainer.registerConfig(ModConfig.Type.COMMON, EgToolsConfig.SPEC);
+
         LOGGER.info("EgTools mod initialized!");
     }
 }
\ No newline at end of file
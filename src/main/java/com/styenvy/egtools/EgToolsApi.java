@@ -0,0 +1,81 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * Entry point for other mods and server scripts that want the hammer's cycling or the brush's painting applied to
+ * many blocks. Every call queues a {@link BulkEdit} and returns at once; the edit is applied over the following
+ * ticks within the shared bulk budget ({@link EgToolsConfig#BULK_TICK_BUDGET_MILLIS}), loading chunks through
+ * tickets as it goes.
+ * The returned edit exposes the outcome as a future ({@link BulkEdit#result()}), its {@link BulkEdit#progress()},
+ * and {@link BulkEdit#cancel()}; cancelling the future cancels the edit too. Blocks already changed stay changed.
+ * Changes are attributed to the given player in the audit log and metrics, or to nobody.
+ * Bulk cycling and painting follow the bulk rules: doors, beds, blocks with block entities and top slabs moving
+ * down are left to the items. Must be called on the server thread.
+ */
+public final class EgToolsApi {
+    private EgToolsApi() {}
+
+    /**
+     * Cycles the given blocks one step like the Construction Hammer.
+     */
+    public static BulkEdit cycle(ServerLevel level, Collection<BlockPos> positions, boolean backward, @Nullable Player player) {
+        return submit(level, positions, BulkOperation.cycle(backward), player);
+    }
+
+    /**
+     * Cycles every cyclable block in the box one step like the Construction Hammer.
+     */
+    public static BulkEdit cycle(ServerLevel level, BoundingBox bounds, boolean backward, @Nullable Player player) {
+        return submit(level, bounds, BulkOperation.cycle(backward), player);
+    }
+
+    /**
+     * Paints the given blocks like the Paint Brush; blocks that cannot take the color are skipped.
+     */
+    public static BulkEdit paint(ServerLevel level, Collection<BlockPos> positions, DyeColor color, @Nullable Player player) {
+        return submit(level, positions, BulkOperation.paint(color), player);
+    }
+
+    /**
+     * Paints every paintable block in the box like the Paint Brush.
+     */
+    public static BulkEdit paint(ServerLevel level, BoundingBox bounds, DyeColor color, @Nullable Player player) {
+        return submit(level, bounds, BulkOperation.paint(color), player);
+    }
+
+    /**
+     * Applies any bulk operation to the given blocks. Duplicate positions are applied once.
+     */
+    public static BulkEdit submit(ServerLevel level, Collection<BlockPos> positions, BulkOperation operation,
+                                  @Nullable Player player) {
+        checkThread(level);
+        LongOpenHashSet packed = new LongOpenHashSet(positions.size());
+        for (BlockPos pos : positions) {
+            packed.add(pos.asLong());
+        }
+        return BulkEditScheduler.submit(level, packed, operation, player);
+    }
+
+    /**
+     * Applies any bulk operation to the box.
+     */
+    public static BulkEdit submit(ServerLevel level, BoundingBox bounds, BulkOperation operation, @Nullable Player player) {
+        checkThread(level);
+        return BulkEditScheduler.submit(level, bounds, operation, player);
+    }
+
+    private static void checkThread(ServerLevel level) {
+        if (!level.getServer().isSameThread()) {
+            throw new IllegalStateException("EgToolsApi must be called on the server thread");
+        }
+    }
+}
@@ -0,0 +1,761 @@
+package com.styenvy.egtools;
+
+import com.mojang.authlib.GameProfile;
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.DynamicCommandExceptionType;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import net.minecraft.Util;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.commands.arguments.GameProfileArgument;
+import net.minecraft.commands.arguments.coordinates.BlockPosArgument;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The {@code /egtools} command tree (operator level 2).
+ * - stats: server-wide operation metrics; stats dimension / stats players for the scoped views
+ * - stats dump: write stats.json and stats.csv now
+ * - stats reset: clear all metrics
+ * - rollback <player> <time> <radius>: revert a player's tool changes from the last 30s/10m/2h/1d around you
+ * - restyle <from> <to> family <source> <target>: swap one cycle family for another, shape for shape
+ * - restyle <from> <to> color <source> <target>: swap one dye color for another across the paint families
+ * - scatter <from> <to> [seed] variants <block=weight ...>: re-roll blocks of one cycle among the listed variants
+ * - scatter <from> <to> [seed] colors <color=weight ...>: re-roll the color of every paintable block
+ * - scan <from> <to>: count cyclable and paintable blocks by family and color, with a time estimate
+ * - copy <from> <to>: copy the box to your clipboard, remembering where you stand relative to it
+ * - paste [family <source> <target> | color <source> <target>]: paste the clipboard relative to where you
+ *   stand, optionally restyled on the way
+ * - confirm: start the area edit that was held back for exceeding the confirmation threshold
+ * - trace start <name> / trace stop: record every tool operation to egtools/traces/<name>.egtrace
+ * - trace replay <name> [restore]: replay a trace into this dimension as fast as the bulk tick budget allows (use a world copy)
+ * - loadtest start <players> <seconds> [clicksPerSecond] [bulkJobs]: fake builders click on plots next to you,
+ *   then MSPT and per-operation latency are reported; loadtest stop ends the run early (test servers only)
+ * - pixelart <image> <family> [dither]: build egtools/pixelart/<image>.png as a wall of wool, concrete,
+ *   terracotta or stained glass, starting two blocks in front of you and running to your right
+ */
+@EventBusSubscriber(modid = EgTools.MODID)
+public final class EgToolsCommands {
+    private static final int MAX_REGION_SIDE = 1024;
+    private static final long CONFIRM_TIMEOUT_MILLIS = 60_000L;
+    private static final int SCAN_TOP_ENTRIES = 8;
+    private static final SimpleCommandExceptionType INVALID_DURATION =
+            new SimpleCommandExceptionType(Component.literal("Expected a duration like 30s, 10m, 2h or 1d"));
+    private static final DynamicCommandExceptionType UNKNOWN_FAMILY =
+            new DynamicCommandExceptionType(name -> Component.literal("Unknown block family: " + name));
+    private static final DynamicCommandExceptionType UNKNOWN_COLOR =
+            new DynamicCommandExceptionType(name -> Component.literal("Unknown dye color: " + name));
+    private static final DynamicCommandExceptionType INVALID_TRACE_NAME =
+            new DynamicCommandExceptionType(name -> Component.literal("Trace names may only use letters, digits, '_', '-' and '.': " + name));
+    private static final DynamicCommandExceptionType INVALID_IMAGE_NAME =
+            new DynamicCommandExceptionType(name -> Component.literal("Image names may only use letters, digits, '_', '-' and '.': " + name));
+    private static final DynamicCommandExceptionType UNKNOWN_PIXEL_ART_FAMILY =
+            new DynamicCommandExceptionType(name -> Component.literal("Pixel art needs one of " + PixelArt.FAMILIES + ": " + name));
+    private static final DynamicCommandExceptionType INVALID_WEIGHTS =
+            new DynamicCommandExceptionType(message -> Component.literal("Bad scatter weights: " + message));
+    private static final SimpleCommandExceptionType REGION_TOO_LARGE =
+            new SimpleCommandExceptionType(Component.literal("Region is larger than " + MAX_REGION_SIDE + " blocks on a side"));
+
+    // Area edits waiting for /egtools confirm, by command source name; server thread only
+    private static final Map<String, PendingEdit> pending = new HashMap<>();
+    // Clipboards by command source name; server thread only
+    private static final Map<String, Clipboard> clipboards = new HashMap<>();
+
+    private EgToolsCommands() {}
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent e) {
+        e.getDispatcher().register(Commands.literal(EgTools.MODID)
+                .requires(source -> source.hasPermission(2))
+                .then(stats())
+                .then(rollback())
+                .then(restyle())
+                .then(scatter())
+                .then(copy())
+                .then(paste())
+                .then(scan())
+                .then(Commands.literal("confirm").executes(EgToolsCommands::confirm))
+                .then(trace())
+                .then(loadtest())
+                .then(pixelart()));
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent e) {
+        pending.clear();
+        clipboards.clear();
+    }
+
+    /* =========================
+       /egtools stats
+       ========================= */
+    private static LiteralArgumentBuilder<CommandSourceStack> stats() {
+        return Commands.literal("stats")
+                .executes(EgToolsCommands::showGlobalStats)
+                .then(Commands.literal("dimension").executes(EgToolsCommands::showDimensionStats))
+                .then(Commands.literal("players").executes(EgToolsCommands::showPlayerStats))
+                .then(Commands.literal("dump").executes(ctx -> {
+                    EgToolsMetrics.dump(ctx.getSource().getServer());
+                    ctx.getSource().sendSuccess(() -> Component.literal("§7Writing egtools/stats.json and stats.csv"), true);
+                    return 1;
+                }))
+                .then(Commands.literal("reset").executes(ctx -> {
+                    EgToolsMetrics.reset();
+                    ctx.getSource().sendSuccess(() -> Component.literal("§7EgTools stats cleared"), true);
+                    return 1;
+                }));
+    }
+
+    private static int showGlobalStats(CommandContext<CommandSourceStack> ctx) {
+        CommandSourceStack source = ctx.getSource();
+        source.sendSuccess(() -> Component.literal("§6EgTools stats (server)"), false);
+        for (ToolOperation operation : ToolOperation.values()) {
+            sendStatsLine(source, operation.getId(), EgToolsMetrics.global(operation));
+        }
+        return 1;
+    }
+
+    private static int showDimensionStats(CommandContext<CommandSourceStack> ctx) {
+        CommandSourceStack source = ctx.getSource();
+        ServerLevel level = source.getLevel();
+        source.sendSuccess(() -> Component.literal("§6EgTools stats (" + level.dimension().location() + ")"), false);
+        for (ToolOperation operation : ToolOperation.values()) {
+            sendStatsLine(source, operation.getId(), EgToolsMetrics.forDimension(level.dimension(), operation));
+        }
+        return 1;
+    }
+
+    private static int showPlayerStats(CommandContext<CommandSourceStack> ctx) {
+        CommandSourceStack source = ctx.getSource();
+        Map<UUID, String> players = EgToolsMetrics.players();
+        source.sendSuccess(() -> Component.literal("§6EgTools stats (" + players.size() + " players)"), false);
+        players.forEach((id, name) -> {
+            for (ToolOperation operation : ToolOperation.values()) {
+                sendStatsLine(source, name + " " + operation.getId(), EgToolsMetrics.forPlayer(id, operation));
+            }
+        });
+        return players.size();
+    }
+
+    /* =========================
+       /egtools rollback
+       ========================= */
+    private static LiteralArgumentBuilder<CommandSourceStack> rollback() {
+        return Commands.literal("rollback")
+                .then(Commands.argument("player", GameProfileArgument.gameProfile())
+                        .then(Commands.argument("time", StringArgumentType.word())
+                                .then(Commands.argument("radius", IntegerArgumentType.integer(1, 512))
+                                        .executes(EgToolsCommands::rollbackPlayer))));
+    }
+
+    private static int rollbackPlayer(CommandContext<CommandSourceStack> ctx) throws CommandSyntaxException {
+        CommandSourceStack source = ctx.getSource();
+        Collection<GameProfile> profiles = GameProfileArgument.getGameProfiles(ctx, "player");
+        long since = System.currentTimeMillis() - parseDurationMillis(StringArgumentType.getString(ctx, "time"));
+        int radius = IntegerArgumentType.getInteger(ctx, "radius");
+        ServerLevel level = source.getLevel();
+        BlockPos center = BlockPos.containing(source.getPosition());
+
+        for (GameProfile profile : profiles) {
+            // Handled on the server thread whether the query succeeded or failed on the writer thread
+            AuditLog.query(level, profile.getId(), since, center, radius).handleAsync((changes, e) -> {
+                if (e != null) {
+                    source.sendFailure(Component.literal("Rollback failed: " + e.getMessage()));
+                    return null;
+                }
+                AuditLog.rollback(level, changes, source.getPlayer()).result()
+                        .thenAccept(result -> source.sendSuccess(() -> Component.literal("§7Rolled back "
+                                + result.changed() + " of " + changes.size() + " changes by " + profile.getName()
+                                + (result.missingChunks() > 0 ? ", " + result.missingChunks() + " chunks not loaded or never generated" : "")
+                                + (result.cancelled() ? ", cancelled" : "")), true));
+                return null;
+            }, source.getServer());
+        }
+        source.sendSuccess(() -> Component.literal("§7Searching the audit log..."), false);
+        return profiles.size();
+    }
+
+    /* =========================
+       /egtools restyle
+       ========================= */
+    private static LiteralArgumentBuilder<CommandSourceStack> restyle() {
+        SuggestionProvider<CommandSourceStack> families = (ctx, builder) -> SharedSuggestionProvider.suggest(
+                BlockVariantRegistry.getAllCycles().stream().map(BlockVariantCycle::getFamilyName), builder);
+        SuggestionProvider<CommandSourceStack> colors = (ctx, builder) -> SharedSuggestionProvider.suggest(
+                Arrays.stream(DyeColor.values()).map(DyeColor::getSerializedName), builder);
+
+        return Commands.literal("restyle")
+                .then(Commands.argument("from", BlockPosArgument.blockPos())
+                        .then(Commands.argument("to", BlockPosArgument.blockPos())
+                                .then(Commands.literal("family")
+                                        .then(Commands.argument("source", StringArgumentType.word()).suggests(families)
+                                                .then(Commands.argument("target", StringArgumentType.word()).suggests(families)
+                                                        .executes(ctx -> runRestyle(ctx, RestyleMapping.families(
+                                                                family(ctx, "source"), family(ctx, "target")))))))
+                                .then(Commands.literal("color")
+                                        .then(Commands.argument("source", StringArgumentType.word()).suggests(colors)
+                                                .then(Commands.argument("target", StringArgumentType.word()).suggests(colors)
+                                                        .executes(ctx -> runRestyle(ctx, RestyleMapping.colors(
+                                                                color(ctx, "source"), color(ctx, "target")))))))));
+    }
+
+    private static int runRestyle(CommandContext<CommandSourceStack> ctx, RestyleMapping mapping) throws CommandSyntaxException {
+        CommandSourceStack source = ctx.getSource();
+        ServerLevel level = source.getLevel();
+        BoundingBox bounds = region(ctx, level);
+        if (mapping.mappedBlocks() == 0) {
+            source.sendFailure(Component.literal("Nothing to restyle: no block has a counterpart"));
+            return 0;
+        }
+        ServerPlayer player = source.getPlayer();
+        startOrConfirm(source, level, bounds, mapping, "restyle", () -> startRestyle(source, level, bounds, mapping, player));
+        return 1;
+    }
+
+    /**
+     * Counts what an area edit will touch first, a chunk at a time over ticks; edits estimated above the
+     * confirmation threshold or covering unloaded chunks wait for /egtools confirm, the rest start right away.
+     */
+    private static void startOrConfirm(CommandSourceStack source, ServerLevel level, BoundingBox bounds,
+                                       BulkOperation operation, String verb, Runnable start) {
+        RegionSnapshot.captureAsync(level, bounds, operation::mayAffect)
+                .thenCompose(snapshot -> RegionScan.scan(snapshot, operation::mayAffect))
+                .thenAcceptAsync(scan -> {
+                    long nanos = EgToolsMetrics.estimateNanos(ToolOperation.BULK, scan.total());
+                    long threshold = EgToolsConfig.BULK_CONFIRM_MILLIS.get() * 1_000_000L;
+                    // Unloaded chunks were not counted and are the costliest to edit: always ask
+                    if (threshold > 0 && (nanos > threshold || scan.missingChunks() > 0)) {
+                        pending.put(source.getTextName(), new PendingEdit(start,
+                                System.currentTimeMillis() + CONFIRM_TIMEOUT_MILLIS));
+                        source.sendSuccess(() -> Component.literal("§e" + scan.total() + " blocks to " + verb
+                                + (scan.missingChunks() > 0 ? " plus " + scan.missingChunks() + " unloaded chunks" : "")
+                                + ", estimated " + (scan.missingChunks() > 0 ? "at least " : "") + describeCost(nanos)
+                                + ". Run /egtools confirm within " + CONFIRM_TIMEOUT_MILLIS / 1_000L + "s to start"), false);
+                        return;
+                    }
+                    start.run();
+                }, source.getServer());
+    }
+
+    private static void startRestyle(CommandSourceStack source, ServerLevel level, BoundingBox bounds,
+                                     RestyleMapping mapping, @Nullable ServerPlayer player) {
+        BulkEdit edit = BulkEditScheduler.submit(level, bounds, mapping, player);
+        edit.result().thenAccept(result -> source.sendSuccess(() -> Component.literal("§7Restyled " + result.changed()
+                + " blocks (" + result.rewrittenSections() + " sections by palette"
+                + (result.missingChunks() > 0 ? ", " + result.missingChunks() + " chunks not loaded or never generated" : "")
+                + (result.deniedChunks() > 0 ? ", " + result.deniedChunks() + " protected chunks skipped" : "")
+                + (result.conflicts() > 0 ? ", " + result.conflicts() + " conflicts left" : "") + ")"), true));
+        source.sendSuccess(() -> Component.literal("§7Restyling " + mapping.mappedBlocks() + " block types..."), false);
+    }
+
+    /* =========================
+       /egtools scatter
+       ========================= */
+    private static LiteralArgumentBuilder<CommandSourceStack> scatter() {
+        Function<CommandContext<CommandSourceStack>, Long> randomSeed = ctx -> ctx.getSource().getLevel().getRandom().nextLong();
+        Function<CommandContext<CommandSourceStack>, Long> givenSeed = ctx -> LongArgumentType.getLong(ctx, "seed");
+        return Commands.literal("scatter")
+                .then(Commands.argument("from", BlockPosArgument.blockPos())
+                        .then(Commands.argument("to", BlockPosArgument.blockPos())
+                                .then(scatterMode("variants", randomSeed))
+                                .then(scatterMode("colors", randomSeed))
+                                .then(Commands.argument("seed", LongArgumentType.longArg())
+                                        .then(scatterMode("variants", givenSeed))
+                                        .then(scatterMode("colors", givenSeed)))));
+    }
+
+    private static LiteralArgumentBuilder<CommandSourceStack> scatterMode(
+            String mode, Function<CommandContext<CommandSourceStack>, Long> seed) {
+        return Commands.literal(mode)
+                .then(Commands.argument("weights", StringArgumentType.greedyString())
+                        .executes(ctx -> runScatter(ctx, mode.equals("colors"), seed.apply(ctx))));
+    }
+
+    private static int runScatter(CommandContext<CommandSourceStack> ctx, boolean colors, long seed) throws CommandSyntaxException {
+        CommandSourceStack source = ctx.getSource();
+        ServerLevel level = source.getLevel();
+        BoundingBox bounds = region(ctx, level);
+        Map<String, Double> weights = parseWeights(StringArgumentType.getString(ctx, "weights"));
+        ScatterOperation operation;
+        try {
+            if (colors) {
+                Map<DyeColor, Double> byColor = new LinkedHashMap<>();
+                for (Map.Entry<String, Double> entry : weights.entrySet()) {
+                    DyeColor color = DyeColor.byName(entry.getKey(), null);
+                    if (color == null) throw UNKNOWN_COLOR.create(entry.getKey());
+                    byColor.merge(color, entry.getValue(), Double::sum);
+                }
+                operation = ScatterOperation.colors(byColor, seed);
+            } else {
+                Map<Block, Double> byBlock = new LinkedHashMap<>();
+                for (Map.Entry<String, Double> entry : weights.entrySet()) {
+                    ResourceLocation id = ResourceLocation.tryParse(entry.getKey());
+                    Block block = id == null ? null : BuiltInRegistries.BLOCK.getOptional(id).orElse(null);
+                    if (block == null) throw INVALID_WEIGHTS.create("unknown block " + entry.getKey());
+                    byBlock.merge(block, entry.getValue(), Double::sum);
+                }
+                operation = ScatterOperation.variants(byBlock, seed);
+            }
+        } catch (IllegalArgumentException e) {
+            throw INVALID_WEIGHTS.create(e.getMessage());
+        }
+
+        ServerPlayer player = source.getPlayer();
+        startOrConfirm(source, level, bounds, operation, "scatter", () -> {
+            BulkEdit edit = BulkEditScheduler.submit(level, bounds, operation, player);
+            edit.result().thenAccept(result -> source.sendSuccess(() -> Component.literal("§7Scattered " + result.changed()
+                    + " blocks with seed " + seed
+                    + (result.missingChunks() > 0 ? ", " + result.missingChunks() + " chunks not loaded or never generated" : "")
+                    + (result.deniedChunks() > 0 ? ", " + result.deniedChunks() + " protected chunks skipped" : "")), true));
+            source.sendSuccess(() -> Component.literal("§7Scattering with seed " + seed + "..."), false);
+        });
+        return 1;
+    }
+
+    /**
+     * Parses "a=70 b=20,c=10"; a name without "=weight" weighs 1.
+     */
+    private static Map<String, Double> parseWeights(String text) throws CommandSyntaxException {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String token : text.trim().split("[\\s,]+")) {
+            if (token.isEmpty()) continue;
+            int split = token.indexOf('=');
+            String name = split < 0 ? token : token.substring(0, split);
+            double weight;
+            try {
+                weight = split < 0 ? 1.0 : Double.parseDouble(token.substring(split + 1));
+            } catch (NumberFormatException e) {
+                throw INVALID_WEIGHTS.create(token);
+            }
+            if (name.isEmpty() || !(weight >= 0) || Double.isInfinite(weight)) throw INVALID_WEIGHTS.create(token);
+            weights.merge(name, weight, Double::sum);
+        }
+        if (weights.isEmpty()) throw INVALID_WEIGHTS.create("nothing listed");
+        return weights;
+    }
+
+    /* =========================
+       /egtools copy, /egtools paste
+       ========================= */
+    private static LiteralArgumentBuilder<CommandSourceStack> copy() {
+        return Commands.literal("copy")
+                .then(Commands.argument("from", BlockPosArgument.blockPos())
+                        .then(Commands.argument("to", BlockPosArgument.blockPos())
+                                .executes(EgToolsCommands::runCopy)));
+    }
+
+    private static int runCopy(CommandContext<CommandSourceStack> ctx) throws CommandSyntaxException {
+        CommandSourceStack source = ctx.getSource();
+        BoundingBox bounds = region(ctx, source.getLevel());
+        Clipboard.copy(source.getLevel(), bounds, BlockPos.containing(source.getPosition()))
+                .whenCompleteAsync((clipboard, e) -> {
+                    if (e != null) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        source.sendFailure(Component.literal("Copy failed: " + cause.getMessage()));
+                        return;
+                    }
+                    clipboards.put(source.getTextName(), clipboard);
+                    source.sendSuccess(() -> Component.literal("§7Copied " + clipboard.volume() + " blocks ("
+                            + clipboard.sizeBytes() / 1024 + " KiB)"), false);
+                }, source.getServer());
+        source.sendSuccess(() -> Component.literal("§7Copying..."), false);
+        return 1;
+    }
+
+    private static LiteralArgumentBuilder<CommandSourceStack> paste() {
+        SuggestionProvider<CommandSourceStack> families = (ctx, builder) -> SharedSuggestionProvider.suggest(
+                BlockVariantRegistry.getAllCycles().stream().map(BlockVariantCycle::getFamilyName), builder);
+        SuggestionProvider<CommandSourceStack> colors = (ctx, builder) -> SharedSuggestionProvider.suggest(
+                Arrays.stream(DyeColor.values()).map(DyeColor::getSerializedName), builder);
+
+        return Commands.literal("paste")
+                .executes(ctx -> runPaste(ctx, null))
+                .then(Commands.literal("family")
+                        .then(Commands.argument("source", StringArgumentType.word()).suggests(families)
+                                .then(Commands.argument("target", StringArgumentType.word()).suggests(families)
+                                        .executes(ctx -> runPaste(ctx, RestyleMapping.families(
+                                                family(ctx, "source"), family(ctx, "target")))))))
+                .then(Commands.literal("color")
+                        .then(Commands.argument("source", StringArgumentType.word()).suggests(colors)
+                                .then(Commands.argument("target", StringArgumentType.word()).suggests(colors)
+                                        .executes(ctx -> runPaste(ctx, RestyleMapping.colors(
+                                                color(ctx, "source"), color(ctx, "target")))))));
+    }
+
+    private static int runPaste(CommandContext<CommandSourceStack> ctx, @Nullable RestyleMapping mapping) throws CommandSyntaxException {
+        CommandSourceStack source = ctx.getSource();
+        ServerLevel level = source.getLevel();
+        Clipboard clipboard = clipboards.get(source.getTextName());
+        if (clipboard == null) {
+            source.sendFailure(Component.literal("Nothing copied; use /egtools copy first"));
+            return 0;
+        }
+        if (mapping != null) {
+            clipboard = clipboard.remap(state -> {
+                BlockState mapped = mapping.map(state);
+                return mapped == null ? state : mapped;
+            });
+        }
+        BoundingBox bounds = clipboard.pasteBounds(BlockPos.containing(source.getPosition()));
+        if (bounds.minY() < level.getMinBuildHeight() || bounds.maxY() >= level.getMaxBuildHeight()) {
+            source.sendFailure(Component.literal("The paste would reach outside the build height"));
+            return 0;
+        }
+        BulkOperation operation = clipboard.paste(bounds);
+        ServerPlayer player = source.getPlayer();
+        startOrConfirm(source, level, bounds, operation, "paste", () -> {
+            BulkEdit edit = BulkEditScheduler.submit(level, bounds, operation, player);
+            edit.result().thenAccept(result -> source.sendSuccess(() -> Component.literal("§7Pasted " + result.changed()
+                    + " blocks"
+                    + (result.missingChunks() > 0 ? ", " + result.missingChunks() + " chunks not loaded or never generated" : "")
+                    + (result.deniedChunks() > 0 ? ", " + result.deniedChunks() + " protected chunks skipped" : "")
+                    + (result.cancelled() ? ", cancelled" : "")), true));
+            source.sendSuccess(() -> Component.literal("§7Pasting..."), false);
+        });
+        return 1;
+    }
+
+    /* =========================
+       /egtools confirm
+       ========================= */
+    private static int confirm(CommandContext<CommandSourceStack> ctx) {
+        CommandSourceStack source = ctx.getSource();
+        PendingEdit edit = pending.remove(source.getTextName());
+        if (edit == null || edit.expiresAt() < System.currentTimeMillis()) {
+            source.sendFailure(Component.literal("Nothing to confirm"));
+            return 0;
+        }
+        edit.start().run();
+        return 1;
+    }
+
+    /**
+     * An area edit held back until its source runs /egtools confirm.
+     */
+    private record PendingEdit(Runnable start, long expiresAt) {}
+
+    /* =========================
+       /egtools scan
+       ========================= */
+    private static LiteralArgumentBuilder<CommandSourceStack> scan() {
+        return Commands.literal("scan")
+                .then(Commands.argument("from", BlockPosArgument.blockPos())
+                        .then(Commands.argument("to", BlockPosArgument.blockPos())
+                                .executes(EgToolsCommands::runScan)));
+    }
+
+    private static int runScan(CommandContext<CommandSourceStack> ctx) throws CommandSyntaxException {
+        CommandSourceStack source = ctx.getSource();
+        ServerLevel level = source.getLevel();
+        BoundingBox bounds = region(ctx, level);
+        RegionSnapshot.captureAsync(level, bounds, RegionScan.TOOL_BLOCKS)
+                .thenCompose(snapshot -> RegionScan.scan(snapshot, RegionScan.TOOL_BLOCKS))
+                .thenAcceptAsync(scan -> sendScan(source, scan), source.getServer());
+        source.sendSuccess(() -> Component.literal("§7Scanning..."), false);
+        return 1;
+    }
+
+    private static void sendScan(CommandSourceStack source, RegionScan scan) {
+        long cyclable = scan.cyclable();
+        long paintable = scan.paintable();
+        source.sendSuccess(() -> Component.literal("§6Scan: " + cyclable + " cyclable, " + paintable + " paintable blocks ("
+                + scan.scannedSections() + " sections read, " + scan.skippedSections() + " skipped by palette"
+                + (scan.missingChunks() > 0 ? ", " + scan.missingChunks() + " unloaded chunks" : "") + ")"), false);
+        if (cyclable > 0) {
+            source.sendSuccess(() -> Component.literal("§7Families: " + top(scan.byFamily(), Object::toString)), false);
+        }
+        if (paintable > 0) {
+            source.sendSuccess(() -> Component.literal("§7Colors: " + top(scan.byColor(), DyeColor::getSerializedName)), false);
+        }
+        long hammerNanos = EgToolsMetrics.estimateNanos(ToolOperation.BULK, cyclable);
+        long paintNanos = EgToolsMetrics.estimateNanos(ToolOperation.BULK, paintable);
+        source.sendSuccess(() -> Component.literal("§7Estimated: hammer " + describeCost(hammerNanos)
+                + ", paint " + describeCost(paintNanos)), false);
+        long threshold = EgToolsConfig.BULK_CONFIRM_MILLIS.get() * 1_000_000L;
+        if (threshold > 0 && Math.max(hammerNanos, paintNanos) > threshold) {
+            source.sendSuccess(() -> Component.literal("§eAbove " + EgToolsConfig.BULK_CONFIRM_MILLIS.get()
+                    + " ms: area edits here will wait for /egtools confirm"), false);
+        }
+    }
+
+    private static <K> String top(Object2LongMap<K> counts, Function<K, String> name) {
+        StringBuilder out = new StringBuilder();
+        int shown = 0;
+        for (Object2LongMap.Entry<K> entry : counts.object2LongEntrySet()) {
+            if (shown == SCAN_TOP_ENTRIES) {
+                out.append(", +").append(counts.size() - shown).append(" more");
+                break;
+            }
+            if (shown++ > 0) out.append(", ");
+            out.append(name.apply(entry.getKey())).append(' ').append(entry.getLongValue());
+        }
+        return out.toString();
+    }
+
+    /**
+     * Describes an estimated server time and how many ticks the bulk scheduler spreads it over.
+     */
+    private static String describeCost(long nanos) {
+        long budgetNanos = EgToolsConfig.BULK_TICK_BUDGET_MILLIS.get() * 1_000_000L;
+        long ticks = Math.max(1, (nanos + budgetNanos - 1) / budgetNanos);
+        String time = nanos < 1_000_000_000L ? nanos / 1_000_000L + " ms" : String.format("%.1f s", nanos / 1e9);
+        return time + " (~" + ticks + " ticks)";
+    }
+
+    private static BoundingBox region(CommandContext<CommandSourceStack> ctx, ServerLevel level) throws CommandSyntaxException {
+        BoundingBox bounds = BoundingBox.fromCorners(BlockPosArgument.getLoadedBlockPos(ctx, level, "from"),
+                BlockPosArgument.getLoadedBlockPos(ctx, level, "to"));
+        if (bounds.getXSpan() > MAX_REGION_SIDE || bounds.getYSpan() > MAX_REGION_SIDE || bounds.getZSpan() > MAX_REGION_SIDE) {
+            throw REGION_TOO_LARGE.create();
+        }
+        return bounds;
+    }
+
+    /* =========================
+       /egtools trace
+       ========================= */
+    private static LiteralArgumentBuilder<CommandSourceStack> trace() {
+        return Commands.literal("trace")
+                .then(Commands.literal("start")
+                        .then(Commands.argument("name", StringArgumentType.word())
+                                .executes(EgToolsCommands::startTrace)))
+                .then(Commands.literal("stop").executes(ctx -> {
+                    int recorded = WorkloadRecorder.stop();
+                    if (recorded < 0) {
+                        ctx.getSource().sendFailure(Component.literal("No trace is being recorded"));
+                        return 0;
+                    }
+                    ctx.getSource().sendSuccess(() -> Component.literal("§7Trace stopped: " + recorded + " operations"), true);
+                    return recorded;
+                }))
+                .then(Commands.literal("replay")
+                        .then(Commands.argument("name", StringArgumentType.word())
+                                .executes(ctx -> replayTrace(ctx, true))
+                                .then(Commands.argument("restore", BoolArgumentType.bool())
+                                        .executes(ctx -> replayTrace(ctx, BoolArgumentType.getBool(ctx, "restore"))))));
+    }
+
+    private static int startTrace(CommandContext<CommandSourceStack> ctx) throws CommandSyntaxException {
+        CommandSourceStack source = ctx.getSource();
+        Path file;
+        try {
+            file = WorkloadRecorder.start(source.getServer(), traceName(ctx));
+        } catch (IOException e) {
+            source.sendFailure(Component.literal("Could not start trace: " + e.getMessage()));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal("§7Recording tool operations to " + file.getFileName()), true);
+        return 1;
+    }
+
+    private static int replayTrace(CommandContext<CommandSourceStack> ctx, boolean restore) throws CommandSyntaxException {
+        CommandSourceStack source = ctx.getSource();
+        ServerLevel level = source.getLevel();
+        Path file = WorkloadRecorder.traceDir(source.getServer()).resolve(traceName(ctx) + WorkloadTrace.EXTENSION);
+        CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return WorkloadTrace.read(file);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, Util.ioPool())
+                .thenComposeAsync(ops -> {
+                    source.sendSuccess(() -> Component.literal("§7Replaying " + ops.size() + " operations..."), false);
+                    return WorkloadReplay.start(level, EgToolsItems.CONSTRUCTION_HAMMER.get(),
+                            new ItemStack(EgToolsItems.NETHERITE_PAXEL.get()), restore, ops);
+                }, source.getServer())
+                .thenAccept(result -> {
+                    for (String line : result.summary().split("\n")) {
+                        source.sendSuccess(() -> Component.literal("§7" + line), false);
+                    }
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    source.sendFailure(Component.literal("Replay failed: " + cause.getMessage()));
+                    return null;
+                });
+        source.sendSuccess(() -> Component.literal("§7Loading " + file.getFileName() + "..."), false);
+        return 1;
+    }
+
+    /* =========================
+       /egtools loadtest
+       ========================= */
+    private static LiteralArgumentBuilder<CommandSourceStack> loadtest() {
+        return Commands.literal("loadtest")
+                .then(Commands.literal("start")
+                        .then(Commands.argument("players", IntegerArgumentType.integer(1, 64))
+                                .then(Commands.argument("seconds", IntegerArgumentType.integer(1, 3600))
+                                        .executes(ctx -> startLoadTest(ctx, 4, 2))
+                                        .then(Commands.argument("clicksPerSecond", IntegerArgumentType.integer(1, 20))
+                                                .executes(ctx -> startLoadTest(ctx,
+                                                        IntegerArgumentType.getInteger(ctx, "clicksPerSecond"), 2))
+                                                .then(Commands.argument("bulkJobs", IntegerArgumentType.integer(0, 16))
+                                                        .executes(ctx -> startLoadTest(ctx,
+                                                                IntegerArgumentType.getInteger(ctx, "clicksPerSecond"),
+                                                                IntegerArgumentType.getInteger(ctx, "bulkJobs"))))))))
+                .then(Commands.literal("stop").executes(ctx -> {
+                    if (!LoadGenerator.stop(true)) {
+                        ctx.getSource().sendFailure(Component.literal("No load test is running"));
+                        return 0;
+                    }
+                    return 1;
+                }));
+    }
+
+    private static int startLoadTest(CommandContext<CommandSourceStack> ctx, int clicksPerSecond, int bulkJobs) {
+        CommandSourceStack source = ctx.getSource();
+        int players = IntegerArgumentType.getInteger(ctx, "players");
+        int seconds = IntegerArgumentType.getInteger(ctx, "seconds");
+        BlockPos origin = BlockPos.containing(source.getPosition());
+        if (!LoadGenerator.start(source.getLevel(), origin, players, clicksPerSecond, bulkJobs, seconds,
+                line -> source.sendSuccess(() -> line, false))) {
+            source.sendFailure(Component.literal("The load test plots reach into unloaded chunks"));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal("§7Load test started: " + players + " builders at "
+                + clicksPerSecond + " clicks/s, " + bulkJobs + " bulk jobs, " + seconds + "s"), true);
+        return 1;
+    }
+
+    /* =========================
+       /egtools pixelart
+       ========================= */
+    private static LiteralArgumentBuilder<CommandSourceStack> pixelart() {
+        SuggestionProvider<CommandSourceStack> images = (ctx, builder) -> {
+            Path dir = pixelArtDir(ctx.getSource());
+            if (!Files.isDirectory(dir)) return builder.buildFuture();
+            try (Stream<Path> files = Files.list(dir)) {
+                return SharedSuggestionProvider.suggest(files.map(file -> file.getFileName().toString())
+                        .filter(name -> name.endsWith(".png"))
+                        .map(name -> name.substring(0, name.length() - 4)), builder);
+            } catch (IOException e) {
+                return builder.buildFuture();
+            }
+        };
+        SuggestionProvider<CommandSourceStack> families = (ctx, builder) ->
+                SharedSuggestionProvider.suggest(PixelArt.FAMILIES, builder);
+
+        return Commands.literal("pixelart")
+                .then(Commands.argument("image", StringArgumentType.word()).suggests(images)
+                        .then(Commands.argument("family", StringArgumentType.word()).suggests(families)
+                                .executes(ctx -> runPixelArt(ctx, false))
+                                .then(Commands.argument("dither", BoolArgumentType.bool())
+                                        .executes(ctx -> runPixelArt(ctx, BoolArgumentType.getBool(ctx, "dither"))))));
+    }
+
+    private static int runPixelArt(CommandContext<CommandSourceStack> ctx, boolean dither) throws CommandSyntaxException {
+        CommandSourceStack source = ctx.getSource();
+        String image = StringArgumentType.getString(ctx, "image");
+        if (!image.matches("[A-Za-z0-9_.-]+") || image.startsWith(".")) throw INVALID_IMAGE_NAME.create(image);
+        String family = StringArgumentType.getString(ctx, "family");
+        if (!PixelArt.FAMILIES.contains(family)) throw UNKNOWN_PIXEL_ART_FAMILY.create(family);
+
+        Path file = pixelArtDir(source).resolve(image + ".png");
+        Direction facing = Direction.fromYRot(source.getRotation().y);
+        BlockPos origin = BlockPos.containing(source.getPosition()).relative(facing, 2);
+        PixelArt.build(source.getLevel(), file, family, dither, origin, facing.getClockWise(), source.getPlayer(), MAX_REGION_SIDE)
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        source.sendFailure(Component.literal("Pixel art failed: " + cause.getMessage()));
+                        return;
+                    }
+                    source.sendSuccess(() -> Component.literal("§7Built " + result.width() + "x" + result.height()
+                            + " " + image + ": " + result.changed() + " blocks placed"
+                            + (result.missingChunks() > 0 ? ", " + result.missingChunks() + " chunks not loaded or never generated" : "")
+                            + (result.deniedChunks() > 0 ? ", " + result.deniedChunks() + " protected chunks skipped" : "")
+                            + (result.cancelled() ? ", cancelled" : "")), true);
+                });
+        source.sendSuccess(() -> Component.literal("§7Building " + file.getFileName() + " in " + family
+                + (dither ? " with dithering" : "") + "..."), false);
+        return 1;
+    }
+
+    private static Path pixelArtDir(CommandSourceStack source) {
+        return source.getServer().getServerDirectory().resolve(EgTools.MODID).resolve("pixelart");
+    }
+
+    private static String traceName(CommandContext<CommandSourceStack> ctx) throws CommandSyntaxException {
+        String name = StringArgumentType.getString(ctx, "name");
+        if (!name.matches("[A-Za-z0-9_.-]+") || name.startsWith(".")) throw INVALID_TRACE_NAME.create(name);
+        return name;
+    }
+
+    private static BlockVariantCycle family(CommandContext<CommandSourceStack> ctx, String argument) throws CommandSyntaxException {
+        String name = StringArgumentType.getString(ctx, argument);
+        BlockVariantCycle cycle = BlockVariantRegistry.getCycleByFamily(name);
+        if (cycle == null) throw UNKNOWN_FAMILY.create(name);
+        return cycle;
+    }
+
+    private static DyeColor color(CommandContext<CommandSourceStack> ctx, String argument) throws CommandSyntaxException {
+        String name = StringArgumentType.getString(ctx, argument);
+        DyeColor color = DyeColor.byName(name, null);
+        if (color == null) throw UNKNOWN_COLOR.create(name);
+        return color;
+    }
+
+    private static long parseDurationMillis(String text) throws CommandSyntaxException {
+        if (text.length() < 2) throw INVALID_DURATION.create();
+        long unit = switch (text.charAt(text.length() - 1)) {
+            case 's' -> 1_000L;
+            case 'm' -> 60_000L;
+            case 'h' -> 3_600_000L;
+            case 'd' -> 86_400_000L;
+            default -> throw INVALID_DURATION.create();
+        };
+        try {
+            long amount = Long.parseLong(text.substring(0, text.length() - 1));
+            if (amount <= 0) throw INVALID_DURATION.create();
+            return Math.multiplyExact(amount, unit);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw INVALID_DURATION.create();
+        }
+    }
+
+    private static void sendStatsLine(CommandSourceStack source, String label, EgToolsMetrics.Stats stats) {
+        if (stats == null || stats.count() == 0) return;
+        source.sendSuccess(() -> Component.literal("§7" + label + ": " + stats.count() + " ops, "
+                + stats.blocks() + " blocks, avg " + stats.averageMicros() + "µs, p50 " + stats.percentileMicros(0.50)
+                + "µs, p99 " + stats.percentileMicros(0.99) + "µs, max " + stats.maxMicros() + "µs"), false);
+    }
+}
@@ -0,0 +1,90 @@
+package com.styenvy.egtools;
+
+import net.neoforged.neoforge.common.ModConfigSpec;
+
+/**
+ * Common configuration for EgTools (config/egtools-common.toml).
+ */
+public final class EgToolsConfig {
+    private EgToolsConfig() {}
+
+    public static final ModConfigSpec SPEC;
+
+    // Performance budgets enforced by the gametest suite
+    public static final ModConfigSpec.LongValue HAMMER_BUDGET_NANOS;
+    public static final ModConfigSpec.LongValue PAINT_BUDGET_NANOS;
+    public static final ModConfigSpec.LongValue TICK_BUDGET_MILLIS;
+
+    // Operation metrics (/egtools stats)
+    public static final ModConfigSpec.BooleanValue METRICS_ENABLED;
+    public static final ModConfigSpec.IntValue METRICS_DUMP_INTERVAL_SECONDS;
+
+    // Audit log (/egtools rollback)
+    public static final ModConfigSpec.BooleanValue AUDIT_ENABLED;
+    public static final ModConfigSpec.IntValue AUDIT_SEGMENT_RECORDS;
+    public static final ModConfigSpec.IntValue AUDIT_MAX_UNSEALED_SECONDS;
+
+    // Bulk edits (planned off-thread, applied on the server tick)
+    public static final ModConfigSpec.IntValue BULK_TICK_BUDGET_MILLIS;
+    public static final ModConfigSpec.IntValue BULK_PLANNER_THREADS;
+    public static final ModConfigSpec.IntValue BULK_MAX_REPLANS;
+    public static final ModConfigSpec.IntValue BULK_CONFIRM_MILLIS;
+    public static final ModConfigSpec.IntValue BULK_MAX_TICKETED_CHUNKS;
+
+    static {
+        ModConfigSpec.Builder builder = new ModConfigSpec.Builder();
+
+        builder.comment("Performance budgets checked by the egtools gametests").push("gametest");
+        HAMMER_BUDGET_NANOS = builder
+                .comment("Maximum average time per Construction Hammer cycle, in nanoseconds")
+                .defineInRange("hammerBudgetNanos", 100_000L, 1L, Long.MAX_VALUE);
+        PAINT_BUDGET_NANOS = builder
+                .comment("Maximum average time per Paint Brush stroke, in nanoseconds")
+                .defineInRange("paintBudgetNanos", 100_000L, 1L, Long.MAX_VALUE);
+        TICK_BUDGET_MILLIS = builder
+                .comment("Maximum time the operations of a single gametest tick may take, in milliseconds")
+                .defineInRange("tickBudgetMillis", 50L, 1L, Long.MAX_VALUE);
+        builder.pop();
+
+        builder.comment("Per-operation counters and latency histograms").push("metrics");
+        METRICS_ENABLED = builder
+                .comment("Record tool operation metrics")
+                .define("enabled", true);
+        METRICS_DUMP_INTERVAL_SECONDS = builder
+                .comment("Seconds between writes of egtools/stats.json and stats.csv in the server directory (0 = never)")
+                .defineInRange("dumpIntervalSeconds", 300, 0, Integer.MAX_VALUE);
+        builder.pop();
+
+        builder.comment("Append-only log of tool block changes, used by /egtools rollback").push("audit");
+        AUDIT_ENABLED = builder
+                .comment("Record tool block changes to <world>/egtools/audit")
+                .define("enabled", true);
+        AUDIT_SEGMENT_RECORDS = builder
+                .comment("Records per compressed log segment")
+                .defineInRange("segmentRecords", 16384, 256, 1 << 20);
+        AUDIT_MAX_UNSEALED_SECONDS = builder
+                .comment("Seconds a record may wait in memory before its partial segment is written anyway; this bounds what a crash loses")
+                .defineInRange("maxUnsealedSeconds", 10, 1, 3600);
+        builder.pop();
+
+        builder.comment("Area operations: planned on worker threads, applied on the server thread").push("bulk");
+        BULK_TICK_BUDGET_MILLIS = builder
+                .comment("Server thread time per tick spent applying bulk edits, in milliseconds")
+                .defineInRange("tickBudgetMillis", 10, 1, 50);
+        BULK_PLANNER_THREADS = builder
+                .comment("Worker threads planning bulk edits (0 = one less than the number of cores)")
+                .defineInRange("plannerThreads", 0, 0, 64);
+        BULK_MAX_REPLANS = builder
+                .comment("How often blocks that changed between planning and applying are planned again")
+                .defineInRange("maxReplans", 3, 0, 16);
+        BULK_CONFIRM_MILLIS = builder
+                .comment("Estimated server time above which area commands wait for /egtools confirm, in milliseconds (0 = never ask)")
+                .defineInRange("confirmAboveMillis", 1000, 0, Integer.MAX_VALUE);
+        BULK_MAX_TICKETED_CHUNKS = builder
+                .comment("Chunks one bulk edit keeps loaded through tickets at a time; unloaded chunks are loaded asynchronously")
+                .defineInRange("maxTicketedChunks", 64, 1, 4096);
+        builder.pop();
+
+        SPEC = builder.build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.styenvy.egtools;
+
+import net.minecraft.data.DataGenerator;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.data.event.GatherDataEvent;
+
+/**
+ * Registers the mod's data providers for the {@code data} run.
+ */
+@EventBusSubscriber(modid = EgTools.MODID, bus = EventBusSubscriber.Bus.MOD)
+public final class EgToolsDataGen {
+    private EgToolsDataGen() {}
+
+    @SubscribeEvent
+    public static void gatherData(GatherDataEvent event) {
+        DataGenerator generator = event.getGenerator();
+        generator.addProvider(event.includeServer(), new RegistrySnapshotProvider(generator.getPackOutput()));
+    }
+}
@@ -0,0 +1,273 @@
+package com.styenvy.egtools;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestAssertException;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.GameType;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.BannerBlock;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.CrossCollisionBlock;
+import net.minecraft.world.level.block.DoorBlock;
+import net.minecraft.world.level.block.FenceGateBlock;
+import net.minecraft.world.level.block.SlabBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.DoubleBlockHalf;
+import net.minecraft.world.level.block.state.properties.SlabType;
+import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Performance gametests for the Construction Hammer and Paint Brush.
+ * Each test builds one fixture wall per tick in the {@code arena} template, drives the tool over every block of it
+ * and fails when the average time per operation or the worst tick exceeds the budgets in {@link EgToolsConfig}.
+ * {@link #TOOL_CASES} pins the results themselves, on this level and on the benchmarks' in-memory level.
+ * Run headless with the {@code gameTestServer} run configuration.
+ */
+@GameTestHolder(EgTools.MODID)
+@PrefixGameTestTemplate(false)
+public final class EgToolsGameTests {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String ARENA = "arena";
+    private static final int WALL_WIDTH = 30;
+    private static final int WALL_HEIGHT = 10;
+
+    /**
+     * Hammer and brush uses with their exact results. Run here on a server level and by {@code InMemoryLevelParity}
+     * in the benchmark sources on the in-memory level, so benchmarks measure what players get.
+     */
+    static final List<ToolCase> TOOL_CASES = List.of(
+            new ToolCase("hammer planks", Blocks.AIR.defaultBlockState(), Blocks.OAK_PLANKS.defaultBlockState(),
+                    Blocks.AIR.defaultBlockState(), hammer(false),
+                    Blocks.AIR.defaultBlockState(), Blocks.OAK_STAIRS.defaultBlockState(), Blocks.AIR.defaultBlockState()),
+            new ToolCase("hammer back to planks", Blocks.AIR.defaultBlockState(), Blocks.OAK_STAIRS.defaultBlockState(),
+                    Blocks.AIR.defaultBlockState(), hammer(true),
+                    Blocks.AIR.defaultBlockState(), Blocks.OAK_PLANKS.defaultBlockState(), Blocks.AIR.defaultBlockState()),
+            new ToolCase("hammer gate into door", Blocks.STONE.defaultBlockState(),
+                    Blocks.OAK_FENCE_GATE.defaultBlockState().setValue(FenceGateBlock.FACING, Direction.EAST),
+                    Blocks.AIR.defaultBlockState(), hammer(false),
+                    Blocks.STONE.defaultBlockState(),
+                    Blocks.OAK_DOOR.defaultBlockState().setValue(DoorBlock.FACING, Direction.EAST),
+                    Blocks.OAK_DOOR.defaultBlockState().setValue(DoorBlock.FACING, Direction.EAST)
+                            .setValue(DoorBlock.HALF, DoubleBlockHalf.UPPER)),
+            new ToolCase("hammer top slab down", Blocks.AIR.defaultBlockState(),
+                    Blocks.OAK_SLAB.defaultBlockState().setValue(SlabBlock.TYPE, SlabType.TOP),
+                    Blocks.AIR.defaultBlockState(), hammer(false),
+                    Blocks.OAK_SLAB.defaultBlockState(), Blocks.AIR.defaultBlockState(), Blocks.AIR.defaultBlockState()),
+            new ToolCase("hammer supported top slab", Blocks.OAK_PLANKS.defaultBlockState(),
+                    Blocks.OAK_SLAB.defaultBlockState().setValue(SlabBlock.TYPE, SlabType.TOP),
+                    Blocks.AIR.defaultBlockState(), hammer(false),
+                    Blocks.OAK_PLANKS.defaultBlockState(),
+                    Blocks.OAK_SLAB.defaultBlockState().setValue(SlabBlock.TYPE, SlabType.TOP), Blocks.AIR.defaultBlockState()),
+            new ToolCase("paint wool", Blocks.AIR.defaultBlockState(), Blocks.WHITE_WOOL.defaultBlockState(),
+                    Blocks.AIR.defaultBlockState(), paint(DyeColor.RED),
+                    Blocks.AIR.defaultBlockState(), Blocks.RED_WOOL.defaultBlockState(), Blocks.AIR.defaultBlockState()),
+            new ToolCase("paint pane", Blocks.AIR.defaultBlockState(),
+                    Blocks.WHITE_STAINED_GLASS_PANE.defaultBlockState()
+                            .setValue(CrossCollisionBlock.EAST, true).setValue(CrossCollisionBlock.WEST, true),
+                    Blocks.AIR.defaultBlockState(), paint(DyeColor.BLUE),
+                    Blocks.AIR.defaultBlockState(), Blocks.BLUE_STAINED_GLASS_PANE.defaultBlockState()
+                            .setValue(CrossCollisionBlock.EAST, true).setValue(CrossCollisionBlock.WEST, true),
+                    Blocks.AIR.defaultBlockState()),
+            new ToolCase("paint banner", Blocks.STONE.defaultBlockState(),
+                    Blocks.WHITE_BANNER.defaultBlockState().setValue(BannerBlock.ROTATION, 5),
+                    Blocks.AIR.defaultBlockState(), paint(DyeColor.GREEN),
+                    Blocks.STONE.defaultBlockState(), Blocks.GREEN_BANNER.defaultBlockState().setValue(BannerBlock.ROTATION, 5),
+                    Blocks.AIR.defaultBlockState()));
+
+    private EgToolsGameTests() {}
+
+    /** Runs {@link #TOOL_CASES} on the server level, one column each, and fails on any result that differs. */
+    @GameTest(template = ARENA)
+    public static void toolCases(GameTestHelper helper) {
+        ConstructionHammerItem hammer = EgToolsItems.CONSTRUCTION_HAMMER.get();
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < TOOL_CASES.size(); i++) {
+            String failure = TOOL_CASES.get(i).run(helper.getLevel(), helper.absolutePos(new BlockPos(2 * i + 1, 3, 1)), hammer);
+            if (failure != null) failures.add(failure);
+        }
+        if (!failures.isEmpty()) helper.fail(String.join("; ", failures));
+        helper.succeed();
+    }
+
+    /** Hammers a wall of every full-cube block of every cycle family. */
+    @GameTest(template = ARENA, timeoutTicks = 1200)
+    public static void hammerEveryCycleFamily(GameTestHelper helper) {
+        Player player = helper.makeMockPlayer(GameType.CREATIVE);
+        ConstructionHammerItem hammer = EgToolsItems.CONSTRUCTION_HAMMER.get();
+
+        List<Block> fixtures = new ArrayList<>();
+        for (BlockVariantCycle cycle : BlockVariantRegistry.getAllCycles()) {
+            for (Block block : cycle.getBlocks()) {
+                BlockState state = block.defaultBlockState();
+                if (!state.hasBlockEntity() && state.isCollisionShapeFullBlock(helper.getLevel(), BlockPos.ZERO)) {
+                    fixtures.add(block);
+                }
+            }
+        }
+
+        runBudgeted(helper, "hammer", fixtures, EgToolsConfig.HAMMER_BUDGET_NANOS.get(), (wall, pos) -> {
+            BlockState state = helper.getLevel().getBlockState(pos);
+            hammer.canAttackBlock(state, helper.getLevel(), pos, player);
+        });
+    }
+
+    /** Paints a wall of every full-cube paint family through the brush's left-click handler. */
+    @GameTest(template = ARENA, timeoutTicks = 1200)
+    public static void paintEveryPaintableFamily(GameTestHelper helper) {
+        Player player = helper.makeMockPlayer(GameType.CREATIVE);
+        player.getAbilities().instabuild = true;
+        ItemStack brush = EgToolsItems.PAINT_BRUSH.get().getDefaultInstance();
+        player.setItemInHand(InteractionHand.MAIN_HAND, brush);
+
+        // One fixture wall per family and target color, starting from white
+        List<Block> fixtures = new ArrayList<>();
+        List<DyeColor> targets = new ArrayList<>();
+        for (String family : PaintVariantRegistry.getFamilies()) {
+            Block white = PaintVariantRegistry.byColor(family, DyeColor.WHITE);
+            if (white == null || white.defaultBlockState().hasBlockEntity()
+                    || !white.defaultBlockState().isCollisionShapeFullBlock(helper.getLevel(), BlockPos.ZERO)) {
+                continue;
+            }
+            for (DyeColor color : DyeColor.values()) {
+                if (color == DyeColor.WHITE) continue;
+                fixtures.add(white);
+                targets.add(color);
+            }
+        }
+
+        runBudgeted(helper, "paint", fixtures, EgToolsConfig.PAINT_BUDGET_NANOS.get(), (wall, pos) -> {
+            PaintBrushItem.chargeBrush(brush, targets.get(wall), PaintBrushItem.MAX_PAINT_USES);
+            PaintBrushItem.onLeftClickBlock(new PlayerInteractEvent.LeftClickBlock(
+                    player, pos, Direction.NORTH, PlayerInteractEvent.LeftClickBlock.Action.START));
+        });
+    }
+
+    /**
+     * Builds one wall per tick from {@code fixtures} on a stone floor, applies {@code operation} to every block of it
+     * and fails as soon as the last wall is done if any budget was exceeded.
+     */
+    private static void runBudgeted(GameTestHelper helper, String name, List<Block> fixtures,
+                                    long budgetNanosPerOp, Operation operation) {
+        if (fixtures.isEmpty()) {
+            // A registry that failed to load would otherwise pass with nothing measured
+            helper.fail("No " + name + " fixtures: no registered family has a full-cube block without a block entity");
+            return;
+        }
+        long tickBudgetNanos = EgToolsConfig.TICK_BUDGET_MILLIS.get() * 1_000_000L;
+        long[] totals = new long[3]; // elapsed nanos, operations, worst tick nanos
+        int[] next = {0};
+        boolean[] done = {false};
+        long startTick = helper.getTick();
+
+        for (int x = 0; x < WALL_WIDTH; x++) {
+            helper.setBlock(new BlockPos(x + 1, 1, 1), Blocks.STONE);
+        }
+
+        helper.onEachTick(() -> {
+            if (done[0]) return;
+            int wall = next[0]++;
+            Block fixture = fixtures.get(wall);
+
+            List<BlockPos> positions = new ArrayList<>(WALL_WIDTH * WALL_HEIGHT);
+            for (int y = 0; y < WALL_HEIGHT; y++) {
+                for (int x = 0; x < WALL_WIDTH; x++) {
+                    BlockPos rel = new BlockPos(x + 1, y + 2, 1);
+                    helper.setBlock(rel, fixture);
+                    positions.add(helper.absolutePos(rel));
+                }
+            }
+
+            long start = System.nanoTime();
+            for (BlockPos pos : positions) {
+                operation.apply(wall, pos);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            totals[0] += elapsed;
+            totals[1] += positions.size();
+            totals[2] = Math.max(totals[2], elapsed);
+            if (next[0] < fixtures.size()) return;
+
+            long ticks = helper.getTick() - startTick;
+            long average = totals[1] == 0 ? 0 : totals[0] / totals[1];
+            LOGGER.info("{}: {} operations over {} ticks, {} ns/op average, {} ms worst tick",
+                    name, totals[1], ticks, average, totals[2] / 1_000_000L);
+
+            if (average > budgetNanosPerOp) {
+                helper.fail(name + " averaged " + average + " ns/op, budget is " + budgetNanosPerOp + " ns/op");
+            }
+            if (totals[2] > tickBudgetNanos) {
+                helper.fail(name + " took " + totals[2] / 1_000_000L + " ms in one tick, budget is "
+                        + tickBudgetNanos / 1_000_000L + " ms");
+            }
+            done[0] = true;
+        });
+
+        helper.succeedWhen(() -> {
+            if (!done[0]) {
+                throw new GameTestAssertException("Still running " + name + " fixtures");
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void apply(int wall, BlockPos pos);
+    }
+
+    private static ToolAction hammer(boolean backward) {
+        return (hammer, level, pos) -> hammer.cycleBlock(level, pos, null, backward);
+    }
+
+    private static ToolAction paint(DyeColor color) {
+        return (hammer, level, pos) -> PaintVariantRegistry.paint(level, pos, color);
+    }
+
+    @FunctionalInterface
+    interface ToolAction {
+        void apply(ConstructionHammerItem hammer, Level level, BlockPos pos);
+    }
+
+    /**
+     * One tool use on a column of three blocks (below, used on, above) and the column it must leave.
+     */
+    record ToolCase(String name, BlockState below, BlockState state, BlockState above, ToolAction action,
+                    BlockState expectedBelow, BlockState expected, BlockState expectedAbove) {
+        /**
+         * Builds the column at {@code pos} without neighbor updates, uses the tool on it and compares the result.
+         *
+         * @return What differed, or null if the column came out as expected
+         */
+        @Nullable
+        String run(Level level, BlockPos pos, ConstructionHammerItem hammer) {
+            level.setBlock(pos.below(), below, Block.UPDATE_CLIENTS);
+            level.setBlock(pos, state, Block.UPDATE_CLIENTS);
+            level.setBlock(pos.above(), above, Block.UPDATE_CLIENTS);
+            action.apply(hammer, level, pos);
+            String failure = compare("below", expectedBelow, level.getBlockState(pos.below()));
+            if (failure == null) failure = compare("at", expected, level.getBlockState(pos));
+            if (failure == null) failure = compare("above", expectedAbove, level.getBlockState(pos.above()));
+            return failure;
+        }
+
+        @Nullable
+        private String compare(String where, BlockState expected, BlockState actual) {
+            return expected == actual ? null : name + ": expected " + expected + " " + where + ", got " + actual;
+        }
+    }
+}
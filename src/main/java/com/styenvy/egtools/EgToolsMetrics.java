@@ -0,0 +1,317 @@
+package com.styenvy.egtools;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.Util;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead counters and latency histograms for tool operations.
+ * Stats are kept per operation, and per operation for each player and each dimension.
+ * Recording only touches preallocated adders and arrays (rows are created once per player/dimension),
+ * so it can stay enabled on production servers.
+ */
+@EventBusSubscriber(modid = EgTools.MODID)
+public final class EgToolsMetrics {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final ToolOperation[] OPERATIONS = ToolOperation.values();
+    // Assumed cost of one block change until enough changes have been measured (a cycle with neighbor updates)
+    private static final long DEFAULT_NANOS_PER_BLOCK = 20_000L;
+    private static final long MIN_MEASURED_BLOCKS = 1_000L;
+
+    private static final Stats[] global = newRow(null);
+    private static final Map<UUID, Stats[]> perPlayer = new ConcurrentHashMap<>();
+    private static final Map<UUID, String> playerNames = new ConcurrentHashMap<>();
+    private static final Map<ResourceKey<Level>, Stats[]> perDimension = new ConcurrentHashMap<>();
+    private static int ticksSinceDump;
+
+    private EgToolsMetrics() {}
+
+    /**
+     * Records one completed operation.
+     *
+     * @param operation The kind of operation
+     * @param player    The acting player, or null for non-player operations
+     * @param level     The level the operation changed
+     * @param blocks    Number of blocks changed
+     * @param nanos     Server time spent, in nanoseconds
+     */
+    public static void record(ToolOperation operation, @Nullable Player player, Level level, int blocks, long nanos) {
+        // The config is absent when tool logic runs outside of FML (benchmarks, in-memory levels)
+        if (!EgToolsConfig.SPEC.isLoaded() || !EgToolsConfig.METRICS_ENABLED.get()) return;
+        int index = operation.ordinal();
+        global[index].record(blocks, nanos);
+
+        perDimension.computeIfAbsent(level.dimension(), EgToolsMetrics::newRow)[index].record(blocks, nanos);
+
+        if (player != null) {
+            UUID id = player.getUUID();
+            Stats[] row = perPlayer.get(id);
+            if (row == null) {
+                row = perPlayer.computeIfAbsent(id, EgToolsMetrics::newRow);
+                playerNames.put(id, player.getGameProfile().getName());
+            }
+            row[index].record(blocks, nanos);
+        }
+    }
+
+    /**
+     * Gets the server-wide stats of an operation.
+     */
+    public static Stats global(ToolOperation operation) {
+        return global[operation.ordinal()];
+    }
+
+    /**
+     * Estimates the server time needed to change {@code blocks} blocks with an operation, from the server-wide
+     * measured time per block of that operation (or a conservative default until enough has been measured).
+     *
+     * @return The estimate, in nanoseconds
+     */
+    public static long estimateNanos(ToolOperation operation, long blocks) {
+        Stats stats = global(operation);
+        long perBlock = stats.blocks() >= MIN_MEASURED_BLOCKS ? stats.nanosPerBlock() : DEFAULT_NANOS_PER_BLOCK;
+        return blocks * perBlock;
+    }
+
+    /**
+     * Gets the stats of an operation for a player.
+     *
+     * @return The stats, or null if the player never performed a recorded operation
+     */
+    @Nullable
+    public static Stats forPlayer(UUID player, ToolOperation operation) {
+        Stats[] row = perPlayer.get(player);
+        return row == null ? null : row[operation.ordinal()];
+    }
+
+    /**
+     * Gets the stats of an operation for a dimension.
+     *
+     * @return The stats, or null if nothing was recorded in that dimension
+     */
+    @Nullable
+    public static Stats forDimension(ResourceKey<Level> dimension, ToolOperation operation) {
+        Stats[] row = perDimension.get(dimension);
+        return row == null ? null : row[operation.ordinal()];
+    }
+
+    /**
+     * Gets the players with recorded stats, mapped to their last known names.
+     */
+    public static Map<UUID, String> players() {
+        return Map.copyOf(playerNames);
+    }
+
+    /**
+     * Clears all recorded stats.
+     */
+    public static void reset() {
+        for (Stats stats : global) stats.reset();
+        perPlayer.clear();
+        playerNames.clear();
+        perDimension.clear();
+    }
+
+    /**
+     * Writes {@code stats.json} and {@code stats.csv} to the {@code egtools} folder of the server directory
+     * on a background thread.
+     */
+    public static void dump(MinecraftServer server) {
+        Path dir = server.getServerDirectory().resolve(EgTools.MODID);
+        String json = toJson();
+        String csv = toCsv();
+        Util.ioPool().execute(() -> {
+            try {
+                Files.createDirectories(dir);
+                Files.writeString(dir.resolve("stats.json"), json);
+                Files.writeString(dir.resolve("stats.csv"), csv);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to write EgTools stats to {}", dir, e);
+            }
+        });
+    }
+
+    /* =========================
+       Periodic dump
+       ========================= */
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post e) {
+        int interval = EgToolsConfig.METRICS_DUMP_INTERVAL_SECONDS.get();
+        if (interval <= 0 || !EgToolsConfig.METRICS_ENABLED.get()) return;
+        if (++ticksSinceDump >= interval * 20) {
+            ticksSinceDump = 0;
+            dump(e.getServer());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent e) {
+        if (EgToolsConfig.METRICS_ENABLED.get() && EgToolsConfig.METRICS_DUMP_INTERVAL_SECONDS.get() > 0) {
+            dump(e.getServer());
+        }
+    }
+
+    // --- Serialization ---
+
+    private static String toCsv() {
+        StringBuilder out = new StringBuilder("scope,key,operation,count,blocks,avg_us,p50_us,p99_us,max_us\n");
+        appendCsv(out, "global", "all", global);
+        perDimension.forEach((dimension, row) -> appendCsv(out, "dimension", dimension.location().toString(), row));
+        perPlayer.forEach((id, row) -> appendCsv(out, "player", playerNames.getOrDefault(id, id.toString()), row));
+        return out.toString();
+    }
+
+    private static void appendCsv(StringBuilder out, String scope, String key, Stats[] row) {
+        for (ToolOperation operation : OPERATIONS) {
+            Stats stats = row[operation.ordinal()];
+            if (stats.count() == 0) continue;
+            out.append(scope).append(',').append(key).append(',').append(operation.getId()).append(',')
+                    .append(stats.count()).append(',').append(stats.blocks()).append(',')
+                    .append(stats.averageMicros()).append(',').append(stats.percentileMicros(0.50)).append(',')
+                    .append(stats.percentileMicros(0.99)).append(',').append(stats.maxMicros()).append('\n');
+        }
+    }
+
+    private static String toJson() {
+        StringBuilder out = new StringBuilder("{\n  \"global\": ");
+        appendJson(out, global);
+        out.append(",\n  \"dimensions\": {");
+        String[] separator = {""};
+        perDimension.forEach((dimension, row) -> {
+            out.append(separator[0]).append("\n    \"").append(dimension.location()).append("\": ");
+            appendJson(out, row);
+            separator[0] = ",";
+        });
+        out.append("\n  },\n  \"players\": {");
+        separator[0] = "";
+        perPlayer.forEach((id, row) -> {
+            out.append(separator[0]).append("\n    \"").append(id).append("\": {\"name\": \"")
+                    .append(playerNames.getOrDefault(id, "")).append("\", \"operations\": ");
+            appendJson(out, row);
+            out.append('}');
+            separator[0] = ",";
+        });
+        return out.append("\n  }\n}\n").toString();
+    }
+
+    private static void appendJson(StringBuilder out, Stats[] row) {
+        out.append('{');
+        String separator = "";
+        for (ToolOperation operation : OPERATIONS) {
+            Stats stats = row[operation.ordinal()];
+            out.append(separator).append('"').append(operation.getId()).append("\": {")
+                    .append("\"count\": ").append(stats.count())
+                    .append(", \"blocks\": ").append(stats.blocks())
+                    .append(", \"avg_us\": ").append(stats.averageMicros())
+                    .append(", \"p50_us\": ").append(stats.percentileMicros(0.50))
+                    .append(", \"p99_us\": ").append(stats.percentileMicros(0.99))
+                    .append(", \"max_us\": ").append(stats.maxMicros())
+                    .append('}');
+            separator = ", ";
+        }
+        out.append('}');
+    }
+
+    private static Stats[] newRow(@Nullable Object key) {
+        Stats[] row = new Stats[OPERATIONS.length];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = new Stats();
+        }
+        return row;
+    }
+
+    /**
+     * Counters and a log2 latency histogram for one operation in one scope.
+     * Bucket {@code i} counts operations that took less than {@code 2^i} microseconds (and at least {@code 2^(i-1)}).
+     */
+    public static final class Stats {
+        private static final int BUCKETS = 32;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder blocks = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        void record(int changedBlocks, long nanos) {
+            count.increment();
+            blocks.add(changedBlocks);
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            long micros = nanos / 1_000L;
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            histogram.incrementAndGet(bucket);
+        }
+
+        void reset() {
+            count.reset();
+            blocks.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+            for (int i = 0; i < BUCKETS; i++) histogram.set(i, 0);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long blocks() {
+            return blocks.sum();
+        }
+
+        public long averageMicros() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / n / 1_000L;
+        }
+
+        /**
+         * Gets the average server time per changed block, in nanoseconds (0 if no block was changed).
+         */
+        public long nanosPerBlock() {
+            long n = blocks.sum();
+            return n == 0 ? 0 : totalNanos.sum() / n;
+        }
+
+        public long maxMicros() {
+            return maxNanos.get() / 1_000L;
+        }
+
+        /**
+         * Estimates a latency percentile from the histogram.
+         *
+         * @param fraction Percentile as a fraction (e.g., 0.99)
+         * @return Upper bound of the bucket holding the percentile, in microseconds
+         */
+        public long percentileMicros(double fraction) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) total += histogram.get(i);
+            if (total == 0) return 0;
+            long target = (long) Math.ceil(total * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= target) return 1L << i;
+            }
+            return maxMicros();
+        }
+    }
+}
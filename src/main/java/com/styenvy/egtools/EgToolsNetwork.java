@@ -0,0 +1,70 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
+import it.unimi.dsi.fastutil.shorts.ShortSet;
+import net.minecraft.core.SectionPos;
+import net.minecraft.network.protocol.game.ClientboundSectionBlocksUpdatePacket;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.network.PacketDistributor;
+import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
+import net.neoforged.neoforge.network.registration.PayloadRegistrar;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Network payloads and the helpers that send them.
+ */
+@EventBusSubscriber(modid = EgTools.MODID, bus = EventBusSubscriber.Bus.MOD)
+public final class EgToolsNetwork {
+    private static final String PROTOCOL_VERSION = "1";
+
+    private EgToolsNetwork() {}
+
+    @SubscribeEvent
+    public static void register(RegisterPayloadHandlersEvent e) {
+        PayloadRegistrar registrar = e.registrar(PROTOCOL_VERSION).optional();
+        // The lambda keeps the client-only handler class from loading on dedicated servers
+        registrar.playToClient(BulkDeltaPayload.TYPE, BulkDeltaPayload.STREAM_CODEC,
+                (payload, context) -> BulkDeltaClient.apply(payload));
+    }
+
+    /**
+     * Sends bulk changes that were written without {@link net.minecraft.world.level.block.Block#UPDATE_CLIENTS}
+     * to every player tracking the affected chunks: as one {@link BulkDeltaPayload} per chunk, or as vanilla
+     * section updates to clients without the payload channel.
+     */
+    public static void sendBulkChanges(ServerLevel level, BlockChangeList changes) {
+        if (changes.isEmpty()) return;
+        for (Map.Entry<ChunkPos, BulkDeltaPayload> entry : BulkDeltaPayload.byChunk(changes).entrySet()) {
+            List<ServerPlayer> players = level.getChunkSource().chunkMap.getPlayers(entry.getKey(), false);
+            for (ServerPlayer player : players) {
+                if (player.connection.hasChannel(BulkDeltaPayload.TYPE)) {
+                    PacketDistributor.sendToPlayer(player, entry.getValue());
+                } else {
+                    sendVanilla(level, player, entry.getValue());
+                }
+            }
+        }
+    }
+
+    private static void sendVanilla(ServerLevel level, ServerPlayer player, BulkDeltaPayload payload) {
+        for (BulkDeltaPayload.SectionDelta delta : payload.sections()) {
+            SectionPos section = SectionPos.of(delta.section());
+            LevelChunk chunk = level.getChunkSource().getChunkNow(section.x(), section.z());
+            if (chunk == null) continue;
+            // Vanilla packs section-relative positions as x << 8 | z << 4 | y
+            ShortSet relative = new ShortOpenHashSet(delta.positions().length);
+            for (short local : delta.positions()) {
+                relative.add((short) ((local & 15) << 8 | (local >> 4 & 15) << 4 | (local >> 8 & 15)));
+            }
+            player.connection.send(new ClientboundSectionBlocksUpdatePacket(section, relative,
+                    chunk.getSection(level.getSectionIndexFromSectionY(section.y()))));
+        }
+    }
+}
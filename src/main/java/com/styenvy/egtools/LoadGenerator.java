@@ -0,0 +1,289 @@
+package com.styenvy.egtools;
+
+import com.mojang.authlib.GameProfile;
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.context.UseOnContext;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.common.util.FakePlayer;
+import net.neoforged.neoforge.common.util.FakePlayerFactory;
+import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Synthetic multi-builder load: {@link FakePlayer}s hammering, painting and paxeling their own plots through the
+ * same entry points real clicks use, plus a fixed number of concurrent bulk jobs, while the server tick is timed.
+ * Started with {@code /egtools loadtest}; at the end it reports MSPT with tick time percentiles and the latency of
+ * each operation as seen by the clicking player. Server thread only; one run at a time.
+ * Plots are 16x4x16 blocks on a grid east and south of the start position and are left as they end up.
+ */
+@EventBusSubscriber(modid = EgTools.MODID)
+public final class LoadGenerator {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int PLOT_SIZE = 16;
+    private static final int PLOT_HEIGHT = 4;
+    private static final int PLOT_SPACING = 20;
+
+    @Nullable
+    private static LoadGenerator running;
+
+    private final ServerLevel level;
+    private final List<Builder> builders = new ArrayList<>();
+    private final double clicksPerTick;
+    private final int maxBulkJobs;
+    private final int durationTicks;
+    private final Consumer<Component> report;
+    private final RandomSource random = RandomSource.create();
+
+    private final EgToolsMetrics.Stats[] latency = new EgToolsMetrics.Stats[ToolOperation.values().length];
+    private final LongArrayList tickNanos = new LongArrayList();
+    private final List<BulkEdit> bulkJobs = new ArrayList<>();
+    private long tickStart;
+    private int ticks;
+
+    private LoadGenerator(ServerLevel level, double clicksPerTick, int maxBulkJobs, int durationTicks,
+                          Consumer<Component> report) {
+        this.level = level;
+        this.clicksPerTick = clicksPerTick;
+        this.maxBulkJobs = maxBulkJobs;
+        this.durationTicks = durationTicks;
+        this.report = report;
+        for (int i = 0; i < latency.length; i++) {
+            latency[i] = new EgToolsMetrics.Stats();
+        }
+    }
+
+    /**
+     * Builds the plots and starts the load from the next tick on, replacing a run in progress.
+     *
+     * @param origin          North-west corner of the first plot
+     * @param players         Fake builders; roles rotate hammer, brush, paxel
+     * @param clicksPerSecond Clicks per builder and second
+     * @param bulkJobs        Bulk jobs kept running at all times
+     * @param seconds         Duration of the run
+     * @param report          Receives the report lines
+     * @return false if a plot would lie in an unloaded chunk
+     */
+    public static boolean start(ServerLevel level, BlockPos origin, int players, double clicksPerSecond, int bulkJobs,
+                                int seconds, Consumer<Component> report) {
+        int columns = (int) Math.ceil(Math.sqrt(players));
+        BoundingBox area = new BoundingBox(origin.getX(), origin.getY(), origin.getZ(),
+                origin.getX() + columns * PLOT_SPACING, origin.getY() + PLOT_HEIGHT, origin.getZ() + columns * PLOT_SPACING);
+        if (!level.hasChunksAt(area.minX(), area.minZ(), area.maxX(), area.maxZ())) return false;
+
+        stop(false);
+        LoadGenerator generator = new LoadGenerator(level, clicksPerSecond / 20.0, bulkJobs, seconds * 20, report);
+        for (int i = 0; i < players; i++) {
+            BlockPos corner = origin.offset((i % columns) * PLOT_SPACING, 0, (i / columns) * PLOT_SPACING);
+            generator.builders.add(generator.new Builder(i, Role.values()[i % Role.values().length], corner));
+        }
+        running = generator;
+        return true;
+    }
+
+    /**
+     * Ends the run in progress.
+     *
+     * @param sendReport Whether to report what was measured so far
+     * @return false if nothing was running
+     */
+    public static boolean stop(boolean sendReport) {
+        LoadGenerator generator = running;
+        if (generator == null) return false;
+        running = null;
+        for (BulkEdit job : generator.bulkJobs) {
+            job.cancel();
+        }
+        if (sendReport) generator.report();
+        return true;
+    }
+
+    public static boolean isRunning() {
+        return running != null;
+    }
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onTickStart(ServerTickEvent.Pre e) {
+        LoadGenerator generator = running;
+        if (generator == null) return;
+        generator.tickStart = System.nanoTime();
+        generator.tick();
+    }
+
+    // Lowest priority so the measured tick includes the bulk scheduler and every other post-tick handler
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onTickEnd(ServerTickEvent.Post e) {
+        LoadGenerator generator = running;
+        if (generator == null) return;
+        generator.tickNanos.add(System.nanoTime() - generator.tickStart);
+        if (++generator.ticks >= generator.durationTicks) {
+            stop(true);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent e) {
+        stop(false);
+    }
+
+    private void tick() {
+        for (Builder builder : builders) {
+            // Whole clicks this tick, with the fraction carried over randomly so rates below 20/s still even out
+            int clicks = (int) clicksPerTick + (random.nextDouble() < clicksPerTick % 1.0 ? 1 : 0);
+            for (int i = 0; i < clicks; i++) {
+                builder.click();
+            }
+        }
+
+        bulkJobs.removeIf(job -> job.result().isDone());
+        while (bulkJobs.size() < maxBulkJobs && !builders.isEmpty()) {
+            Builder builder = builders.get(random.nextInt(builders.size()));
+            BulkOperation operation = builder.role == Role.BRUSH
+                    ? BulkOperation.paint(DyeColor.byId(random.nextInt(16)))
+                    : BulkOperation.cycle(random.nextBoolean());
+            long submitted = System.nanoTime();
+            BulkEdit job = BulkEditScheduler.submit(level, builder.plot, operation, builder.player);
+            job.result().thenAccept(result -> latency[ToolOperation.BULK.ordinal()]
+                    .record(result.changed(), System.nanoTime() - submitted));
+            bulkJobs.add(job);
+        }
+    }
+
+    private void report() {
+        long[] sorted = tickNanos.toLongArray();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long nanos : sorted) total += nanos;
+        long mean = sorted.length == 0 ? 0 : total / sorted.length;
+        send("§6Load test: " + builders.size() + " builders, " + ticks + " ticks");
+        send("§7MSPT " + millis(mean) + " (p50 " + millis(percentile(sorted, 0.50)) + ", p95 "
+                + millis(percentile(sorted, 0.95)) + ", p99 " + millis(percentile(sorted, 0.99)) + ", max "
+                + millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]) + ")");
+        for (ToolOperation operation : ToolOperation.values()) {
+            EgToolsMetrics.Stats stats = latency[operation.ordinal()];
+            if (stats.count() == 0) continue;
+            send("§7" + operation.getId() + ": " + stats.count() + " ops, " + stats.blocks() + " blocks, avg "
+                    + stats.averageMicros() + "µs, p50 " + stats.percentileMicros(0.50) + "µs, p99 "
+                    + stats.percentileMicros(0.99) + "µs, max " + stats.maxMicros() + "µs");
+        }
+    }
+
+    private void send(String line) {
+        LOGGER.info(line.substring(2));
+        report.accept(Component.literal(line));
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * fraction) - 1)];
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2fms", nanos / 1e6);
+    }
+
+    private enum Role {
+        HAMMER(Blocks.STONE_BRICKS),
+        BRUSH(Blocks.WHITE_WOOL),
+        PAXEL(Blocks.OAK_LOG);
+
+        private final Block fill;
+
+        Role(Block fill) {
+            this.fill = fill;
+        }
+    }
+
+    /**
+     * One fake builder clicking through its plot's top layer, block by block.
+     */
+    private final class Builder {
+        private final Role role;
+        private final BoundingBox plot;
+        private final FakePlayer player;
+        private final ItemStack tool;
+        private int cursor;
+
+        Builder(int index, Role role, BlockPos corner) {
+            this.role = role;
+            this.plot = new BoundingBox(corner.getX(), corner.getY(), corner.getZ(),
+                    corner.getX() + PLOT_SIZE - 1, corner.getY() + PLOT_HEIGHT - 1, corner.getZ() + PLOT_SIZE - 1);
+            String name = "egtools_load_" + index;
+            this.player = FakePlayerFactory.get(level,
+                    new GameProfile(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)), name));
+            this.player.getAbilities().instabuild = true;
+            this.tool = new ItemStack(switch (role) {
+                case HAMMER -> EgToolsItems.CONSTRUCTION_HAMMER.get();
+                case BRUSH -> EgToolsItems.PAINT_BRUSH.get();
+                case PAXEL -> EgToolsItems.NETHERITE_PAXEL.get();
+            });
+            this.player.setItemInHand(InteractionHand.MAIN_HAND, tool);
+
+            BlockState fill = role.fill.defaultBlockState();
+            for (BlockPos pos : BlockPos.betweenClosed(plot.minX(), plot.minY(), plot.minZ(),
+                    plot.maxX(), plot.maxY(), plot.maxZ())) {
+                level.setBlock(pos, fill, Block.UPDATE_CLIENTS);
+            }
+        }
+
+        void click() {
+            int index = cursor++ % (PLOT_SIZE * PLOT_SIZE);
+            BlockPos pos = new BlockPos(plot.minX() + index % PLOT_SIZE, plot.maxY(), plot.minZ() + index / PLOT_SIZE);
+            player.setPos(Vec3.atCenterOf(pos.above(2)));
+            ToolOperation operation;
+            long start;
+            switch (role) {
+                case HAMMER -> {
+                    operation = ToolOperation.HAMMER_CYCLE;
+                    start = System.nanoTime();
+                    tool.getItem().canAttackBlock(level.getBlockState(pos), level, pos, player);
+                }
+                case BRUSH -> {
+                    operation = ToolOperation.PAINT;
+                    PaintBrushItem.chargeBrush(tool, DyeColor.byId(random.nextInt(16)), PaintBrushItem.MAX_PAINT_USES);
+                    start = System.nanoTime();
+                    NeoForge.EVENT_BUS.post(new PlayerInteractEvent.LeftClickBlock(player, pos, Direction.UP,
+                            PlayerInteractEvent.LeftClickBlock.Action.START));
+                }
+                default -> {
+                    operation = ToolOperation.PAXEL_MODIFY;
+                    // Strip again next time around: put the log back outside the measured click
+                    if (!level.getBlockState(pos).is(Blocks.OAK_LOG)) {
+                        level.setBlock(pos, Blocks.OAK_LOG.defaultBlockState(), Block.UPDATE_CLIENTS);
+                    }
+                    start = System.nanoTime();
+                    tool.useOn(new UseOnContext(player, InteractionHand.MAIN_HAND,
+                            new BlockHitResult(Vec3.atCenterOf(pos), Direction.UP, pos, false)));
+                }
+            }
+            latency[operation.ordinal()].record(1, System.nanoTime() - start);
+        }
+    }
+}
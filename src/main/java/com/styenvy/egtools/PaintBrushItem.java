@@ -25,7 +25,9 @@ import net.minecraft.world.level.block.state.properties.BedPart;
 import net.minecraft.world.level.block.state.BlockState;
 
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Paint Brush:
@@ -39,6 +41,14 @@ public class PaintBrushItem extends Item {
     private static final String NBT_PAINT_COLOR = "PaintColor";
     private static final String NBT_PAINT_USES = "PaintUses";
     public static final int MAX_PAINT_USES = 128; // 4 buckets worth
+    // Stored color name -> color, so reads need neither valueOf nor its exception on bad data
+    private static final Map<String, DyeColor> COLORS_BY_NAME = new HashMap<>();
+
+    static {
+        for (DyeColor color : DyeColor.values()) {
+            COLORS_BY_NAME.put(color.name(), color);
+        }
+    }
 
     public PaintBrushItem(Properties props) {
         super(props.stacksTo(1));
@@ -121,11 +131,35 @@ public class PaintBrushItem extends Item {
             return;
         }
 
-        boolean painted = PaintVariantRegistry.paint(level, pos, color);
+        if (!EditPermissions.mayEdit(level, player, pos)
+                || ToolOperationEvent.cancelled(ToolOperation.PAINT, level, player, brushStack, pos)) return;
+        WorkloadRecorder.paint(level, player, pos, color);
+        ToolEffects.begin();
+        try {
+            stroke(level, player, pos, color, brushStack, brushHand, uses);
+        } finally {
+            ToolEffects.end(level);
+        }
+    }
+
+    private static void stroke(Level level, Player player, BlockPos pos, DyeColor color, ItemStack brushStack,
+                               InteractionHand brushHand, int uses) {
+        long start = System.nanoTime();
+        boolean painted;
+        BlockChangeList changes;
+        ToolChanges.begin();
+        try {
+            painted = PaintVariantRegistry.paint(level, pos, color, player);
+        } finally {
+            changes = ToolChanges.end();
+        }
         if (!painted) {
             player.displayClientMessage(Component.literal("§eBlock is already this color"), true);
             return;
         }
+        EgToolsMetrics.record(ToolOperation.PAINT, player, level, 1, System.nanoTime() - start);
+        AuditLog.record(level, player, changes);
+        ToolOperationEvent.post(ToolOperation.PAINT, level, player, brushStack, pos, changes);
 
         if (!player.getAbilities().instabuild) {
             setPaintUses(brushStack, uses - 1);
@@ -134,8 +168,8 @@ public class PaintBrushItem extends Item {
             }
         }
 
-        level.playSound(null, pos, SoundEvents.BRUSH_SAND_COMPLETED, SoundSource.PLAYERS, 0.8f, 1.1f);
-        player.swing(brushHand, true);
+        ToolEffects.playSound(level, null, pos, SoundEvents.BRUSH_SAND_COMPLETED, SoundSource.PLAYERS, 0.8f, 1.1f);
+        ToolEffects.swing(player, brushHand);
     }
 
     /* =========================
@@ -154,12 +188,10 @@ public class PaintBrushItem extends Item {
 
         // If different color, replace completely
         if (currentColor != color && currentColor != null) {
-            setPaintColor(brush, color);
-            setPaintUses(brush, Math.min(addUses, MAX_PAINT_USES));
+            setPaint(brush, color, Math.min(addUses, MAX_PAINT_USES));
         } else {
             // Same color or empty, add uses
-            setPaintColor(brush, color);
-            setPaintUses(brush, Math.min(currentUses + addUses, MAX_PAINT_USES));
+            setPaint(brush, color, Math.min(currentUses + addUses, MAX_PAINT_USES));
         }
     }
 
@@ -167,20 +199,13 @@ public class PaintBrushItem extends Item {
        Data storage helpers
        ========================= */
 
-    private static DyeColor getPaintColor(ItemStack stack) {
-        CustomData data = stack.get(DataComponents.CUSTOM_DATA);
-        if (data == null) return null;
-        CompoundTag tag = data.copyTag();
-        if (!tag.contains(NBT_PAINT_COLOR)) return null;
-        String colorName = tag.getString(NBT_PAINT_COLOR);
-        try {
-            return DyeColor.valueOf(colorName);
-        } catch (IllegalArgumentException e) {
-            return null;
-        }
+    static DyeColor getPaintColor(ItemStack stack) {
+        CompoundTag tag = readTag(stack);
+        if (tag == null || !tag.contains(NBT_PAINT_COLOR)) return null;
+        return COLORS_BY_NAME.get(tag.getString(NBT_PAINT_COLOR));
     }
 
-    private static void setPaintColor(ItemStack stack, DyeColor color) {
+    static void setPaintColor(ItemStack stack, DyeColor color) {
         CompoundTag tag;
         CustomData data = stack.get(DataComponents.CUSTOM_DATA);
         if (data == null) tag = new CompoundTag();
@@ -189,14 +214,12 @@ public class PaintBrushItem extends Item {
         stack.set(DataComponents.CUSTOM_DATA, CustomData.of(tag));
     }
 
-    private static int getPaintUses(ItemStack stack) {
-        CustomData data = stack.get(DataComponents.CUSTOM_DATA);
-        if (data == null) return 0;
-        CompoundTag tag = data.copyTag();
-        return tag.getInt(NBT_PAINT_USES);
+    static int getPaintUses(ItemStack stack) {
+        CompoundTag tag = readTag(stack);
+        return tag == null ? 0 : tag.getInt(NBT_PAINT_USES);
     }
 
-    private static void setPaintUses(ItemStack stack, int uses) {
+    static void setPaintUses(ItemStack stack, int uses) {
         CompoundTag tag;
         CustomData data = stack.get(DataComponents.CUSTOM_DATA);
         if (data == null) tag = new CompoundTag();
@@ -205,6 +228,25 @@ public class PaintBrushItem extends Item {
         stack.set(DataComponents.CUSTOM_DATA, CustomData.of(tag));
     }
 
+    /** Sets color and uses with a single copy of the custom data. */
+    private static void setPaint(ItemStack stack, DyeColor color, int uses) {
+        CustomData data = stack.get(DataComponents.CUSTOM_DATA);
+        CompoundTag tag = (data == null) ? new CompoundTag() : data.copyTag();
+        tag.putString(NBT_PAINT_COLOR, color.name());
+        tag.putInt(NBT_PAINT_USES, Math.max(0, uses));
+        stack.set(DataComponents.CUSTOM_DATA, CustomData.of(tag));
+    }
+
+    /**
+     * Read-only view of the custom data tag, without the defensive copy of {@link CustomData#copyTag()}.
+     * Callers must never mutate the returned tag.
+     */
+    @SuppressWarnings("deprecation")
+    private static CompoundTag readTag(ItemStack stack) {
+        CustomData data = stack.get(DataComponents.CUSTOM_DATA);
+        return data == null ? null : data.getUnsafe();
+    }
+
     private static void clearPaint(ItemStack stack) {
         CustomData data = stack.get(DataComponents.CUSTOM_DATA);
         if (data != null) {
@@ -2,6 +2,7 @@ package com.styenvy.egtools;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.DyeColor;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.*;
@@ -9,6 +10,10 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.properties.BedPart;
 import net.minecraft.world.level.block.state.properties.BlockStateProperties;
 import net.minecraft.world.level.block.state.properties.Property;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
 
 /**
  * Central repainting helper for vanilla colored blocks.
@@ -27,6 +32,34 @@ import net.minecraft.world.level.block.state.properties.Property;
  * - Banner patterns are not preserved here (API churn across versions); this simply swaps the block type.
  */
 public final class PaintVariantRegistry {
+    /** Column holding the undyed variant of a family (plain candle, plain shulker box, ...). */
+    static final int NEUTRAL = DyeColor.values().length;
+    /** One column per dye color (by ordinal) plus the neutral column. */
+    static final int COLUMNS = NEUTRAL + 1;
+
+    // Paint families in table order; the row index of each family in the color table.
+    private static final String[] FAMILIES = {
+            "bed", "candle", "candle_cake", "banner", "wall_banner", "wool", "carpet", "terracotta",
+            "glazed_terracotta", "stained_glass", "stained_glass_pane", "concrete", "concrete_powder", "shulker_box"
+    };
+
+    private static final Block[][] colorTable;
+    // Block -> packed (family * COLUMNS + column) for O(1) reverse lookup
+    private static final Map<Block, Integer> blockToEntry = new HashMap<>();
+
+    static {
+        RegistrySnapshot snapshot = RegistrySnapshot.get();
+        colorTable = snapshot != null ? snapshot.paintTable() : computeColorTable();
+        for (int family = 0; family < colorTable.length; family++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                Block block = colorTable[family][column];
+                if (block != null) {
+                    blockToEntry.put(block, family * COLUMNS + column);
+                }
+            }
+        }
+    }
+
     private PaintVariantRegistry() {}
 
     /**
@@ -56,7 +89,42 @@ public final class PaintVariantRegistry {
      * Returns true if a repaint happened.
      */
     public static boolean paint(Level level, BlockPos pos, DyeColor color) {
+        return paint(level, pos, color, null);
+    }
+
+    /**
+     * Attempts to recolor the block at {@code pos} on behalf of {@code player}.
+     * Returns true if a repaint happened.
+     */
+    public static boolean paint(Level level, BlockPos pos, DyeColor color, @Nullable Player player) {
+        ToolOperationJfrEvent event = new ToolOperationJfrEvent();
+        event.begin();
         BlockState state = level.getBlockState(pos);
+        boolean painted = paintState(level, pos, state, color);
+        if (painted) {
+            String family = getFamily(state.getBlock());
+            event.complete(ToolOperation.PAINT, family == null ? "" : family, 1, player, level, pos);
+        }
+        return painted;
+    }
+
+    /**
+     * Computes the repainted state of a single-block paintable without touching the world, for bulk edits.
+     * Beds, banners and shulker boxes are skipped: they span two blocks or carry block entity data.
+     *
+     * @return The repainted state, or null if the block cannot be painted this way or already has the color
+     */
+    @Nullable
+    public static BlockState paintedState(BlockState state, DyeColor color) {
+        if (state.hasBlockEntity()) return null;
+        Integer entry = blockToEntry.get(state.getBlock());
+        if (entry == null) return null;
+        Block target = colorTable[entry / COLUMNS][color.getId()];
+        if (target == null || target == state.getBlock()) return null;
+        return copyCommonProperties(state, target.defaultBlockState());
+    }
+
+    private static boolean paintState(Level level, BlockPos pos, BlockState state, DyeColor color) {
         Block block = state.getBlock();
 
         // ---- Beds (both parts) ----
@@ -72,7 +140,7 @@ public final class PaintVariantRegistry {
                     .setValue(BlockStateProperties.HORIZONTAL_FACING, facing)
                     .setValue(BedBlock.PART, part);
 
-            level.setBlock(pos, thisNew, 11);
+            ToolChanges.setBlock(level, pos, thisNew, 11);
 
             // Compute and set the other half
             BlockPos otherPos = (part == BedPart.HEAD) ? pos.relative(facing.getOpposite()) : pos.relative(facing);
@@ -82,7 +150,7 @@ public final class PaintVariantRegistry {
                 BlockState otherNew = copyCommonProperties(otherState, newBed.defaultBlockState())
                         .setValue(BlockStateProperties.HORIZONTAL_FACING, facing)
                         .setValue(BedBlock.PART, otherPart);
-                level.setBlock(otherPos, otherNew, 11);
+                ToolChanges.setBlock(level, otherPos, otherNew, 11);
             }
             return true;
         }
@@ -101,7 +169,7 @@ public final class PaintVariantRegistry {
             if (state.hasProperty(BlockStateProperties.LIT) && newState.hasProperty(BlockStateProperties.LIT)) {
                 newState = newState.setValue(BlockStateProperties.LIT, state.getValue(BlockStateProperties.LIT));
             }
-            level.setBlock(pos, newState, 11);
+            ToolChanges.setBlock(level, pos, newState, 11);
             return true;
         }
 
@@ -115,7 +183,7 @@ public final class PaintVariantRegistry {
             if (state.hasProperty(BlockStateProperties.LIT) && newState.hasProperty(BlockStateProperties.LIT)) {
                 newState = newState.setValue(BlockStateProperties.LIT, state.getValue(BlockStateProperties.LIT));
             }
-            level.setBlock(pos, newState, 11);
+            ToolChanges.setBlock(level, pos, newState, 11);
             return true;
         }
 
@@ -143,7 +211,7 @@ public final class PaintVariantRegistry {
             if (state.hasProperty(BlockStateProperties.FACING) && newState.hasProperty(BlockStateProperties.FACING)) {
                 newState = newState.setValue(BlockStateProperties.FACING, state.getValue(BlockStateProperties.FACING));
             }
-            level.setBlock(pos, newState, 11);
+            ToolChanges.setBlock(level, pos, newState, 11);
 
             // restore into the new BE
             var beNew = level.getBlockEntity(pos);
@@ -194,7 +262,7 @@ public final class PaintVariantRegistry {
             if (state.hasProperty(BlockStateProperties.ROTATION_16) && newState.hasProperty(BlockStateProperties.ROTATION_16)) {
                 newState = newState.setValue(BlockStateProperties.ROTATION_16, state.getValue(BlockStateProperties.ROTATION_16));
             }
-            level.setBlock(pos, newState, 11);
+            ToolChanges.setBlock(level, pos, newState, 11);
             return true;
         }
 
@@ -208,7 +276,7 @@ public final class PaintVariantRegistry {
             if (state.hasProperty(BlockStateProperties.HORIZONTAL_FACING) && newState.hasProperty(BlockStateProperties.HORIZONTAL_FACING)) {
                 newState = newState.setValue(BlockStateProperties.HORIZONTAL_FACING, state.getValue(BlockStateProperties.HORIZONTAL_FACING));
             }
-            level.setBlock(pos, newState, 11);
+            ToolChanges.setBlock(level, pos, newState, 11);
             return true;
         }
 
@@ -216,7 +284,7 @@ public final class PaintVariantRegistry {
         if (isAnyWool(block)) {
             Block newWool = woolByColor(color);
             if (newWool == null || newWool == block) return false;
-            level.setBlock(pos, copyCommonProperties(state, newWool.defaultBlockState()), 11);
+            ToolChanges.setBlock(level, pos, copyCommonProperties(state, newWool.defaultBlockState()), 11);
             return true;
         }
 
@@ -224,7 +292,7 @@ public final class PaintVariantRegistry {
         if (isAnyCarpet(block)) {
             Block newCarpet = carpetByColor(color);
             if (newCarpet == null || newCarpet == block) return false;
-            level.setBlock(pos, copyCommonProperties(state, newCarpet.defaultBlockState()), 11);
+            ToolChanges.setBlock(level, pos, copyCommonProperties(state, newCarpet.defaultBlockState()), 11);
             return true;
         }
 
@@ -232,7 +300,7 @@ public final class PaintVariantRegistry {
         if (isAnyTerracotta(block)) {
             Block stained = terracottaByColor(color);
             if (stained == null || stained == block) return false;
-            level.setBlock(pos, copyCommonProperties(state, stained.defaultBlockState()), 11);
+            ToolChanges.setBlock(level, pos, copyCommonProperties(state, stained.defaultBlockState()), 11);
             return true;
         }
 
@@ -245,7 +313,7 @@ public final class PaintVariantRegistry {
             if (state.hasProperty(BlockStateProperties.HORIZONTAL_FACING) && newState.hasProperty(BlockStateProperties.HORIZONTAL_FACING)) {
                 newState = newState.setValue(BlockStateProperties.HORIZONTAL_FACING, state.getValue(BlockStateProperties.HORIZONTAL_FACING));
             }
-            level.setBlock(pos, newState, 11);
+            ToolChanges.setBlock(level, pos, newState, 11);
             return true;
         }
 
@@ -253,7 +321,7 @@ public final class PaintVariantRegistry {
         if (isAnyStainedGlass(block)) {
             Block glass = stainedGlassByColor(color);
             if (glass == null || glass == block) return false;
-            level.setBlock(pos, copyCommonProperties(state, glass.defaultBlockState()), 11);
+            ToolChanges.setBlock(level, pos, copyCommonProperties(state, glass.defaultBlockState()), 11);
             return true;
         }
 
@@ -261,7 +329,7 @@ public final class PaintVariantRegistry {
         if (isAnyStainedGlassPane(block)) {
             Block pane = stainedGlassPaneByColor(color);
             if (pane == null || pane == block) return false;
-            level.setBlock(pos, copyCommonProperties(state, pane.defaultBlockState()), 11);
+            ToolChanges.setBlock(level, pos, copyCommonProperties(state, pane.defaultBlockState()), 11);
             return true;
         }
 
@@ -269,7 +337,7 @@ public final class PaintVariantRegistry {
         if (isAnyConcrete(block)) {
             Block concrete = concreteByColor(color);
             if (concrete == null || concrete == block) return false;
-            level.setBlock(pos, copyCommonProperties(state, concrete.defaultBlockState()), 11);
+            ToolChanges.setBlock(level, pos, copyCommonProperties(state, concrete.defaultBlockState()), 11);
             return true;
         }
 
@@ -277,15 +345,96 @@ public final class PaintVariantRegistry {
         if (isAnyConcretePowder(block)) {
             Block powder = concretePowderByColor(color);
             if (powder == null || powder == block) return false;
-            level.setBlock(pos, copyCommonProperties(state, powder.defaultBlockState()), 11);
+            ToolChanges.setBlock(level, pos, copyCommonProperties(state, powder.defaultBlockState()), 11);
             return true;
         }
 
         return false;
     }
 
+    /**
+     * Gets the dye color of a paintable block.
+     *
+     * @return The color, or null if the block is undyed or not paintable
+     */
+    @Nullable
+    public static DyeColor getColor(Block block) {
+        Integer entry = blockToEntry.get(block);
+        if (entry == null) return null;
+        int column = entry % COLUMNS;
+        return column == NEUTRAL ? null : DyeColor.byId(column);
+    }
+
+    /**
+     * Gets the paint family of a block (e.g., "wool", "concrete").
+     *
+     * @return The family name, or null if the block is not in the color tables
+     */
+    @Nullable
+    public static String getFamily(Block block) {
+        Integer entry = blockToEntry.get(block);
+        return entry == null ? null : FAMILIES[entry / COLUMNS];
+    }
+
+    /**
+     * Resolves the block of a paint family in the given color.
+     *
+     * @return The colored block, or null if the family is unknown
+     */
+    @Nullable
+    public static Block byColor(String family, DyeColor color) {
+        int row = familyIndex(family);
+        return row < 0 ? null : colorTable[row][color.getId()];
+    }
+
+    /**
+     * Gets all paint family names in table order.
+     *
+     * @return Unmodifiable list of family names
+     */
+    public static List<String> getFamilies() {
+        return List.of(FAMILIES);
+    }
+
+    static int familyIndex(String family) {
+        for (int i = 0; i < FAMILIES.length; i++) {
+            if (FAMILIES[i].equals(family)) return i;
+        }
+        return -1;
+    }
+
+    static String[] familyNames() {
+        return FAMILIES.clone();
+    }
+
+    /**
+     * Builds the color table from the per-family resolvers below.
+     * Rows follow {@link #FAMILIES}, columns follow {@link DyeColor#getId()} plus {@link #NEUTRAL}.
+     */
+    static Block[][] computeColorTable() {
+        List<Function<DyeColor, Block>> resolvers = List.of(
+                PaintVariantRegistry::bedByColor, PaintVariantRegistry::candleByColor,
+                PaintVariantRegistry::candleCakeByColor, PaintVariantRegistry::standingBannerByColor,
+                PaintVariantRegistry::wallBannerByColor, PaintVariantRegistry::woolByColor,
+                PaintVariantRegistry::carpetByColor, PaintVariantRegistry::terracottaByColor,
+                PaintVariantRegistry::glazedTerracottaByColor, PaintVariantRegistry::stainedGlassByColor,
+                PaintVariantRegistry::stainedGlassPaneByColor, PaintVariantRegistry::concreteByColor,
+                PaintVariantRegistry::concretePowderByColor, PaintVariantRegistry::shulkerByColor);
+
+        Block[][] table = new Block[FAMILIES.length][COLUMNS];
+        for (int family = 0; family < FAMILIES.length; family++) {
+            for (DyeColor color : DyeColor.values()) {
+                table[family][color.getId()] = resolvers.get(family).apply(color);
+            }
+        }
+        table[familyIndex("candle")][NEUTRAL] = Blocks.CANDLE;
+        table[familyIndex("candle_cake")][NEUTRAL] = Blocks.CANDLE_CAKE;
+        table[familyIndex("shulker_box")][NEUTRAL] = Blocks.SHULKER_BOX;
+        return table;
+    }
+
     // --- Common property copier (Preserves rotation/facing/waterlogged/lit/etc. when present) ---
-    private static BlockState copyCommonProperties(BlockState from, BlockState to) {
+    static BlockState copyCommonProperties(BlockState from, BlockState to) {
         for (Property<?> p : from.getProperties()) {
             if (to.getProperties().contains(p)) {
                 to = setUnchecked(to, p, from.getValue(p));
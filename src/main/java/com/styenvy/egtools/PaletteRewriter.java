@@ -0,0 +1,116 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.BitStorage;
+import net.minecraft.util.SimpleBitStorage;
+import net.minecraft.util.ZeroBitStorage;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.PalettedContainerRO;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites the palette entries of a chunk section instead of its 4096 block entries.
+ * The section's states are taken in their save form ({@link PalettedContainer#pack}: the used states plus packed
+ * indices), the states are mapped, and a new section is built from the mapped palette and the same indices, as
+ * chunk loading does; the indices are never rewritten. Clients are not told;
+ * the caller sends the recorded changes (see {@link EgToolsNetwork#sendBulkChanges}).
+ * Only used where every mapped entry is palette-safe (see {@link Mapping#isPaletteSafe}) and the result has no
+ * duplicate palette entries; everything else is left to the per-block path of {@link BulkEdit}.
+ */
+public final class PaletteRewriter {
+    // Larger block state containers use the global palette: indices are registry ids and there is nothing to rewrite
+    private static final int MAX_PALETTE_BITS = 8;
+    private static final int SECTION_SIZE = 16 * 16 * 16;
+    private static final PalettedContainer.Strategy STRATEGY = PalettedContainer.Strategy.SECTION_STATES;
+
+    private PaletteRewriter() {}
+
+    /**
+     * A position-independent state mapping.
+     */
+    public interface Mapping {
+        /**
+         * @return The replacement for {@code state}, or null to keep it
+         */
+        @Nullable
+        BlockState map(BlockState state);
+
+        /**
+         * Checks whether replacing {@code source} needs no lighting, heightmap, block entity, POI or neighbor updates.
+         */
+        boolean isPaletteSafe(BlockState source);
+    }
+
+    /**
+     * Rewrites one section of a loaded chunk. Must run on the thread that owns the level.
+     *
+     * @param out Receives the changes made, for the audit log
+     * @return The number of blocks changed, or -1 if the section has to be edited block by block
+     */
+    public static int rewrite(Level level, SectionPos pos, Mapping mapping, BlockChangeList out) {
+        LevelChunk chunk = level.getChunkSource().getChunkNow(pos.x(), pos.z());
+        if (chunk == null) return -1;
+        int index = level.getSectionIndexFromSectionY(pos.y());
+        LevelChunkSection section = chunk.getSection(index);
+        if (!section.maybeHas(state -> mapping.map(state) != null)) return 0;
+
+        PalettedContainer<BlockState> states = section.getStates();
+        // The save format: the used states plus their packed indices, already compacted to the fewest bits
+        PalettedContainerRO.PackedData<BlockState> packed = states.pack(Block.BLOCK_STATE_REGISTRY, STRATEGY);
+        List<BlockState> palette = new ArrayList<>(packed.paletteEntries());
+        int bits = STRATEGY.calculateBitsForSerialization(Block.BLOCK_STATE_REGISTRY, palette.size());
+        if (bits > MAX_PALETTE_BITS) return -1;
+
+        // Map the palette; a target already present would leave duplicate entries, so fall back instead
+        Set<BlockState> present = Collections.newSetFromMap(new IdentityHashMap<>());
+        present.addAll(palette);
+        Map<BlockState, BlockState> replaced = new IdentityHashMap<>();
+        for (int i = 0; i < palette.size(); i++) {
+            BlockState source = palette.get(i);
+            BlockState target = mapping.map(source);
+            if (target == null) continue;
+            if (!mapping.isPaletteSafe(source)) return -1;
+            if (!present.add(target)) return -1;
+            palette.set(i, target);
+            replaced.put(source, target);
+        }
+        if (replaced.isEmpty()) return 0;
+
+        // Record what changes before the section is swapped; reads of the packed indices only
+        int before = out.size();
+        int baseX = pos.minBlockX(), baseY = pos.minBlockY(), baseZ = pos.minBlockZ();
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    BlockState source = states.get(x, y, z);
+                    BlockState target = replaced.get(source);
+                    if (target != null) {
+                        out.add(BlockPos.asLong(baseX + x, baseY + y, baseZ + z), source, target);
+                    }
+                }
+            }
+        }
+
+        // Same indices under the mapped palette, built the way chunk loading builds a section
+        BitStorage storage = bits == 0 ? new ZeroBitStorage(SECTION_SIZE)
+                : new SimpleBitStorage(bits, SECTION_SIZE, packed.storage().orElseThrow().toArray());
+        PalettedContainer<BlockState> rewritten = new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, STRATEGY,
+                STRATEGY.getConfiguration(Block.BLOCK_STATE_REGISTRY, bits), storage, palette);
+        chunk.getSections()[index] = new LevelChunkSection(rewritten, section.getBiomes());
+        chunk.setUnsaved(true);
+        return out.size() - before;
+    }
+}
@@ -1,6 +1,7 @@
 package com.styenvy.egtools;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
@@ -69,7 +70,19 @@ public class PaxelItem extends Item implements IItemExtension {
         final BlockState state = level.getBlockState(pos);
         final ItemStack stack = ctx.getItemInHand();
         final Player player = ctx.getPlayer();
+        if (player != null) WorkloadRecorder.paxel(level, player, pos, ctx.getClickedFace());
 
+        ToolEffects.begin();
+        try {
+            return modify(ctx, state, level, pos, stack, player);
+        } finally {
+            ToolEffects.end(level);
+        }
+    }
+
+    /** Applies the first ability that changes the block. */
+    private static InteractionResult modify(UseOnContext ctx, BlockState state, Level level, BlockPos pos,
+                                            ItemStack stack, @Nullable Player player) {
         if (tryModify(state, ctx, ItemAbilities.AXE_STRIP,   SoundEvents.AXE_STRIP,     level, pos, stack, player, 0))    return InteractionResult.sidedSuccess(level.isClientSide);
         if (tryModify(state, ctx, ItemAbilities.AXE_SCRAPE,  SoundEvents.AXE_SCRAPE,    level, pos, stack, player, 3005)) return InteractionResult.sidedSuccess(level.isClientSide);
         if (tryModify(state, ctx, ItemAbilities.AXE_WAX_OFF, SoundEvents.AXE_WAX_OFF,   level, pos, stack, player, 3004)) return InteractionResult.sidedSuccess(level.isClientSide);
@@ -159,17 +172,35 @@ public class PaxelItem extends Item implements IItemExtension {
                                      Level level, BlockPos pos,
                                      ItemStack stack, @Nullable Player player,
                                      int levelEvent) {
+        ToolOperationJfrEvent event = new ToolOperationJfrEvent();
+        event.begin();
+        long start = System.nanoTime();
         BlockState modified = state.getToolModifiedState(ctx, ability, false);
         if (modified == null) return false;
+        // A cancelled operation still consumes the click so no other ability applies instead
+        if (!level.isClientSide && (!EditPermissions.mayEdit(level, player, pos)
+                || ToolOperationEvent.cancelled(ToolOperation.PAXEL_MODIFY, level, player, stack, pos))) {
+            return true;
+        }
 
-        if (sound != null) level.playSound(player, pos, sound, SoundSource.BLOCKS, 1.0F, 1.0F);
-        if (levelEvent != 0) level.levelEvent(player, levelEvent, pos, 0);
-        level.setBlock(pos, modified, 11);
+        if (sound != null) ToolEffects.playSound(level, player, pos, sound, SoundSource.BLOCKS, 1.0F, 1.0F);
+        if (levelEvent != 0) ToolEffects.levelEvent(level, player, levelEvent, pos, 0);
+        BlockChangeList changes = new BlockChangeList(1);
+        if (level.setBlock(pos, modified, 11)) {
+            changes.add(pos, state, modified);
+        }
 
         if (player != null) {
             EquipmentSlot slot = ctx.getHand() == InteractionHand.MAIN_HAND ? EquipmentSlot.MAINHAND : EquipmentSlot.OFFHAND;
             stack.hurtAndBreak(1, player, slot);
         }
+        if (!level.isClientSide) {
+            EgToolsMetrics.record(ToolOperation.PAXEL_MODIFY, player, level, 1, System.nanoTime() - start);
+            event.complete(ToolOperation.PAXEL_MODIFY, BuiltInRegistries.BLOCK.getKey(state.getBlock()).getPath(),
+                    1, player, level, pos);
+            AuditLog.record(level, player, changes);
+            if (!changes.isEmpty()) ToolOperationEvent.post(ToolOperation.PAXEL_MODIFY, level, player, stack, pos, changes);
+        }
         return true;
     }
 }
@@ -0,0 +1,260 @@
+package com.styenvy.egtools;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Builds a PNG as a vertical wall of colored blocks.
+ * The image is decoded a band of rows at a time on the IO pool, where a band is the rows sharing one section
+ * layer, and each band is applied as one position batch through {@link BulkEditScheduler}; the next band decodes
+ * while the current one is written. Memory stays at one band however large the picture is.
+ * Pixels map to colors through a {@link DyeColorLut}, optionally with Floyd-Steinberg dithering; pixels with
+ * less than half alpha are left out. Only air, replaceable blocks and single-block paintables are overwritten.
+ */
+final class PixelArt {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    /**
+     * Paint families that can make up a wall: full blocks without block entities that stay where they are put.
+     */
+    static final List<String> FAMILIES = List.of("wool", "concrete", "terracotta", "stained_glass");
+
+    private final ServerLevel level;
+    private final PngRowReader reader;
+    private final DyeColorLut lut;
+    private final BlockState[] states;
+    private final boolean dither;
+    private final BlockPos origin;
+    private final Direction right;
+    @Nullable
+    private final Player player;
+    private final int[] row;
+    // Floyd-Steinberg error for the current and the next row, 3 channels per pixel
+    private int[] error, nextError;
+    private int rowsRead;
+    private int changed, missingChunks, deniedChunks;
+    private boolean cancelled;
+
+    private PixelArt(ServerLevel level, PngRowReader reader, DyeColorLut lut, String family, boolean dither,
+                     BlockPos origin, Direction right, @Nullable Player player) {
+        this.level = level;
+        this.reader = reader;
+        this.lut = lut;
+        this.dither = dither;
+        this.origin = origin;
+        this.right = right;
+        this.player = player;
+        this.row = new int[reader.width()];
+        this.states = new BlockState[lut.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = PaintVariantRegistry.byColor(family, lut.color(i)).defaultBlockState();
+        }
+        if (dither) {
+            error = new int[(reader.width() + 2) * 3];
+            nextError = new int[(reader.width() + 2) * 3];
+        }
+    }
+
+    /**
+     * Builds the image in {@code file} with its bottom-left pixel at {@code origin}, rows running along
+     * {@code right}. Must be called on the server thread; the result completes on the server thread, failed or not.
+     *
+     * @param maxWidth Largest accepted image width
+     * @return The totals, or a failed future if the file cannot be read or the wall does not fit
+     */
+    static CompletableFuture<Result> build(ServerLevel level, Path file, String family, boolean dither,
+                                           BlockPos origin, Direction right, @Nullable Player player, int maxWidth) {
+        return CompletableFuture.supplyAsync(() -> {
+            DyeColorLut lut = DyeColorLut.forFamily(family);
+            if (lut == null) throw new CompletionException(new IOException("Unknown paint family " + family));
+            PngRowReader reader;
+            try {
+                reader = open(file);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            if (reader.width() > maxWidth || origin.getY() + reader.height() > level.getMaxBuildHeight()) {
+                close(reader);
+                throw new CompletionException(new IOException("A " + reader.width() + "x" + reader.height()
+                        + " image does not fit here"));
+            }
+            return new PixelArt(level, reader, lut, family, dither, origin, right, player);
+        }, Util.ioPool()).thenCompose(art -> art.decode()
+                .thenCompose(art::apply)
+                .whenComplete((result, e) -> close(art.reader))
+                .thenApplyAsync(ignored -> art.result(), level.getServer()))
+                // Failures too: a missing or unreadable file fails on the IO pool, and callers message players
+                .whenCompleteAsync((result, e) -> {}, level.getServer());
+    }
+
+    /**
+     * Decodes the next band on the IO pool.
+     *
+     * @return The band's target states by packed position, or null after the last row
+     */
+    private CompletableFuture<Band> decode() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return readBand();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, Util.ioPool());
+    }
+
+    /**
+     * Writes {@code band} while the band after it decodes, then continues with that one.
+     */
+    private CompletableFuture<Void> apply(@Nullable Band band) {
+        if (band == null || cancelled) return CompletableFuture.completedFuture(null);
+        if (band.targets.isEmpty()) return decode().thenCompose(this::apply);
+        CompletableFuture<BulkEdit.Result> written = CompletableFuture
+                .supplyAsync(() -> BulkEditScheduler.submit(level, band.targets.keySet(), band, player), level.getServer())
+                .thenCompose(BulkEdit::result);
+        return written.thenCombine(decode(), (result, next) -> {
+            changed += result.changed();
+            missingChunks += result.missingChunks();
+            deniedChunks += result.deniedChunks();
+            cancelled |= result.cancelled();
+            return next;
+        }).thenCompose(this::apply);
+    }
+
+    private Result result() {
+        return new Result(reader.width(), reader.height(), changed, missingChunks, deniedChunks, cancelled);
+    }
+
+    /**
+     * Reads the rows down to the bottom of the current section layer; rows run top to bottom in the file.
+     */
+    @Nullable
+    private Band readBand() throws IOException {
+        int height = reader.height();
+        if (rowsRead >= height) return null;
+        int topY = origin.getY() + height - 1 - rowsRead;
+        int rows = Math.min(SectionPos.sectionRelative(topY) + 1, height - rowsRead);
+        Long2ObjectOpenHashMap<BlockState> targets = new Long2ObjectOpenHashMap<>();
+        for (int i = 0; i < rows; i++) {
+            int y = topY - i;
+            reader.readRow(row);
+            rowsRead++;
+            for (int x = 0; x < row.length; x++) {
+                int argb = row[x];
+                if (argb >>> 24 < 128) continue;
+                int index = dither ? ditherPixel(x, argb) : lut.index(argb);
+                targets.put(BlockPos.asLong(origin.getX() + right.getStepX() * x, y,
+                        origin.getZ() + right.getStepZ() * x), states[index]);
+            }
+            if (dither) {
+                int[] swap = error;
+                error = nextError;
+                nextError = swap;
+                Arrays.fill(nextError, 0);
+            }
+        }
+        return new Band(targets);
+    }
+
+    /**
+     * Picks the color for a pixel plus the error carried to it, and spreads the new error to the right and
+     * to the next row (7/16, 3/16, 5/16, 1/16).
+     */
+    private int ditherPixel(int x, int argb) {
+        int at = (x + 1) * 3;
+        int r = clamp((argb >> 16 & 0xFF) + (error[at] >> 4));
+        int g = clamp((argb >> 8 & 0xFF) + (error[at + 1] >> 4));
+        int b = clamp((argb & 0xFF) + (error[at + 2] >> 4));
+        int index = lut.index(r << 16 | g << 8 | b);
+        int chosen = lut.rgb(index);
+        spread(at, r - (chosen >> 16 & 0xFF));
+        spread(at + 1, g - (chosen >> 8 & 0xFF));
+        spread(at + 2, b - (chosen & 0xFF));
+        return index;
+    }
+
+    private void spread(int at, int error) {
+        this.error[at + 3] += error * 7;
+        nextError[at - 3] += error * 3;
+        nextError[at] += error * 5;
+        nextError[at + 3] += error;
+    }
+
+    private static int clamp(int channel) {
+        return channel < 0 ? 0 : Math.min(channel, 255);
+    }
+
+    private static PngRowReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            return new PngRowReader(in);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static void close(PngRowReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close image", e);
+        }
+    }
+
+    /**
+     * One band of target states. Read-only once decoded, so worker threads plan from it directly.
+     */
+    private static final class Band implements BulkOperation {
+        private final Long2ObjectOpenHashMap<BlockState> targets;
+
+        private Band(Long2ObjectOpenHashMap<BlockState> targets) {
+            this.targets = targets;
+        }
+
+        @Override
+        public String name() {
+            return "pixelart";
+        }
+
+        @Override
+        public boolean mayAffect(BlockState state) {
+            return state.isAir() || state.canBeReplaced() || PaintVariantRegistry.isPaintable(state.getBlock())
+                    && !state.hasBlockEntity();
+        }
+
+        @Override
+        public SectionPlanner forSection(SectionPos section) {
+            return (x, y, z, state) -> {
+                BlockState target = targets.get(BlockPos.asLong(x, y, z));
+                return target == null || target == state || !mayAffect(state) ? null : target;
+            };
+        }
+    }
+
+    /**
+     * @param width         Image width in pixels
+     * @param height        Image height in pixels
+     * @param changed       Blocks placed or recolored
+     * @param missingChunks Chunks skipped because they did not load in time
+     * @param deniedChunks  Chunks skipped because the {@link EditPermission} denied the player
+     * @param cancelled     Whether a band was cancelled, which stops the rest of the image
+     */
+    record Result(int width, int height, int changed, int missingChunks, int deniedChunks, boolean cancelled) {}
+}
@@ -0,0 +1,208 @@
+package com.styenvy.egtools;
+
+import java.io.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Streaming PNG decoder handing out one row of ARGB pixels at a time, so pictures of any size decode with two rows
+ * of memory. Supports every non-interlaced color type at the common bit depths (palette 1-8, gray 8/16,
+ * RGB/RGBA 8/16, gray+alpha 8/16); transparency chunks are honored for palette images.
+ * Not thread-safe.
+ */
+final class PngRowReader implements Closeable {
+    private static final long SIGNATURE = 0x89504E470D0A1A0AL;
+    private static final int IHDR = 0x49484452, PLTE = 0x504C5445, TRNS = 0x74524E53, IDAT = 0x49444154, IEND = 0x49454E44;
+    private static final int MAX_SIDE = 1 << 16;
+
+    private final DataInputStream in;
+    private final Inflater inflater = new Inflater();
+    private final byte[] compressed = new byte[1 << 15];
+    private final int width, height, colorType, bitDepth, channels, bytesPerPixel;
+    private int[] palette = new int[0];
+    private byte[] row, previous;
+    private int rowsRead;
+    private final byte[] filter = new byte[1];
+    // Bytes of the current IDAT chunk not read yet
+    private int idatRemaining;
+
+    PngRowReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (this.in.readLong() != SIGNATURE) throw new IOException("Not a PNG file");
+        if (this.in.readInt() != 13 || this.in.readInt() != IHDR) throw new IOException("PNG header missing");
+        width = this.in.readInt();
+        height = this.in.readInt();
+        bitDepth = this.in.readUnsignedByte();
+        colorType = this.in.readUnsignedByte();
+        int compression = this.in.readUnsignedByte(), filter = this.in.readUnsignedByte(), interlace = this.in.readUnsignedByte();
+        this.in.readInt(); // CRC
+        if (width <= 0 || height <= 0 || width > MAX_SIDE || height > MAX_SIDE) throw new IOException("Bad PNG size " + width + "x" + height);
+        if (compression != 0 || filter != 0) throw new IOException("Unknown PNG compression or filter method");
+        if (interlace != 0) throw new IOException("Interlaced PNGs are not supported");
+        channels = switch (colorType) {
+            case 0, 3 -> 1;
+            case 2 -> 3;
+            case 4 -> 2;
+            case 6 -> 4;
+            default -> throw new IOException("Unknown PNG color type " + colorType);
+        };
+        boolean depthOk = colorType == 3 ? bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8
+                : bitDepth == 8 || bitDepth == 16;
+        if (!depthOk) throw new IOException("Unsupported PNG bit depth " + bitDepth + " for color type " + colorType);
+        bytesPerPixel = Math.max(1, channels * bitDepth / 8);
+        int rowBytes = (int) (((long) width * channels * bitDepth + 7) / 8);
+        row = new byte[rowBytes];
+        previous = new byte[rowBytes];
+        readUntilImageData();
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+
+    /**
+     * Decodes the next row into {@code argb} (at least {@link #width()} long).
+     *
+     * @return false when every row has been read
+     */
+    boolean readRow(int[] argb) throws IOException {
+        if (rowsRead >= height) return false;
+        byte[] swap = previous;
+        previous = row;
+        row = swap;
+        inflate(filter, 1);
+        inflate(row, row.length);
+        unfilter(filter[0]);
+        toArgb(argb);
+        rowsRead++;
+        return true;
+    }
+
+    private void readUntilImageData() throws IOException {
+        while (true) {
+            int length = in.readInt();
+            int type = in.readInt();
+            if (type == IDAT) {
+                idatRemaining = length;
+                return;
+            }
+            if (type == IEND) throw new IOException("PNG has no image data");
+            if (type == PLTE) {
+                palette = new int[length / 3];
+                for (int i = 0; i < palette.length; i++) {
+                    palette[i] = 0xFF000000 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+                }
+                in.skipNBytes(length - palette.length * 3);
+            } else if (type == TRNS && colorType == 3) {
+                for (int i = 0; i < length; i++) {
+                    int alpha = in.readUnsignedByte();
+                    if (i < palette.length) palette[i] = alpha << 24 | palette[i] & 0xFFFFFF;
+                }
+            } else {
+                in.skipNBytes(length);
+            }
+            in.readInt(); // CRC
+        }
+    }
+
+    /**
+     * Fills {@code out} with inflated image data, reading further IDAT chunks as needed.
+     */
+    private void inflate(byte[] out, int length) throws IOException {
+        int done = 0;
+        try {
+            while (done < length) {
+                int n = inflater.inflate(out, done, length - done);
+                done += n;
+                if (n > 0) continue;
+                if (inflater.finished()) throw new EOFException("PNG image data ends early");
+                if (inflater.needsInput()) feed();
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt PNG image data", e);
+        }
+    }
+
+    private void feed() throws IOException {
+        while (idatRemaining == 0) {
+            in.readInt(); // CRC of the previous chunk
+            int length = in.readInt();
+            if (in.readInt() != IDAT) throw new EOFException("PNG image data ends early");
+            idatRemaining = length;
+        }
+        int n = in.read(compressed, 0, Math.min(compressed.length, idatRemaining));
+        if (n < 0) throw new EOFException("PNG file is truncated");
+        idatRemaining -= n;
+        inflater.setInput(compressed, 0, n);
+    }
+
+    private void unfilter(int filter) throws IOException {
+        int bpp = bytesPerPixel;
+        switch (filter) {
+            case 0 -> {}
+            case 1 -> {
+                for (int i = bpp; i < row.length; i++) row[i] += row[i - bpp];
+            }
+            case 2 -> {
+                for (int i = 0; i < row.length; i++) row[i] += previous[i];
+            }
+            case 3 -> {
+                for (int i = 0; i < row.length; i++) {
+                    int left = i >= bpp ? row[i - bpp] & 0xFF : 0;
+                    row[i] += (left + (previous[i] & 0xFF)) >>> 1;
+                }
+            }
+            case 4 -> {
+                for (int i = 0; i < row.length; i++) {
+                    int a = i >= bpp ? row[i - bpp] & 0xFF : 0;
+                    int b = previous[i] & 0xFF;
+                    int c = i >= bpp ? previous[i - bpp] & 0xFF : 0;
+                    int p = a + b - c, pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+                    row[i] += pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+                }
+            }
+            default -> throw new IOException("Unknown PNG row filter " + filter);
+        }
+    }
+
+    private void toArgb(int[] argb) {
+        // 16-bit samples keep their high byte
+        int step = bitDepth == 16 ? 2 : 1;
+        for (int x = 0; x < width; x++) {
+            argb[x] = switch (colorType) {
+                case 3 -> {
+                    int bit = x * bitDepth;
+                    int index = (row[bit >> 3] & 0xFF) >> (8 - bitDepth - (bit & 7)) & (1 << bitDepth) - 1;
+                    yield index < palette.length ? palette[index] : 0;
+                }
+                case 0 -> {
+                    int v = row[x * step] & 0xFF;
+                    yield 0xFF000000 | v << 16 | v << 8 | v;
+                }
+                case 4 -> {
+                    int v = row[x * 2 * step] & 0xFF, a = row[(x * 2 + 1) * step] & 0xFF;
+                    yield a << 24 | v << 16 | v << 8 | v;
+                }
+                case 2 -> {
+                    int i = x * 3 * step;
+                    yield 0xFF000000 | (row[i] & 0xFF) << 16 | (row[i + step] & 0xFF) << 8 | row[i + 2 * step] & 0xFF;
+                }
+                default -> {
+                    int i = x * 4 * step;
+                    yield (row[i + 3 * step] & 0xFF) << 24 | (row[i] & 0xFF) << 16 | (row[i + step] & 0xFF) << 8
+                            | row[i + 2 * step] & 0xFF;
+                }
+            };
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+}
@@ -0,0 +1,195 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.longs.Long2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.visitors.CollectFields;
+import net.minecraft.nbt.visitors.FieldSelector;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+
+/**
+ * Brings the chunks of a region in through chunk tickets instead of synchronous loads.
+ * At most a fixed number of chunks hold a ticket at once; each is handed out as soon as it and its neighbors are
+ * loaded (in whatever order the chunk system finishes them) and keeps its ticket until released.
+ * Nothing here ever waits for a chunk, so an edit spanning hundreds of chunks cannot stall the server thread.
+ * Unless the loader is told to generate, chunks that are neither loaded nor saved are skipped and counted with
+ * those that timed out: edits that only change existing blocks find nothing in fresh terrain, and ticketing
+ * them would run world generation for them and their ring.
+ * Server thread only.
+ */
+final class RegionChunkLoader {
+    private static final TicketType<ChunkPos> TICKET = TicketType.create("egtools_bulk", Comparator.comparingLong(ChunkPos::toLong));
+    // Radius 1 brings the ring around each chunk to full status too, so writes at chunk borders never reach
+    // into a chunk that would have to be loaded synchronously for a neighbor shape update
+    private static final int TICKET_RADIUS = 1;
+    // Chunks that fail to load (broken generation, corrupt region files) are given up on after 60 seconds
+    private static final int LOAD_TIMEOUT_TICKS = 20 * 60;
+
+    private final ServerLevel level;
+    private final int maxTickets;
+    private final boolean generate;
+    private final LongArrayList queue = new LongArrayList();
+    private int queueIndex;
+    // Ticketed chunks not yet handed out, with the poll they were requested on
+    private final Long2IntLinkedOpenHashMap loading = new Long2IntLinkedOpenHashMap();
+    private final LongOpenHashSet ticketed = new LongOpenHashSet();
+    // Unloaded chunks being looked up in region storage, completing with whether they were ever saved
+    private final Long2ObjectLinkedOpenHashMap<CompletableFuture<Boolean>> probing = new Long2ObjectLinkedOpenHashMap<>();
+    private int polls;
+    private int timedOut;
+
+    /**
+     * @param generate Whether chunks never generated are loaded (and so generated) too, for edits placing blocks
+     */
+    RegionChunkLoader(ServerLevel level, BoundingBox bounds, int maxTickets, boolean generate) {
+        this.level = level;
+        this.maxTickets = maxTickets;
+        this.generate = generate;
+        for (int x = SectionPos.blockToSectionCoord(bounds.minX()); x <= SectionPos.blockToSectionCoord(bounds.maxX()); x++) {
+            for (int z = SectionPos.blockToSectionCoord(bounds.minZ()); z <= SectionPos.blockToSectionCoord(bounds.maxZ()); z++) {
+                queue.add(ChunkPos.asLong(x, z));
+            }
+        }
+    }
+
+    /**
+     * Loads the given chunks only, in x-z order, for edits of scattered positions.
+     */
+    RegionChunkLoader(ServerLevel level, LongCollection chunks, int maxTickets, boolean generate) {
+        this.level = level;
+        this.maxTickets = maxTickets;
+        this.generate = generate;
+        queue.addAll(chunks);
+        queue.sort((long a, long b) -> ChunkPos.getX(a) != ChunkPos.getX(b)
+                ? Integer.compare(ChunkPos.getX(a), ChunkPos.getX(b)) : Integer.compare(ChunkPos.getZ(a), ChunkPos.getZ(b)));
+    }
+
+    /**
+     * Requests more chunks up to the ticket limit and hands out those that finished loading since the last poll.
+     * Call once per tick; tickets added now are processed by the chunk system on its next update.
+     */
+    void poll(LongConsumer ready) {
+        polls++;
+        ServerChunkCache chunkSource = level.getChunkSource();
+        ObjectIterator<Long2ObjectMap.Entry<CompletableFuture<Boolean>>> probes = probing.long2ObjectEntrySet().fastIterator();
+        while (probes.hasNext()) {
+            Long2ObjectMap.Entry<CompletableFuture<Boolean>> entry = probes.next();
+            Boolean saved = entry.getValue().getNow(null);
+            if (saved == null) continue;
+            probes.remove();
+            if (saved) {
+                ticket(chunkSource, entry.getLongKey());
+            } else {
+                timedOut++;
+            }
+        }
+        while (ticketed.size() + probing.size() < maxTickets && queueIndex < queue.size()) {
+            long chunk = queue.getLong(queueIndex++);
+            if (generate || chunkSource.getChunkNow(ChunkPos.getX(chunk), ChunkPos.getZ(chunk)) != null) {
+                ticket(chunkSource, chunk);
+            } else {
+                probing.put(chunk, probe(chunkSource, chunk));
+            }
+        }
+
+        ObjectIterator<Long2IntMap.Entry> it = loading.long2IntEntrySet().fastIterator();
+        while (it.hasNext()) {
+            Long2IntMap.Entry entry = it.next();
+            long chunk = entry.getLongKey();
+            if (isLoaded(chunkSource, ChunkPos.getX(chunk), ChunkPos.getZ(chunk))) {
+                it.remove();
+                ready.accept(chunk);
+            } else if (polls - entry.getIntValue() > LOAD_TIMEOUT_TICKS) {
+                it.remove();
+                release(chunk);
+                timedOut++;
+            }
+        }
+    }
+
+    private void ticket(ServerChunkCache chunkSource, long chunk) {
+        ChunkPos pos = new ChunkPos(chunk);
+        chunkSource.addRegionTicket(TICKET, pos, TICKET_RADIUS, pos);
+        ticketed.add(chunk);
+        loading.put(chunk, polls);
+    }
+
+    /**
+     * Looks an unloaded chunk up in region storage on the IO worker, reading no more than its data version.
+     * Unsaved chunks still waiting to be written are found too. A chunk whose lookup fails counts as saved,
+     * leaving corrupt region files to the normal load and its timeout.
+     */
+    private static CompletableFuture<Boolean> probe(ServerChunkCache chunkSource, long chunk) {
+        CollectFields fields = new CollectFields(new FieldSelector(IntTag.TYPE, "DataVersion"));
+        return chunkSource.chunkMap.chunkScanner().scanChunk(new ChunkPos(chunk), fields)
+                .handle((ignored, e) -> e != null || fields.getResult() != null);
+    }
+
+    private static boolean isLoaded(ServerChunkCache chunkSource, int x, int z) {
+        for (int dx = -TICKET_RADIUS; dx <= TICKET_RADIUS; dx++) {
+            for (int dz = -TICKET_RADIUS; dz <= TICKET_RADIUS; dz++) {
+                if (chunkSource.getChunkNow(x + dx, z + dz) == null) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drops the ticket of a chunk handed out by {@link #poll}, letting it unload again.
+     */
+    void release(long chunk) {
+        if (ticketed.remove(chunk)) {
+            ChunkPos pos = new ChunkPos(chunk);
+            level.getChunkSource().removeRegionTicket(TICKET, pos, TICKET_RADIUS, pos);
+        }
+    }
+
+    /**
+     * Drops every ticket still held, including those of chunks still loading.
+     */
+    void releaseAll() {
+        for (long chunk : ticketed.toLongArray()) {
+            release(chunk);
+        }
+        loading.clear();
+        probing.clear();
+        queueIndex = queue.size();
+    }
+
+    /**
+     * Checks whether every chunk has been handed out or given up on.
+     */
+    boolean isDone() {
+        return queueIndex >= queue.size() && loading.isEmpty() && probing.isEmpty();
+    }
+
+    /**
+     * Gets the number of chunks this loader covers.
+     */
+    int total() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of chunks given up on because they did not load in time or, when not generating, were
+     * never generated.
+     */
+    int timedOut() {
+        return timedOut;
+    }
+}
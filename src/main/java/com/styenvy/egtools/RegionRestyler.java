@@ -0,0 +1,472 @@
+package com.styenvy.egtools;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.entity.ai.village.poi.PoiTypes;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.storage.RegionFileVersion;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Offline restyle of a whole world, for map migrations: applies {@link RestyleMapping}s to every {@code .mca}
+ * region file under a world folder while no server is running.
+ * Region files are memory-mapped and processed in parallel, one file per task. Each chunk is inflated and its
+ * NBT walked in place without building tags; only section palette entries are decoded, once per distinct entry
+ * per thread. Sections whose palettes hold no source state are left alone, and changed entries are spliced into
+ * the NBT as-is: the packed indices never change, since every entry maps to exactly one entry.
+ * When a swap is not palette-safe (light, shape and so on, see {@link RestyleMapping}) the chunk's heightmaps are
+ * dropped and its light marked stale, so the server recomputes both on load. Blocks that are points of interest
+ * are left alone, since their records live in the poi folder.
+ * Chunks from other game versions are skipped; upgrade the world first (--forceUpgrade). Rewritten chunks are
+ * written back in place when they fit and appended otherwise, so keep a backup.
+ * <p>
+ * Usage: {@code ./gradlew restyleWorld --args="<world> family <source> <target> color <source> <target> ...
+ * [--threads <n>] [--dry-run]"}; pairs apply in order, the first matching one wins.
+ */
+public final class RegionRestyler {
+    private static final int SECTOR = 4096;
+    private static final int CHUNKS = 1024;
+    private static final int MAX_SECTORS = 255;
+    private static final byte TAG_END = 0, TAG_BYTE = 1, TAG_INT = 3, TAG_LIST = 9, TAG_COMPOUND = 10;
+    private static final byte[] DATA_VERSION = name("DataVersion"), IS_LIGHT_ON = name("isLightOn"),
+            HEIGHTMAPS = name("Heightmaps"), SECTIONS = name("sections"), BLOCK_STATES = name("block_states"),
+            PALETTE = name("palette");
+    private static final Replacement UNCHANGED = new Replacement(null, true);
+
+    private final List<RestyleMapping> mappings;
+    private final boolean dryRun;
+    private final int dataVersion = SharedConstants.getCurrentVersion().getDataVersion().getVersion();
+    // Decisions by serialized palette entry; palettes repeat across a world, so most entries are decoded once
+    private final ThreadLocal<Map<ByteBuffer, Replacement>> cache = ThreadLocal.withInitial(HashMap::new);
+    private final LongAdder files = new LongAdder(), chunks = new LongAdder(), changedChunks = new LongAdder(),
+            sections = new LongAdder(), changedSections = new LongAdder(), relitChunks = new LongAdder(),
+            outdatedChunks = new LongAdder(), skippedChunks = new LongAdder(), failedChunks = new LongAdder();
+
+    private RegionRestyler(List<RestyleMapping> mappings, boolean dryRun) {
+        this.mappings = mappings;
+        this.dryRun = dryRun;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.err.println("Usage: <world> (family <source> <target> | color <source> <target>)... [--threads <n>] [--dry-run]");
+            System.exit(2);
+        }
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        BlockVariantRegistry.completeOffline();
+
+        Path world = Path.of(args[0]);
+        List<RestyleMapping> mappings = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean dryRun = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "family" -> mappings.add(RestyleMapping.families(cycle(args, ++i), cycle(args, ++i)));
+                case "color" -> mappings.add(RestyleMapping.colors(color(args, ++i), color(args, ++i)));
+                case "--threads" -> threads = Integer.parseInt(argument(args, ++i));
+                case "--dry-run" -> dryRun = true;
+                default -> fail("Unknown argument " + args[i]);
+            }
+        }
+        if (mappings.stream().allMatch(mapping -> mapping.mappedBlocks() == 0)) fail("Nothing to restyle: no block has a counterpart");
+
+        List<Path> regions;
+        try (Stream<Path> paths = Files.walk(world)) {
+            regions = paths.filter(path -> path.getFileName().toString().endsWith(".mca")
+                            && path.getParent() != null && path.getParent().getFileName().toString().equals("region"))
+                    .toList();
+        }
+        System.out.println("Restyling " + regions.size() + " region files with " + threads + " threads"
+                + (dryRun ? " (dry run)" : ""));
+
+        RegionRestyler restyler = new RegionRestyler(mappings, dryRun);
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> regions.parallelStream().forEach(restyler::restyleFile)).get();
+        } catch (ExecutionException e) {
+            throw new IOException("Restyle failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println(restyler.summary(System.nanoTime() - start));
+    }
+
+    private void restyleFile(Path file) {
+        files.increment();
+        Set<StandardOpenOption> options = dryRun ? EnumSet.of(StandardOpenOption.READ)
+                : EnumSet.of(StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            long size = channel.size();
+            if (size < 2 * SECTOR) return;
+            if (size > Integer.MAX_VALUE) {
+                System.err.println(file + ": too large to map, skipped");
+                return;
+            }
+            MappedByteBuffer region = channel.map(dryRun ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE, 0, size);
+            int nextSector = (int) ((size + SECTOR - 1) / SECTOR);
+            int changed = 0;
+            for (int i = 0; i < CHUNKS; i++) {
+                int location = region.getInt(i * 4);
+                if (location == 0) continue;
+                chunks.increment();
+                int sector = location >>> 8, count = location & 0xFF;
+                long at = (long) sector * SECTOR;
+                if (sector < 2 || at + 5 > size) {
+                    failedChunks.increment();
+                    continue;
+                }
+                int length = region.getInt((int) at);
+                byte version = region.get((int) at + 4);
+                RegionFileVersion codec = RegionFileVersion.fromId(version);
+                // High bit: the chunk lives in an external .mcc file (over 1 MiB); those are left alone
+                if ((version & 0x80) != 0) {
+                    skippedChunks.increment();
+                    continue;
+                }
+                if (codec == null || length <= 1 || at + 4 + length > size) {
+                    failedChunks.increment();
+                    continue;
+                }
+
+                byte[] restyled;
+                try {
+                    byte[] nbt;
+                    try (InputStream in = codec.wrap(new BufferInputStream(region.slice((int) at + 5, length - 1)))) {
+                        nbt = in.readAllBytes();
+                    }
+                    restyled = restyleChunk(nbt);
+                } catch (IOException | RuntimeException e) {
+                    failedChunks.increment();
+                    continue;
+                }
+                if (restyled == null) continue;
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream(length + 64);
+                out.write(new byte[5], 0, 5);
+                try (OutputStream compressed = codec.wrap(out)) {
+                    compressed.write(restyled);
+                }
+                byte[] blob = out.toByteArray();
+                ByteBuffer.wrap(blob).putInt(0, blob.length - 4).put(4, version);
+                int sectors = (blob.length + SECTOR - 1) / SECTOR;
+                if (sectors > MAX_SECTORS) {
+                    skippedChunks.increment();
+                    continue;
+                }
+                changedChunks.increment();
+                changed++;
+                if (dryRun) continue;
+                if (sectors <= count) {
+                    region.put((int) at, blob);
+                } else {
+                    channel.write(ByteBuffer.wrap(Arrays.copyOf(blob, sectors * SECTOR)), (long) nextSector * SECTOR);
+                    region.putInt(i * 4, nextSector << 8 | sectors);
+                    nextSector += sectors;
+                }
+                region.putInt(SECTOR + i * 4, (int) (System.currentTimeMillis() / 1000L));
+            }
+            if (changed > 0) {
+                if (!dryRun) region.force();
+                System.out.println(file.getParent().getParent().getFileName() + "/" + file.getFileName() + ": "
+                        + changed + " chunks");
+            }
+        } catch (IOException e) {
+            System.err.println(file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Restyles one chunk's uncompressed NBT.
+     *
+     * @return The new NBT, or null to leave the chunk as it is
+     */
+    @Nullable
+    private byte[] restyleChunk(byte[] nbt) throws IOException {
+        ChunkScan scan = new ChunkScan(nbt);
+        scan.run();
+        if (scan.edits.isEmpty()) return null;
+        if (scan.dataVersion != dataVersion) {
+            outdatedChunks.increment();
+            return null;
+        }
+        if (!scan.paletteSafe) {
+            // Stale light is recomputed and missing heightmaps are primed when the chunk loads
+            if (scan.lightOn >= 0) nbt[scan.lightOn] = 0;
+            if (scan.heightmapsStart >= 0) scan.edits.add(new Edit(scan.heightmapsStart, scan.heightmapsEnd, new byte[0]));
+            relitChunks.increment();
+        }
+        scan.edits.sort(Comparator.comparingInt(Edit::start));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(nbt.length + 256);
+        int copied = 0;
+        for (Edit edit : scan.edits) {
+            out.write(nbt, copied, edit.start() - copied);
+            out.write(edit.bytes(), 0, edit.bytes().length);
+            copied = edit.end();
+        }
+        out.write(nbt, copied, nbt.length - copied);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decides what a palette entry (a compound payload) becomes, from the thread's cache when it was seen before.
+     */
+    private Replacement replacement(byte[] nbt, int start, int end) throws IOException {
+        Map<ByteBuffer, Replacement> decided = cache.get();
+        Replacement replacement = decided.get(ByteBuffer.wrap(nbt, start, end - start));
+        if (replacement != null) return replacement;
+
+        CompoundTag tag;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(nbt, start, end - start))) {
+            tag = CompoundTag.TYPE.load(in, NbtAccounter.unlimitedHeap());
+        }
+        // Unknown blocks read as air, which no mapping has as a source
+        BlockState state = NbtUtils.readBlockState(BuiltInRegistries.BLOCK.asLookup(), tag);
+        replacement = UNCHANGED;
+        for (RestyleMapping mapping : mappings) {
+            BlockState mapped = mapping.map(state);
+            if (mapped == null) continue;
+            if (PoiTypes.forState(state).isEmpty() && PoiTypes.forState(mapped).isEmpty()) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(end - start + 32);
+                NbtUtils.writeBlockState(mapped).write(new DataOutputStream(bytes));
+                replacement = new Replacement(bytes.toByteArray(), mapping.isPaletteSafe(state));
+            }
+            break;
+        }
+        decided.put(ByteBuffer.wrap(Arrays.copyOfRange(nbt, start, end)), replacement);
+        return replacement;
+    }
+
+    private String summary(long nanos) {
+        return String.format("Done in %.1f s: %d files, %d chunks, %d changed (%d relit), %d of %d sections restyled, "
+                        + "%d outdated, %d skipped, %d failed%s",
+                nanos / 1e9, files.sum(), chunks.sum(), changedChunks.sum(), relitChunks.sum(), changedSections.sum(),
+                sections.sum(), outdatedChunks.sum(), skippedChunks.sum(), failedChunks.sum(),
+                dryRun ? " (dry run, nothing written)" : "");
+    }
+
+    /**
+     * Walks one chunk's NBT without building tags, collecting palette entry edits and the few root tags a
+     * relight needs.
+     */
+    private final class ChunkScan {
+        private final byte[] nbt;
+        private final List<Edit> edits = new ArrayList<>();
+        private int dataVersion = -1;
+        private int lightOn = -1;
+        private int heightmapsStart = -1, heightmapsEnd;
+        private boolean paletteSafe = true;
+
+        private ChunkScan(byte[] nbt) {
+            this.nbt = nbt;
+        }
+
+        void run() throws IOException {
+            if (nbt[0] != TAG_COMPOUND) throw new IOException("Chunk is not a compound");
+            int p = skipString(1);
+            while (true) {
+                int tagStart = p;
+                byte type = nbt[p++];
+                if (type == TAG_END) return;
+                int name = p;
+                p = skipString(p);
+                if (type == TAG_INT && named(name, DATA_VERSION)) {
+                    dataVersion = readInt(p);
+                } else if (type == TAG_BYTE && named(name, IS_LIGHT_ON)) {
+                    lightOn = p;
+                } else if (type == TAG_LIST && named(name, SECTIONS) && nbt[p] == TAG_COMPOUND) {
+                    int count = readInt(p + 1);
+                    p += 5;
+                    for (int i = 0; i < count; i++) p = section(p);
+                    continue;
+                }
+                p = skip(type, p);
+                if (type == TAG_COMPOUND && named(name, HEIGHTMAPS)) {
+                    heightmapsStart = tagStart;
+                    heightmapsEnd = p;
+                }
+            }
+        }
+
+        private int section(int p) throws IOException {
+            while (true) {
+                byte type = nbt[p++];
+                if (type == TAG_END) return p;
+                int name = p;
+                p = skipString(p);
+                p = type == TAG_COMPOUND && named(name, BLOCK_STATES) ? blockStates(p) : skip(type, p);
+            }
+        }
+
+        private int blockStates(int p) throws IOException {
+            while (true) {
+                byte type = nbt[p++];
+                if (type == TAG_END) return p;
+                int name = p;
+                p = skipString(p);
+                p = type == TAG_LIST && named(name, PALETTE) && nbt[p] == TAG_COMPOUND ? palette(p) : skip(type, p);
+            }
+        }
+
+        private int palette(int p) throws IOException {
+            int count = readInt(p + 1);
+            p += 5;
+            sections.increment();
+            boolean changed = false;
+            for (int i = 0; i < count; i++) {
+                int start = p;
+                p = skipCompound(p);
+                Replacement replacement = replacement(nbt, start, p);
+                if (replacement.bytes() == null) continue;
+                edits.add(new Edit(start, p, replacement.bytes()));
+                paletteSafe &= replacement.paletteSafe();
+                changed = true;
+            }
+            if (changed) changedSections.increment();
+            return p;
+        }
+
+        private int skip(byte type, int p) throws IOException {
+            return switch (type) {
+                case 1 -> p + 1;
+                case 2 -> p + 2;
+                case 3, 5 -> p + 4;
+                case 4, 6 -> p + 8;
+                case 7 -> p + 4 + readInt(p);
+                case 8 -> skipString(p);
+                case 9 -> {
+                    byte element = nbt[p];
+                    int count = readInt(p + 1);
+                    p += 5;
+                    int fixed = switch (element) {
+                        case 0 -> 0;
+                        case 1 -> 1;
+                        case 2 -> 2;
+                        case 3, 5 -> 4;
+                        case 4, 6 -> 8;
+                        default -> -1;
+                    };
+                    if (fixed >= 0) yield p + count * fixed;
+                    for (int i = 0; i < count; i++) p = skip(element, p);
+                    yield p;
+                }
+                case 10 -> skipCompound(p);
+                case 11 -> p + 4 + 4 * readInt(p);
+                case 12 -> p + 4 + 8 * readInt(p);
+                default -> throw new IOException("Unknown NBT tag type " + type);
+            };
+        }
+
+        private int skipCompound(int p) throws IOException {
+            while (true) {
+                byte type = nbt[p++];
+                if (type == TAG_END) return p;
+                p = skip(type, skipString(p));
+            }
+        }
+
+        private int skipString(int p) {
+            return p + 2 + ((nbt[p] & 0xFF) << 8 | nbt[p + 1] & 0xFF);
+        }
+
+        private boolean named(int p, byte[] name) {
+            return Arrays.equals(nbt, p, skipString(p), name, 0, name.length);
+        }
+
+        private int readInt(int p) {
+            return (nbt[p] & 0xFF) << 24 | (nbt[p + 1] & 0xFF) << 16 | (nbt[p + 2] & 0xFF) << 8 | nbt[p + 3] & 0xFF;
+        }
+    }
+
+    /**
+     * Replaces {@code [start, end)} of the chunk NBT with {@code bytes}.
+     */
+    private record Edit(int start, int end, byte[] bytes) {}
+
+    /**
+     * @param bytes       The new serialized entry, or null to keep it
+     * @param paletteSafe Whether the swap leaves light and heightmaps valid
+     */
+    private record Replacement(@Nullable byte[] bytes, boolean paletteSafe) {}
+
+    /**
+     * Serialized tag name: length-prefixed, as names appear in NBT (all names here are ASCII).
+     */
+    private static byte[] name(String name) {
+        byte[] chars = name.getBytes(StandardCharsets.US_ASCII);
+        byte[] out = new byte[chars.length + 2];
+        out[0] = (byte) (chars.length >> 8);
+        out[1] = (byte) chars.length;
+        System.arraycopy(chars, 0, out, 2, chars.length);
+        return out;
+    }
+
+    private static BlockVariantCycle cycle(String[] args, int i) {
+        String name = argument(args, i);
+        BlockVariantCycle cycle = BlockVariantRegistry.getCycleByFamily(name);
+        if (cycle == null) fail("Unknown block family: " + name);
+        return cycle;
+    }
+
+    private static DyeColor color(String[] args, int i) {
+        String name = argument(args, i);
+        DyeColor color = DyeColor.byName(name, null);
+        if (color == null) fail("Unknown dye color: " + name);
+        return color;
+    }
+
+    private static String argument(String[] args, int i) {
+        if (i >= args.length) fail("Missing value after " + args[i - 1]);
+        return args[i];
+    }
+
+    private static void fail(String message) {
+        System.err.println(message);
+        System.exit(2);
+    }
+
+    /**
+     * Reads a slice of the mapped region without copying it to the heap first.
+     */
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+    }
+}
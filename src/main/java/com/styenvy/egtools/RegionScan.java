@@ -0,0 +1,206 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.objects.Object2LongLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongMaps;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Block counts of a {@link RegionSnapshot}, computed on the planner pool.
+ * Sections fully inside the box are counted per palette entry over the packed indices (no state lookups);
+ * sections cut by the box are read block by block. Sections the snapshot skipped by palette cost nothing.
+ */
+public final class RegionScan {
+    /** Blocks a scan counts by default: anything the hammer can cycle or the brush can paint. */
+    public static final Predicate<BlockState> TOOL_BLOCKS = state ->
+            BlockVariantRegistry.getCycle(state.getBlock()) != null || PaintVariantRegistry.getFamily(state.getBlock()) != null;
+
+    private static final int SECTIONS_PER_TASK = 4;
+
+    private final Reference2LongMap<Block> counts;
+    private final int scannedSections;
+    private final int skippedSections;
+    private final int missingChunks;
+
+    private RegionScan(Reference2LongMap<Block> counts, RegionSnapshot snapshot) {
+        this.counts = Reference2LongMaps.unmodifiable(counts);
+        this.scannedSections = snapshot.sections().size();
+        this.skippedSections = snapshot.skippedSections();
+        this.missingChunks = snapshot.missingChunks();
+    }
+
+    /**
+     * Counts the states matching {@code filter} in {@code snapshot} asynchronously.
+     * The snapshot should have been captured with the same filter so the palette check already skipped sections.
+     */
+    public static CompletableFuture<RegionScan> scan(RegionSnapshot snapshot, Predicate<BlockState> filter) {
+        return CompletableFuture.supplyAsync(
+                () -> new RegionScan(new ScanTask(snapshot, filter, 0, snapshot.sections().size()).invoke(), snapshot),
+                BulkEditPlanner.pool());
+    }
+
+    private static void scanSection(RegionSnapshot snapshot, SectionSnapshot section, Predicate<BlockState> filter,
+                                    Reference2LongOpenHashMap<Block> out) {
+        SectionPos pos = section.pos();
+        BoundingBox bounds = snapshot.bounds();
+        int minX = Math.max(bounds.minX(), pos.minBlockX()), maxX = Math.min(bounds.maxX(), pos.maxBlockX());
+        int minY = Math.max(bounds.minY(), pos.minBlockY()), maxY = Math.min(bounds.maxY(), pos.maxBlockY());
+        int minZ = Math.max(bounds.minZ(), pos.minBlockZ()), maxZ = Math.min(bounds.maxZ(), pos.maxBlockZ());
+
+        if (maxX - minX == 15 && maxY - minY == 15 && maxZ - minZ == 15) {
+            // Whole section: one pass over the packed indices, counted per palette entry
+            section.states().count((state, count) -> {
+                if (filter.test(state)) out.addTo(state.getBlock(), count);
+            });
+            return;
+        }
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    BlockState state = section.get(x & 15, y & 15, z & 15);
+                    if (filter.test(state)) out.addTo(state.getBlock(), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of matching blocks by block type.
+     */
+    public Reference2LongMap<Block> counts() {
+        return counts;
+    }
+
+    /**
+     * Gets the number of counted blocks.
+     */
+    public long total() {
+        return count(block -> true);
+    }
+
+    /**
+     * Gets the number of counted blocks of the types accepted by {@code blocks}.
+     */
+    public long count(Predicate<Block> blocks) {
+        long total = 0;
+        for (Reference2LongMap.Entry<Block> entry : counts.reference2LongEntrySet()) {
+            if (blocks.test(entry.getKey())) total += entry.getLongValue();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of blocks the Construction Hammer can cycle.
+     */
+    public long cyclable() {
+        return count(block -> BlockVariantRegistry.getCycle(block) != null);
+    }
+
+    /**
+     * Gets the number of blocks the Paint Brush can repaint.
+     */
+    public long paintable() {
+        return count(block -> PaintVariantRegistry.getFamily(block) != null);
+    }
+
+    /**
+     * Gets the cyclable blocks by cycle family, most common first.
+     */
+    public Object2LongMap<String> byFamily() {
+        Object2LongOpenHashMap<String> families = new Object2LongOpenHashMap<>();
+        for (Reference2LongMap.Entry<Block> entry : counts.reference2LongEntrySet()) {
+            BlockVariantCycle cycle = BlockVariantRegistry.getCycle(entry.getKey());
+            if (cycle != null) families.addTo(cycle.getFamilyName(), entry.getLongValue());
+        }
+        return sorted(families);
+    }
+
+    /**
+     * Gets the paintable blocks by dye color, most common first. Undyed blocks (plain candles, ...) are left out.
+     */
+    public Object2LongMap<DyeColor> byColor() {
+        Object2LongOpenHashMap<DyeColor> colors = new Object2LongOpenHashMap<>();
+        for (Reference2LongMap.Entry<Block> entry : counts.reference2LongEntrySet()) {
+            DyeColor color = PaintVariantRegistry.getColor(entry.getKey());
+            if (color != null) colors.addTo(color, entry.getLongValue());
+        }
+        return sorted(colors);
+    }
+
+    public int scannedSections() {
+        return scannedSections;
+    }
+
+    /**
+     * Gets the number of loaded sections skipped because their palette held no matching state.
+     */
+    public int skippedSections() {
+        return skippedSections;
+    }
+
+    public int missingChunks() {
+        return missingChunks;
+    }
+
+    private static <K> Object2LongMap<K> sorted(Object2LongMap<K> counts) {
+        List<Object2LongMap.Entry<K>> entries = new ArrayList<>(counts.object2LongEntrySet());
+        entries.sort(Comparator.comparingLong(Object2LongMap.Entry<K>::getLongValue).reversed());
+        Object2LongLinkedOpenHashMap<K> sorted = new Object2LongLinkedOpenHashMap<>(entries.size());
+        for (Object2LongMap.Entry<K> entry : entries) {
+            sorted.put(entry.getKey(), entry.getLongValue());
+        }
+        return sorted;
+    }
+
+    private static final class ScanTask extends RecursiveTask<Reference2LongOpenHashMap<Block>> {
+        private final RegionSnapshot snapshot;
+        private final Predicate<BlockState> filter;
+        private final int from;
+        private final int to;
+
+        ScanTask(RegionSnapshot snapshot, Predicate<BlockState> filter, int from, int to) {
+            this.snapshot = snapshot;
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Reference2LongOpenHashMap<Block> compute() {
+            if (to - from <= SECTIONS_PER_TASK) {
+                Reference2LongOpenHashMap<Block> counts = new Reference2LongOpenHashMap<>();
+                List<SectionSnapshot> sections = snapshot.sections();
+                for (int i = from; i < to; i++) {
+                    scanSection(snapshot, sections.get(i), filter, counts);
+                }
+                return counts;
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask right = new ScanTask(snapshot, filter, mid, to);
+            right.fork();
+            Reference2LongOpenHashMap<Block> counts = new ScanTask(snapshot, filter, from, mid).compute();
+            merge(counts, right.join());
+            return counts;
+        }
+
+        private static void merge(Reference2LongOpenHashMap<Block> into, Reference2LongOpenHashMap<Block> from) {
+            for (Reference2LongMap.Entry<Block> entry : from.reference2LongEntrySet()) {
+                into.addTo(entry.getKey(), entry.getLongValue());
+            }
+        }
+    }
+}
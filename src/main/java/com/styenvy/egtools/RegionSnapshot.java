@@ -0,0 +1,211 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * Section snapshots covering a box, the input of {@link BulkEditPlanner}.
+ * Only sections of loaded chunks whose palette may contain an affected state are copied;
+ * unloaded chunks are counted and skipped.
+ */
+public final class RegionSnapshot {
+    private final BoundingBox bounds;
+    private final List<SectionSnapshot> sections;
+    private final int missingChunks;
+    private final int skippedSections;
+    @Nullable
+    private final LongSet positions;
+
+    private RegionSnapshot(BoundingBox bounds, List<SectionSnapshot> sections, int missingChunks, int skippedSections,
+                           @Nullable LongSet positions) {
+        this.bounds = bounds;
+        this.sections = sections;
+        this.missingChunks = missingChunks;
+        this.skippedSections = skippedSections;
+        this.positions = positions;
+    }
+
+    /**
+     * Copies every section intersecting {@code bounds} that may hold a state matching {@code filter}.
+     * Must run on the thread that owns the level.
+     */
+    public static RegionSnapshot capture(Level level, BoundingBox bounds, Predicate<BlockState> filter) {
+        return capture(level, bounds, filter, null);
+    }
+
+    /**
+     * Copies the sections holding the given packed positions; planning is then restricted to those positions.
+     * Used to re-plan blocks that changed between planning and applying.
+     */
+    static RegionSnapshot capture(Level level, LongSet positions, Predicate<BlockState> filter) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (long packed : positions) {
+            int x = BlockPos.getX(packed), y = BlockPos.getY(packed), z = BlockPos.getZ(packed);
+            minX = Math.min(minX, x); minY = Math.min(minY, y); minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x); maxY = Math.max(maxY, y); maxZ = Math.max(maxZ, z);
+        }
+        return capture(level, new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ), filter, positions);
+    }
+
+    private static RegionSnapshot capture(Level level, BoundingBox bounds, Predicate<BlockState> filter,
+                                          @Nullable LongSet positions) {
+        int minSection = Math.max(SectionPos.blockToSectionCoord(bounds.minY()), level.getMinSection());
+        int maxSection = Math.min(SectionPos.blockToSectionCoord(bounds.maxY()), level.getMaxSection() - 1);
+        List<SectionSnapshot> sections = new ArrayList<>();
+        int missing = 0;
+        int skipped = 0;
+
+        for (int cx = SectionPos.blockToSectionCoord(bounds.minX()); cx <= SectionPos.blockToSectionCoord(bounds.maxX()); cx++) {
+            for (int cz = SectionPos.blockToSectionCoord(bounds.minZ()); cz <= SectionPos.blockToSectionCoord(bounds.maxZ()); cz++) {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(cx, cz);
+                if (chunk == null) {
+                    missing++;
+                    continue;
+                }
+                skipped += captureColumn(level, chunk, minSection, maxSection, filter, sections);
+            }
+        }
+        return new RegionSnapshot(bounds, sections, missing, skipped, positions);
+    }
+
+    /**
+     * Like {@link #capture(Level, BoundingBox, Predicate)}, but spread over ticks: one chunk column at a time under
+     * the bulk tick budget, like {@link Clipboard#copy}. Chunks are not loaded for this; unloaded ones are counted.
+     * Must be called on the server thread.
+     */
+    public static CompletableFuture<RegionSnapshot> captureAsync(ServerLevel level, BoundingBox bounds,
+                                                                 Predicate<BlockState> filter) {
+        Capture capture = new Capture(level, bounds, filter);
+        BulkEditScheduler.run(capture);
+        return capture.result;
+    }
+
+    /**
+     * Copies the sections of one chunk between the given section rows that pass the palette check.
+     *
+     * @return The number of sections skipped by the palette check
+     */
+    private static int captureColumn(Level level, LevelChunk chunk, int minSection, int maxSection,
+                                     Predicate<BlockState> filter, List<SectionSnapshot> out) {
+        int skipped = 0;
+        for (int sy = minSection; sy <= maxSection; sy++) {
+            LevelChunkSection section = chunk.getSection(level.getSectionIndexFromSectionY(sy));
+            // Palette check: skip sections that cannot contain anything the operation changes
+            if (section.maybeHas(filter)) {
+                out.add(SectionSnapshot.capture(SectionPos.of(chunk.getPos().x, sy, chunk.getPos().z), section));
+            } else {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    public BoundingBox bounds() {
+        return bounds;
+    }
+
+    public List<SectionSnapshot> sections() {
+        return Collections.unmodifiableList(sections);
+    }
+
+    /**
+     * Gets the number of chunks in the box that were not loaded at capture time.
+     */
+    public int missingChunks() {
+        return missingChunks;
+    }
+
+    /**
+     * Gets the number of loaded sections in the box left out by the palette check.
+     */
+    public int skippedSections() {
+        return skippedSections;
+    }
+
+    /**
+     * Checks whether a position is part of the planned area.
+     */
+    boolean includes(long packed) {
+        return positions == null || positions.contains(packed);
+    }
+
+    /**
+     * A box capture run a chunk column per step under the bulk tick budget.
+     */
+    private static final class Capture implements BulkEditScheduler.Task {
+        private final ServerLevel level;
+        private final BoundingBox bounds;
+        private final Predicate<BlockState> filter;
+        private final int minChunkX, maxChunkX, minChunkZ, maxChunkZ;
+        private final int minSection, maxSection;
+        private final List<SectionSnapshot> sections = new ArrayList<>();
+        private final CompletableFuture<RegionSnapshot> result = new CompletableFuture<>();
+        // Next chunk column to capture
+        private int cx, cz;
+        private int missing, skipped;
+        private volatile boolean cancelled;
+
+        Capture(ServerLevel level, BoundingBox bounds, Predicate<BlockState> filter) {
+            this.level = level;
+            this.bounds = bounds;
+            this.filter = filter;
+            this.minChunkX = SectionPos.blockToSectionCoord(bounds.minX());
+            this.maxChunkX = SectionPos.blockToSectionCoord(bounds.maxX());
+            this.minChunkZ = SectionPos.blockToSectionCoord(bounds.minZ());
+            this.maxChunkZ = SectionPos.blockToSectionCoord(bounds.maxZ());
+            this.minSection = Math.max(SectionPos.blockToSectionCoord(bounds.minY()), level.getMinSection());
+            this.maxSection = Math.min(SectionPos.blockToSectionCoord(bounds.maxY()), level.getMaxSection() - 1);
+            this.cx = minChunkX;
+            this.cz = minChunkZ;
+        }
+
+        @Override
+        public boolean tick(long deadlineNanos) {
+            if (cancelled || result.isCancelled()) {
+                result.completeExceptionally(new CancellationException("Capture cancelled"));
+                return true;
+            }
+            try {
+                while (cx <= maxChunkX && System.nanoTime() < deadlineNanos) {
+                    LevelChunk chunk = level.getChunkSource().getChunkNow(cx, cz);
+                    if (chunk == null) {
+                        missing++;
+                    } else {
+                        skipped += captureColumn(level, chunk, minSection, maxSection, filter, sections);
+                    }
+                    if (++cz > maxChunkZ) {
+                        cz = minChunkZ;
+                        cx++;
+                    }
+                }
+                if (cx <= maxChunkX) return false;
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return true;
+            }
+            result.complete(new RegionSnapshot(bounds, sections, missing, skipped, null));
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
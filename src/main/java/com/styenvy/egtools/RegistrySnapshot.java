@@ -0,0 +1,296 @@
+package com.styenvy.egtools;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.Block;
+import net.neoforged.fml.ModList;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Prebaked copy of the cycle registry and the paint color tables.
+ * Written by the {@code data} run (see {@link RegistrySnapshotProvider}) and read in one go at startup.
+ * Layout (big-endian, via DataOutputStream):
+ * - magic, format version, mod version, source hash (see {@link #sourceHash}) of the tables the data run computed
+ * - block id table (every other section refers to blocks by index into it)
+ * - cycles: family names, boundaries[count + 1], member block indices, next/prev member positions
+ * - paint: family names, then a families x {@link PaintVariantRegistry#COLUMNS} matrix of block indices (-1 = none)
+ * - CRC32 of everything above
+ * Any mismatch with the live registries makes {@link #get()} return null so callers compute the tables from code.
+ * That includes the source hash: the hand-written cycle and paint lists are hashed again at load, so a snapshot left
+ * stale by an edit to them (without a new {@code data} run) is ignored rather than overriding the edit.
+ */
+public final class RegistrySnapshot {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    /** Classpath location of the snapshot; relative to the data pack output of the {@code data} run. */
+    static final String RESOURCE_PATH = "registry_snapshot.bin";
+    private static final String RESOURCE = "/data/" + EgTools.MODID + "/" + RESOURCE_PATH;
+    private static final int MAGIC = 0x45475453; // "EGTS"
+    private static final int FORMAT_VERSION = 2;
+
+    private static boolean loaded;
+    @Nullable
+    private static RegistrySnapshot cached;
+
+    private final List<BlockVariantCycle> cycles;
+    private final Block[][] paintTable;
+
+    private RegistrySnapshot(List<BlockVariantCycle> cycles, Block[][] paintTable) {
+        this.cycles = cycles;
+        this.paintTable = paintTable;
+    }
+
+    /**
+     * Gets the validated snapshot, loading it on first use.
+     *
+     * @return The snapshot, or null if it is missing or does not match the live registries
+     */
+    @Nullable
+    public static synchronized RegistrySnapshot get() {
+        if (!loaded) {
+            loaded = true;
+            cached = load();
+        }
+        return cached;
+    }
+
+    /**
+     * Gets the cycles stored in the snapshot, in registration order.
+     *
+     * @return Unmodifiable list of cycles
+     */
+    public List<BlockVariantCycle> cycles() {
+        return Collections.unmodifiableList(cycles);
+    }
+
+    /**
+     * Gets a copy of the stored paint color table.
+     *
+     * @return Rows per paint family, columns per dye color plus the neutral column
+     */
+    public Block[][] paintTable() {
+        Block[][] copy = new Block[paintTable.length][];
+        for (int i = 0; i < paintTable.length; i++) {
+            copy[i] = paintTable[i].clone();
+        }
+        return copy;
+    }
+
+    @Nullable
+    private static RegistrySnapshot load() {
+        byte[] bytes;
+        try (InputStream in = RegistrySnapshot.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                LOGGER.debug("No registry snapshot found, computing tables");
+                return null;
+            }
+            bytes = in.readAllBytes();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read registry snapshot, computing tables", e);
+            return null;
+        }
+
+        try {
+            RegistrySnapshot snapshot = decode(bytes);
+            LOGGER.debug("Loaded registry snapshot with {} cycles", snapshot.cycles.size());
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("Registry snapshot does not match live registries ({}), computing tables", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Encodes the given cycles and paint table into the snapshot format.
+     */
+    static byte[] encode(List<BlockVariantCycle> cycles, String[] paintFamilies, Block[][] paintTable) throws IOException {
+        // Assign a compact index to every block referenced by either table
+        Map<Block, Integer> ids = new LinkedHashMap<>();
+        for (BlockVariantCycle cycle : cycles) {
+            for (Block block : cycle.getBlocks()) {
+                ids.putIfAbsent(block, ids.size());
+            }
+        }
+        for (Block[] row : paintTable) {
+            for (Block block : row) {
+                if (block != null) ids.putIfAbsent(block, ids.size());
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(modVersion());
+        out.writeLong(sourceHash(cycles, paintFamilies, paintTable));
+
+        out.writeInt(ids.size());
+        for (Block block : ids.keySet()) {
+            out.writeUTF(BuiltInRegistries.BLOCK.getKey(block).toString());
+        }
+
+        out.writeInt(cycles.size());
+        for (BlockVariantCycle cycle : cycles) {
+            out.writeUTF(cycle.getFamilyName());
+        }
+        int offset = 0;
+        out.writeInt(offset);
+        for (BlockVariantCycle cycle : cycles) {
+            offset += cycle.size();
+            out.writeInt(offset);
+        }
+        for (BlockVariantCycle cycle : cycles) {
+            for (Block block : cycle.getBlocks()) {
+                out.writeInt(ids.get(block));
+            }
+        }
+        // Precomputed transitions, as member positions, so a diff shows reordered cycles directly
+        int start = 0;
+        for (BlockVariantCycle cycle : cycles) {
+            for (int i = 0; i < cycle.size(); i++) {
+                out.writeInt(start + (i + 1) % cycle.size());
+                out.writeInt(start + (i - 1 + cycle.size()) % cycle.size());
+            }
+            start += cycle.size();
+        }
+
+        out.writeInt(paintFamilies.length);
+        for (String family : paintFamilies) {
+            out.writeUTF(family);
+        }
+        out.writeInt(PaintVariantRegistry.COLUMNS);
+        for (Block[] row : paintTable) {
+            for (Block block : row) {
+                out.writeInt(block == null ? -1 : ids.get(block));
+            }
+        }
+
+        out.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static RegistrySnapshot decode(byte[] bytes) throws IOException {
+        if (bytes.length < Long.BYTES) throw new IllegalArgumentException("truncated");
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - Long.BYTES);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) throw new IllegalArgumentException("bad magic");
+        if (in.readInt() != FORMAT_VERSION) throw new IllegalArgumentException("format version changed");
+        String version = in.readUTF();
+        if (!version.equals(modVersion())) throw new IllegalArgumentException("built for " + version);
+        if (in.readLong() != sourceHash(BlockVariantRegistry.builtInCycles(), PaintVariantRegistry.familyNames(),
+                PaintVariantRegistry.computeColorTable())) {
+            throw new IllegalArgumentException("cycle or paint lists changed since the data run");
+        }
+
+        // Resolve every block id against the live registry
+        Block[] blocks = new Block[in.readInt()];
+        for (int i = 0; i < blocks.length; i++) {
+            String id = in.readUTF();
+            ResourceLocation location = ResourceLocation.tryParse(id);
+            Optional<Block> block = location == null ? Optional.empty() : BuiltInRegistries.BLOCK.getOptional(location);
+            if (block.isEmpty()) throw new IllegalArgumentException("unknown block " + id);
+            blocks[i] = block.get();
+        }
+
+        String[] families = new String[in.readInt()];
+        for (int i = 0; i < families.length; i++) {
+            families[i] = in.readUTF();
+        }
+        int[] boundaries = new int[families.length + 1];
+        for (int i = 0; i < boundaries.length; i++) {
+            boundaries[i] = in.readInt();
+        }
+        Block[] members = new Block[boundaries[families.length]];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = blocks[in.readInt()];
+        }
+
+        List<BlockVariantCycle> cycles = new ArrayList<>(families.length);
+        for (int c = 0; c < families.length; c++) {
+            int start = boundaries[c];
+            int size = boundaries[c + 1] - start;
+            // The stored transitions must agree with the cycle order
+            for (int i = 0; i < size; i++) {
+                int next = in.readInt();
+                int prev = in.readInt();
+                if (next != start + (i + 1) % size || prev != start + (i - 1 + size) % size) {
+                    throw new IllegalArgumentException("inconsistent transitions in " + families[c]);
+                }
+            }
+            cycles.add(new BlockVariantCycle(families[c], Arrays.asList(members).subList(start, start + size)));
+        }
+
+        String[] paintFamilies = new String[in.readInt()];
+        for (int i = 0; i < paintFamilies.length; i++) {
+            paintFamilies[i] = in.readUTF();
+        }
+        if (!Arrays.equals(paintFamilies, PaintVariantRegistry.familyNames())) {
+            throw new IllegalArgumentException("paint families changed");
+        }
+        int columns = in.readInt();
+        if (columns != PaintVariantRegistry.COLUMNS) throw new IllegalArgumentException("color count changed");
+        Block[][] paintTable = new Block[paintFamilies.length][columns];
+        for (Block[] row : paintTable) {
+            for (int i = 0; i < columns; i++) {
+                int index = in.readInt();
+                row[i] = index < 0 ? null : blocks[index];
+            }
+        }
+
+        if (in.readLong() != crc.getValue()) throw new IllegalArgumentException("checksum mismatch");
+        return new RegistrySnapshot(cycles, paintTable);
+    }
+
+    /**
+     * Hashes the tables as computed from code: family names and block ids in order, so any edit to the cycle or
+     * paint lists changes it.
+     */
+    static long sourceHash(List<BlockVariantCycle> cycles, String[] paintFamilies, Block[][] paintTable) {
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(OutputStream.nullOutputStream(), crc))) {
+            out.writeInt(cycles.size());
+            for (BlockVariantCycle cycle : cycles) {
+                out.writeUTF(cycle.getFamilyName());
+                out.writeInt(cycle.size());
+                for (Block block : cycle.getBlocks()) {
+                    out.writeUTF(BuiltInRegistries.BLOCK.getKey(block).toString());
+                }
+            }
+            out.writeInt(paintFamilies.length);
+            for (String family : paintFamilies) {
+                out.writeUTF(family);
+            }
+            for (Block[] row : paintTable) {
+                out.writeInt(row.length);
+                for (Block block : row) {
+                    out.writeUTF(block == null ? "" : BuiltInRegistries.BLOCK.getKey(block).toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return crc.getValue();
+    }
+
+    private static String modVersion() {
+        // ModList is absent outside of FML (e.g. benchmarks bootstrapping vanilla only)
+        ModList modList = ModList.get();
+        if (modList == null) return "unknown";
+        return modList.getModContainerById(EgTools.MODID)
+                .map(container -> container.getModInfo().getVersion().toString())
+                .orElse("unknown");
+    }
+}
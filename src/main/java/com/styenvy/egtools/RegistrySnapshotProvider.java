@@ -0,0 +1,46 @@
+package com.styenvy.egtools;
+
+import com.google.common.hash.Hashing;
+import net.minecraft.Util;
+import net.minecraft.data.CachedOutput;
+import net.minecraft.data.DataProvider;
+import net.minecraft.data.PackOutput;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Data provider that bakes the cycle registry and paint color tables into {@link RegistrySnapshot}'s binary format.
+ * Always computes from code, so a stale snapshot on the classpath never feeds into a new one.
+ */
+public class RegistrySnapshotProvider implements DataProvider {
+    private final PackOutput output;
+
+    public RegistrySnapshotProvider(PackOutput output) {
+        this.output = output;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<?> run(@NotNull CachedOutput cache) {
+        return CompletableFuture.runAsync(() -> {
+            Path path = output.getOutputFolder(PackOutput.Target.DATA_PACK)
+                    .resolve(EgTools.MODID)
+                    .resolve(RegistrySnapshot.RESOURCE_PATH);
+            try {
+                byte[] bytes = RegistrySnapshot.encode(BlockVariantRegistry.builtInCycles(),
+                        PaintVariantRegistry.familyNames(), PaintVariantRegistry.computeColorTable());
+                cache.writeIfNeeded(path, bytes, Hashing.sha1().hashBytes(bytes));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, Util.backgroundExecutor());
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return "EgTools Registry Snapshot";
+    }
+}
@@ -0,0 +1,176 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.entity.ai.village.poi.PoiTypes;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.shapes.BooleanOp;
+import net.minecraft.world.phys.shapes.Shapes;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A block-for-block restyle used by {@code /egtools restyle}: one cycle family to another by shape role
+ * (oak_stairs to spruce_stairs, stripped_oak_log to stripped_spruce_log, ...) or one paint color to another.
+ * Every state of every source block is mapped up front, keeping shared properties, so the mapping is
+ * position-independent and can rewrite whole palettes.
+ * Blocks with block entities are never mapped.
+ */
+public final class RestyleMapping implements BulkOperation, PaletteRewriter.Mapping {
+    private final String name;
+    // "family" or "color", so a trace can rebuild the mapping (see WorkloadReplay#resolve)
+    private final String kind;
+    private final Map<BlockState, BlockState> states = new Reference2ReferenceOpenHashMap<>();
+    private final Set<BlockState> paletteSafe = new ReferenceOpenHashSet<>();
+    private final int mappedBlocks;
+
+    private RestyleMapping(String name, String kind, Map<Block, Block> blocks) {
+        this.name = name;
+        this.kind = kind;
+        for (Map.Entry<Block, Block> entry : blocks.entrySet()) {
+            Block target = entry.getValue();
+            for (BlockState source : entry.getKey().getStateDefinition().getPossibleStates()) {
+                BlockState mapped = PaintVariantRegistry.copyCommonProperties(source, target.defaultBlockState());
+                states.put(source, mapped);
+                if (isPaletteSafe(source, mapped)) {
+                    paletteSafe.add(source);
+                }
+            }
+        }
+        this.mappedBlocks = blocks.size();
+    }
+
+    /**
+     * Maps the blocks of one cycle family to the blocks of another with the same shape role.
+     * Roles come from the block ids with the family name cut out, so "oak_stairs" in "oak" and "spruce_stairs" in
+     * "spruce" are both "#_stairs"; blocks whose role has no counterpart are left unmapped.
+     */
+    public static RestyleMapping families(BlockVariantCycle from, BlockVariantCycle to) {
+        Map<String, Block> targets = new HashMap<>();
+        for (Block block : to.getBlocks()) {
+            targets.putIfAbsent(role(block, to.getFamilyName()), block);
+        }
+        Map<Block, Block> blocks = new LinkedHashMap<>();
+        for (Block block : from.getBlocks()) {
+            Block target = targets.get(role(block, from.getFamilyName()));
+            if (target != null && target != block && isMappable(block) && isMappable(target)) {
+                blocks.put(block, target);
+            }
+        }
+        return new RestyleMapping(from.getFamilyName() + "->" + to.getFamilyName(), "family", blocks);
+    }
+
+    /**
+     * Maps every paint family block of one dye color to the same family in another color.
+     */
+    public static RestyleMapping colors(DyeColor from, DyeColor to) {
+        Map<Block, Block> blocks = new LinkedHashMap<>();
+        if (from != to) {
+            for (String family : PaintVariantRegistry.getFamilies()) {
+                Block source = PaintVariantRegistry.byColor(family, from);
+                Block target = PaintVariantRegistry.byColor(family, to);
+                if (source != null && target != null && isMappable(source) && isMappable(target)) {
+                    blocks.put(source, target);
+                }
+            }
+        }
+        return new RestyleMapping(from.getSerializedName() + "->" + to.getSerializedName(), "color", blocks);
+    }
+
+    /**
+     * Gets the number of source blocks with a counterpart.
+     */
+    public int mappedBlocks() {
+        return mappedBlocks;
+    }
+
+    @Override
+    public String name() {
+        return "restyle:" + name;
+    }
+
+    /**
+     * Gets {@code restyle:family:<from>-><to>} or {@code restyle:color:<from>-><to>}.
+     */
+    @Override
+    public String traceName() {
+        return "restyle:" + kind + ":" + name;
+    }
+
+    @Override
+    public boolean mayAffect(BlockState state) {
+        return states.containsKey(state);
+    }
+
+    @Override
+    public SectionPlanner forSection(SectionPos section) {
+        return (x, y, z, state) -> states.get(state);
+    }
+
+    @Override
+    @Nullable
+    public PaletteRewriter.Mapping paletteMapping() {
+        return this;
+    }
+
+    @Override
+    public int writeFlags() {
+        // Shapes map to identical shapes, so neighbors keep their connections; this also keeps both door halves
+        return Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE;
+    }
+
+    @Override
+    public void effects(ToolEffects effects, BlockPos pos, BlockState oldState, BlockState newState) {
+        effects.addPlaceSound(pos, newState);
+    }
+
+    @Override
+    @Nullable
+    public BlockState map(BlockState state) {
+        return states.get(state);
+    }
+
+    @Override
+    public boolean isPaletteSafe(BlockState source) {
+        return paletteSafe.contains(source);
+    }
+
+    private static boolean isMappable(Block block) {
+        return !block.defaultBlockState().hasBlockEntity();
+    }
+
+    private static String role(Block block, String family) {
+        String path = BuiltInRegistries.BLOCK.getKey(block).getPath();
+        int at = path.indexOf(family);
+        String role = at < 0 ? path : path.substring(0, at) + "#" + path.substring(at + family.length());
+        // Nether wood names its logs differently
+        return role.replace("_stem", "_log").replace("_hyphae", "_wood");
+    }
+
+    /**
+     * A swap is palette-safe when nothing derived from the state can change: light, heightmaps, fluids,
+     * redstone, points of interest and the occlusion shape used by lighting.
+     */
+    private static boolean isPaletteSafe(BlockState from, BlockState to) {
+        EmptyBlockGetter level = EmptyBlockGetter.INSTANCE;
+        return from.getLightEmission() == to.getLightEmission()
+                && from.getLightBlock(level, BlockPos.ZERO) == to.getLightBlock(level, BlockPos.ZERO)
+                && from.canOcclude() == to.canOcclude()
+                && from.useShapeForLightOcclusion() == to.useShapeForLightOcclusion()
+                && !Shapes.joinIsNotEmpty(from.getOcclusionShape(level, BlockPos.ZERO),
+                        to.getOcclusionShape(level, BlockPos.ZERO), BooleanOp.NOT_SAME)
+                && from.blocksMotion() == to.blocksMotion()
+                && from.is(BlockTags.LEAVES) == to.is(BlockTags.LEAVES)
+                && from.getFluidState() == to.getFluidState()
+                && !from.isSignalSource() && !to.isSignalSource()
+                && PoiTypes.forState(from).isEmpty() && PoiTypes.forState(to).isEmpty();
+    }
+}
@@ -0,0 +1,176 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+
+/**
+ * Re-rolls blocks at random from weighted choices, like 70% stone bricks, 20% cracked and 10% chiseled, or a
+ * mix of wool colors. Used by {@code /egtools scatter}.
+ * Draws come from an {@link AliasSampler}, one per block. Every section has its own {@link SplittableRandom}
+ * stream seeded from the edit seed and the section position, and every block in the section gets the draw at
+ * its index in the section, whether or not it is planned; so sections plan in parallel and the same seed gives
+ * the same result over the same area, including re-plans.
+ */
+public final class ScatterOperation implements BulkOperation {
+    private final String name;
+    private final long seed;
+    private final double[] weights;
+    private final AliasSampler sampler;
+    // Variant mode: the choices, and their blocks for the mayAffect check
+    @Nullable
+    private final Block[] blocks;
+    private final Reference2IntOpenHashMap<Block> blockIndex = new Reference2IntOpenHashMap<>();
+    // Color mode: the choices
+    @Nullable
+    private final DyeColor[] colors;
+
+    private ScatterOperation(String name, long seed, double[] weights, @Nullable Block[] blocks,
+                             @Nullable DyeColor[] colors) {
+        this.name = name;
+        this.seed = seed;
+        this.weights = weights;
+        this.sampler = new AliasSampler(weights);
+        this.blocks = blocks;
+        this.colors = colors;
+        if (blocks != null) {
+            for (int i = 0; i < blocks.length; i++) blockIndex.put(blocks[i], i);
+        }
+    }
+
+    /**
+     * Scatters variants of one cycle over the blocks that already are one of them.
+     *
+     * @param weights Blocks and their weights, in order
+     * @throws IllegalArgumentException if the blocks are not all in the same cycle, carry block entities or the
+     *                                  weights are unusable
+     */
+    public static ScatterOperation variants(Map<Block, Double> weights, long seed) {
+        if (weights.size() < 2) throw new IllegalArgumentException("Scatter needs at least two blocks");
+        BlockVariantCycle cycle = null;
+        for (Block block : weights.keySet()) {
+            BlockVariantCycle blockCycle = BlockVariantRegistry.getCycle(block);
+            if (blockCycle == null) {
+                throw new IllegalArgumentException(BuiltInRegistries.BLOCK.getKey(block) + " is not in any cycle");
+            }
+            if (cycle != null && blockCycle != cycle) {
+                throw new IllegalArgumentException(BuiltInRegistries.BLOCK.getKey(block) + " is not in the "
+                        + cycle.getFamilyName() + " cycle");
+            }
+            if (block.defaultBlockState().hasBlockEntity()) {
+                throw new IllegalArgumentException(BuiltInRegistries.BLOCK.getKey(block) + " has a block entity");
+            }
+            cycle = blockCycle;
+        }
+        StringJoiner name = new StringJoiner(",", "scatter:", "");
+        weights.keySet().forEach(block -> name.add(BuiltInRegistries.BLOCK.getKey(block).getPath()));
+        return new ScatterOperation(name.toString(), seed, weightArray(weights), weights.keySet().toArray(Block[]::new), null);
+    }
+
+    /**
+     * Scatters dye colors over every single-block paintable.
+     *
+     * @param weights Colors and their weights, in order
+     * @throws IllegalArgumentException if the weights are unusable
+     */
+    public static ScatterOperation colors(Map<DyeColor, Double> weights, long seed) {
+        if (weights.isEmpty()) throw new IllegalArgumentException("Scatter needs at least one color");
+        StringJoiner name = new StringJoiner(",", "scatter:", "");
+        weights.keySet().forEach(color -> name.add(color.getSerializedName()));
+        return new ScatterOperation(name.toString(), seed, weightArray(weights), null, weights.keySet().toArray(DyeColor[]::new));
+    }
+
+    private static double[] weightArray(Map<?, Double> weights) {
+        return weights.values().stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Gets {@code scatter:variants:<seed>:<block>=<weight>,...} or {@code scatter:colors:<seed>:<color>=<weight>,...},
+     * with the choices in order, so a replay draws exactly the same blocks.
+     */
+    @Override
+    public String traceName() {
+        StringJoiner choices = new StringJoiner(",", "scatter:" + (blocks != null ? "variants" : "colors") + ":" + seed + ":", "");
+        for (int i = 0; i < weights.length; i++) {
+            String choice = blocks != null ? BuiltInRegistries.BLOCK.getKey(blocks[i]).toString() : colors[i].getSerializedName();
+            choices.add(choice + "=" + weights[i]);
+        }
+        return choices.toString();
+    }
+
+    @Override
+    public boolean mayAffect(BlockState state) {
+        if (blocks != null) return blockIndex.containsKey(state.getBlock());
+        return !state.hasBlockEntity() && PaintVariantRegistry.isPaintable(state.getBlock());
+    }
+
+    @Override
+    public SectionPlanner forSection(SectionPos section) {
+        SectionStream stream = new SectionStream(section);
+        return (x, y, z, state) -> {
+            int choice = sampler.sample(stream.at((y & 15) << 8 | (z & 15) << 4 | x & 15));
+            if (blocks != null) {
+                Block target = blocks[choice];
+                return target == state.getBlock() ? null
+                        : PaintVariantRegistry.copyCommonProperties(state, target.defaultBlockState());
+            }
+            return PaintVariantRegistry.paintedState(state, colors[choice]);
+        };
+    }
+
+    @Override
+    public int writeFlags() {
+        // Recoloring keeps the shape; variants may not (a stair among full blocks), so they update neighbors
+        return colors != null ? Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE : Block.UPDATE_CLIENTS;
+    }
+
+    @Override
+    public void effects(ToolEffects effects, BlockPos pos, BlockState oldState, BlockState newState) {
+        effects.addPlaceSound(pos, newState);
+    }
+
+    /**
+     * The random longs of one section, one per block in y-z-x index order. Planners visit blocks in that order,
+     * so skipping to a block only discards the draws of the blocks passed over.
+     */
+    private final class SectionStream {
+        private final long sectionSeed;
+        private SplittableRandom random;
+        private int next;
+
+        private SectionStream(SectionPos section) {
+            this.sectionSeed = HashCommon.murmurHash3(seed ^ HashCommon.murmurHash3(section.asLong()));
+            this.random = new SplittableRandom(sectionSeed);
+        }
+
+        long at(int index) {
+            if (index < next) {
+                // Out of order: start over rather than give a different answer
+                random = new SplittableRandom(sectionSeed);
+                next = 0;
+            }
+            for (; next < index; next++) random.nextLong();
+            next++;
+            return random.nextLong();
+        }
+    }
+}
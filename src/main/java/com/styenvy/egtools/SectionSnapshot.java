@@ -0,0 +1,55 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+import java.util.function.Predicate;
+
+/**
+ * Immutable copy of one chunk section's block states.
+ * Taken on the server thread (a palette plus packed indices, so copying is one array clone) and read
+ * from any thread afterwards; the live section is never touched again.
+ */
+public final class SectionSnapshot {
+    private final SectionPos pos;
+    private final PalettedContainer<BlockState> states;
+
+    private SectionSnapshot(SectionPos pos, PalettedContainer<BlockState> states) {
+        this.pos = pos;
+        this.states = states;
+    }
+
+    /**
+     * Copies a live section. Must run on the thread that owns the section.
+     */
+    public static SectionSnapshot capture(SectionPos pos, LevelChunkSection section) {
+        return new SectionSnapshot(pos, section.getStates().copy());
+    }
+
+    public SectionPos pos() {
+        return pos;
+    }
+
+    /**
+     * Gets a state by section-local coordinates (0-15).
+     */
+    public BlockState get(int x, int y, int z) {
+        return states.get(x, y, z);
+    }
+
+    /**
+     * Checks the palette only; false means no block in the section can match.
+     */
+    public boolean maybeHas(Predicate<BlockState> predicate) {
+        return states.maybeHas(predicate);
+    }
+
+    /**
+     * Gets the underlying copied container. Callers must not modify it.
+     */
+    PalettedContainer<BlockState> states() {
+        return states;
+    }
+}
@@ -0,0 +1,51 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Captures the block changes made by one tool operation.
+ * Tool logic writes through {@link #setBlock}; the item entry point brackets the operation with
+ * {@link #begin()} and {@link #end()} and hands the captured list to the audit log and other observers.
+ * Outside of a capture {@link #setBlock} is a plain {@link Level#setBlock}.
+ */
+public final class ToolChanges {
+    private static final ThreadLocal<BlockChangeList> ACTIVE = new ThreadLocal<>();
+
+    private ToolChanges() {}
+
+    /**
+     * Starts capturing changes made on the current thread.
+     */
+    public static void begin() {
+        ACTIVE.set(new BlockChangeList());
+    }
+
+    /**
+     * Stops capturing and returns what was captured.
+     *
+     * @return The changes since {@link #begin()}, empty if no capture was active
+     */
+    public static BlockChangeList end() {
+        BlockChangeList changes = ACTIVE.get();
+        ACTIVE.remove();
+        return changes == null ? new BlockChangeList(1) : changes;
+    }
+
+    /**
+     * Sets a block and records the change in the active capture, if any.
+     *
+     * @return true if the block was changed
+     */
+    public static boolean setBlock(Level level, BlockPos pos, BlockState state, int flags) {
+        BlockChangeList changes = ACTIVE.get();
+        @Nullable BlockState old = changes == null ? null : level.getBlockState(pos);
+        boolean changed = level.setBlock(pos, state, flags);
+        if (changed && changes != null) {
+            changes.add(pos, old, state);
+        }
+        return changed;
+    }
+}
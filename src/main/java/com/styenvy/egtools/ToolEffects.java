@@ -0,0 +1,256 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.particles.ParticleOptions;
+import net.minecraft.core.particles.ParticleTypes;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.sounds.SoundEvent;
+import net.minecraft.sounds.SoundSource;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.LevelEvent;
+import net.minecraft.world.level.block.SoundType;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the sounds, particles and arm swings of one tool operation and emits them aggregated: every distinct
+ * sound plays once at the center of the blocks that made it, every distinct particle level event becomes a single
+ * particle packet spread over those blocks (or a few sampled events where it has no particle equivalent), and
+ * every swing happens once. A one-block operation emits exactly what vanilla would.
+ * The paxel, brush and hammer bracket each use with {@link #begin()} and {@link #end(Level)} next to
+ * {@link ToolChanges}; outside of a scope the static methods pass straight through to the level. Long-running operations keep their own
+ * instance and call {@link #emit(Level)} when done. Memory use is constant per distinct effect.
+ */
+public final class ToolEffects {
+    private static final ThreadLocal<ToolEffects> ACTIVE = new ThreadLocal<>();
+    // Positions a level event is replayed at when it has no particle equivalent
+    private static final int SAMPLES = 4;
+    private static final int PARTICLES_PER_BLOCK = 4;
+    private static final int MAX_PARTICLES = 256;
+
+    private final Map<SoundKey, Spread> sounds = new LinkedHashMap<>();
+    private final Map<EventKey, Spread> events = new LinkedHashMap<>();
+    private final Set<Swing> swings = new LinkedHashSet<>();
+
+    /* =========================
+       Scoped use from item code
+       ========================= */
+
+    /**
+     * Starts collecting effects made on the current thread.
+     */
+    public static void begin() {
+        ACTIVE.set(new ToolEffects());
+    }
+
+    /**
+     * Stops collecting and emits what was collected.
+     */
+    public static void end(Level level) {
+        ToolEffects effects = ACTIVE.get();
+        ACTIVE.remove();
+        if (effects != null) effects.emit(level);
+    }
+
+    /**
+     * Plays a block sound, or collects it in the active scope.
+     *
+     * @param except Player who already hears it client-side, or null
+     */
+    public static void playSound(Level level, @Nullable Player except, BlockPos pos, SoundEvent sound,
+                                 SoundSource source, float volume, float pitch) {
+        ToolEffects effects = ACTIVE.get();
+        if (effects != null) {
+            effects.addSound(except, pos, sound, source, volume, pitch);
+        } else {
+            level.playSound(except, pos, sound, source, volume, pitch);
+        }
+    }
+
+    /**
+     * Fires a level event, or collects it in the active scope.
+     */
+    public static void levelEvent(Level level, @Nullable Player except, int type, BlockPos pos, int data) {
+        ToolEffects effects = ACTIVE.get();
+        if (effects != null) {
+            effects.addLevelEvent(except, type, pos, data);
+        } else {
+            level.levelEvent(except, type, pos, data);
+        }
+    }
+
+    /**
+     * Swings the player's arm, or collects the swing in the active scope.
+     */
+    public static void swing(Player player, InteractionHand hand) {
+        ToolEffects effects = ACTIVE.get();
+        if (effects != null) {
+            effects.addSwing(player, hand);
+        } else {
+            player.swing(hand, true);
+        }
+    }
+
+    /* =========================
+       Collection
+       ========================= */
+
+    public void addSound(@Nullable Player except, BlockPos pos, SoundEvent sound, SoundSource source,
+                         float volume, float pitch) {
+        sounds.computeIfAbsent(new SoundKey(except, sound, source, volume, pitch), key -> new Spread()).add(pos);
+    }
+
+    public void addLevelEvent(@Nullable Player except, int type, BlockPos pos, int data) {
+        events.computeIfAbsent(new EventKey(except, type, data), key -> new Spread()).add(pos);
+    }
+
+    /**
+     * Adds the sound a player placing {@code state} would make. Air makes none.
+     */
+    public void addPlaceSound(BlockPos pos, BlockState state) {
+        if (state.isAir()) return;
+        SoundType type = state.getSoundType();
+        addSound(null, pos, type.getPlaceSound(), SoundSource.BLOCKS, (type.getVolume() + 1.0F) / 2.0F,
+                type.getPitch() * 0.8F);
+    }
+
+    public void addSwing(Player player, InteractionHand hand) {
+        swings.add(new Swing(player, hand));
+    }
+
+    public boolean isEmpty() {
+        return sounds.isEmpty() && events.isEmpty() && swings.isEmpty();
+    }
+
+    /**
+     * Emits everything collected so far and starts over.
+     */
+    public void emit(Level level) {
+        for (Map.Entry<SoundKey, Spread> entry : sounds.entrySet()) {
+            SoundKey key = entry.getKey();
+            Spread spread = entry.getValue();
+            if (spread.count == 1) {
+                level.playSound(key.except, spread.first(), key.sound, key.source, key.volume, key.pitch);
+            } else {
+                level.playSound(key.except, spread.centerX(), spread.centerY(), spread.centerZ(), key.sound,
+                        key.source, key.volume, key.pitch);
+            }
+        }
+        for (Map.Entry<EventKey, Spread> entry : events.entrySet()) {
+            EventKey key = entry.getKey();
+            Spread spread = entry.getValue();
+            ParticleOptions particle = spread.count == 1 ? null : particleFor(key.type);
+            if (particle != null && level instanceof ServerLevel server) {
+                // Gaussian offsets: two standard deviations reach the edges of the affected box
+                server.sendParticles(particle, spread.centerX(), spread.centerY(), spread.centerZ(),
+                        (int) Math.min((long) spread.count * PARTICLES_PER_BLOCK, MAX_PARTICLES),
+                        spread.extentX() / 4.0, spread.extentY() / 4.0, spread.extentZ() / 4.0, 0.0);
+            } else {
+                for (int i = 0; i < spread.sampleCount(); i++) {
+                    level.levelEvent(key.except, key.type, BlockPos.of(spread.samples[i]), key.data);
+                }
+            }
+        }
+        for (Swing swing : swings) {
+            swing.player.swing(swing.hand, true);
+        }
+        sounds.clear();
+        events.clear();
+        swings.clear();
+    }
+
+    /**
+     * Maps the block particle level events the tools fire to the particle they show.
+     *
+     * @return The particle, or null if the event is not a plain particle burst
+     */
+    @Nullable
+    private static ParticleOptions particleFor(int type) {
+        return switch (type) {
+            case LevelEvent.PARTICLES_WAX_OFF -> ParticleTypes.WAX_OFF;
+            case LevelEvent.PARTICLES_SCRAPE -> ParticleTypes.SCRAPE;
+            default -> null;
+        };
+    }
+
+    private record SoundKey(@Nullable Player except, SoundEvent sound, SoundSource source, float volume, float pitch) {}
+
+    private record EventKey(@Nullable Player except, int type, int data) {}
+
+    private record Swing(Player player, InteractionHand hand) {}
+
+    /**
+     * Where one effect happened: count, bounds and sum of the positions, plus a uniform sample of them.
+     */
+    private static final class Spread {
+        private final long[] samples = new long[SAMPLES];
+        @Nullable
+        private RandomSource random;
+        private int count;
+        private long sumX, sumY, sumZ;
+        private int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        private int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+        void add(BlockPos pos) {
+            int x = pos.getX(), y = pos.getY(), z = pos.getZ();
+            sumX += x;
+            sumY += y;
+            sumZ += z;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+            // Reservoir sampling keeps every position equally likely to be shown
+            if (count < SAMPLES) {
+                samples[count] = pos.asLong();
+            } else {
+                if (random == null) random = RandomSource.create();
+                int slot = random.nextInt(count + 1);
+                if (slot < SAMPLES) samples[slot] = pos.asLong();
+            }
+            count++;
+        }
+
+        BlockPos first() {
+            return BlockPos.of(samples[0]);
+        }
+
+        int sampleCount() {
+            return Math.min(count, SAMPLES);
+        }
+
+        double centerX() {
+            return (double) sumX / count + 0.5;
+        }
+
+        double centerY() {
+            return (double) sumY / count + 0.5;
+        }
+
+        double centerZ() {
+            return (double) sumZ / count + 0.5;
+        }
+
+        int extentX() {
+            return maxX - minX + 1;
+        }
+
+        int extentY() {
+            return maxY - minY + 1;
+        }
+
+        int extentZ() {
+            return maxZ - minZ + 1;
+        }
+    }
+}
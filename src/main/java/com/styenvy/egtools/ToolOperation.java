@@ -0,0 +1,26 @@
+package com.styenvy.egtools;
+
+/**
+ * Kinds of world-changing operations performed by the mod's tools.
+ */
+public enum ToolOperation {
+    HAMMER_CYCLE("hammer"),
+    PAINT("paint"),
+    PAXEL_MODIFY("paxel"),
+    BULK("bulk");
+
+    private final String id;
+
+    ToolOperation(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the short id used in commands, dumps and profiling events.
+     *
+     * @return The operation id
+     */
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,163 @@
+package com.styenvy.egtools;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.neoforged.bus.api.Event;
+import net.neoforged.bus.api.ICancellableEvent;
+import net.neoforged.neoforge.common.NeoForge;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Posted on {@link NeoForge#EVENT_BUS} once per tool operation on the server: hammer clicks, brush strokes,
+ * paxel right-clicks and bulk edits (commands and {@link EgToolsApi}).
+ * {@link Pre} comes before anything is changed and can be cancelled to stop the whole operation; {@link Post}
+ * comes after with every block the operation changed, so a listener sees a whole brush stroke in one call.
+ * Bulk edits post one {@link Pre} for the whole region and one {@link Post} when they finish, with every block
+ * changed before they finished, were cancelled or failed; a 10,000-block restyle is one call.
+ */
+public abstract class ToolOperationEvent extends Event {
+    private final ToolOperation operation;
+    private final Level level;
+    @Nullable
+    private final Player player;
+    private final ItemStack tool;
+    private final BoundingBox area;
+
+    protected ToolOperationEvent(ToolOperation operation, Level level, @Nullable Player player, ItemStack tool,
+                                 BoundingBox area) {
+        this.operation = operation;
+        this.level = level;
+        this.player = player;
+        this.tool = tool;
+        this.area = area;
+    }
+
+    public ToolOperation getOperation() {
+        return operation;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the player performing the operation, or null for unattributed bulk edits.
+     */
+    @Nullable
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the tool used, or {@link ItemStack#EMPTY} for bulk edits. Do not modify.
+     */
+    public ItemStack getTool() {
+        return tool;
+    }
+
+    /**
+     * Gets the box the operation works on: the clicked block, or the region of a bulk edit.
+     */
+    public BoundingBox getArea() {
+        return area;
+    }
+
+    /**
+     * Posted before the operation changes anything. Cancel to skip the operation entirely.
+     */
+    public static class Pre extends ToolOperationEvent implements ICancellableEvent {
+        public Pre(ToolOperation operation, Level level, @Nullable Player player, ItemStack tool, BoundingBox area) {
+            super(operation, level, player, tool, area);
+        }
+    }
+
+    /**
+     * Posted after the operation with everything it changed. Not posted for operations that changed nothing.
+     */
+    public static class Post extends ToolOperationEvent {
+        private final Changes changes;
+
+        public Post(ToolOperation operation, Level level, @Nullable Player player, ItemStack tool, BoundingBox area,
+                    BlockChangeList changes) {
+            super(operation, level, player, tool, area);
+            this.changes = new Changes(changes);
+        }
+
+        public Changes getChanges() {
+            return changes;
+        }
+    }
+
+    /**
+     * Read-only view of the changed blocks, in the order they changed. Valid only during the event.
+     */
+    public static final class Changes {
+        private final BlockChangeList list;
+
+        private Changes(BlockChangeList list) {
+            this.list = list;
+        }
+
+        public int size() {
+            return list.size();
+        }
+
+        public boolean isEmpty() {
+            return list.isEmpty();
+        }
+
+        /**
+         * Gets the packed position of a change (see {@link BlockPos#of(long)}).
+         */
+        public long getPos(int index) {
+            return list.getPos(index);
+        }
+
+        public BlockState getOldState(int index) {
+            return list.getOldState(index);
+        }
+
+        public BlockState getNewState(int index) {
+            return list.getNewState(index);
+        }
+    }
+
+    /**
+     * Posts {@link Pre} for an operation on one block.
+     *
+     * @return true if a listener cancelled the operation
+     */
+    static boolean cancelled(ToolOperation operation, Level level, @Nullable Player player, ItemStack tool, BlockPos pos) {
+        return cancelled(operation, level, player, tool, new BoundingBox(pos));
+    }
+
+    /**
+     * Posts {@link Pre}.
+     *
+     * @return true if a listener cancelled the operation
+     */
+    static boolean cancelled(ToolOperation operation, Level level, @Nullable Player player, ItemStack tool,
+                             BoundingBox area) {
+        return NeoForge.EVENT_BUS.post(new Pre(operation, level, player, tool, area)).isCanceled();
+    }
+
+    /**
+     * Posts {@link Post} for an operation on one block.
+     */
+    static void post(ToolOperation operation, Level level, @Nullable Player player, ItemStack tool, BlockPos pos,
+                     BlockChangeList changes) {
+        post(operation, level, player, tool, new BoundingBox(pos), changes);
+    }
+
+    /**
+     * Posts {@link Post}.
+     */
+    static void post(ToolOperation operation, Level level, @Nullable Player player, ItemStack tool, BoundingBox area,
+                     BlockChangeList changes) {
+        NeoForge.EVENT_BUS.post(new Post(operation, level, player, tool, area, changes));
+    }
+}
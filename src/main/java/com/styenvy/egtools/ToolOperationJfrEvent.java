@@ -0,0 +1,65 @@
+package com.styenvy.egtools;
+
+import jdk.jfr.*;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * JFR event emitted for every tool operation, so recordings attribute MSPT spikes to players and operations.
+ * Usage: create, {@link #begin()}, run the operation, then {@link #complete}; fields are only filled in
+ * when the event is enabled and passes its threshold.
+ */
+@Name("egtools.ToolOperation")
+@Label("Tool Operation")
+@Category({"EgTools"})
+@Description("A block change performed by an EgTools tool or bulk operation")
+@StackTrace(false)
+public class ToolOperationJfrEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Block Family")
+    String family;
+
+    @Label("Block Count")
+    int blockCount;
+
+    @Label("Player")
+    String player;
+
+    @Label("Dimension")
+    String dimension;
+
+    @Label("Chunk X")
+    int chunkX;
+
+    @Label("Chunk Z")
+    int chunkZ;
+
+    /**
+     * Ends and commits the event if it is enabled and longer than its threshold.
+     *
+     * @param operation The kind of operation
+     * @param family    Block family (cycle family, paint family or block id)
+     * @param blocks    Number of blocks changed
+     * @param player    The acting player, or null
+     * @param level     The level the operation changed
+     * @param pos       The clicked position, or the origin of a bulk operation
+     */
+    public void complete(ToolOperation operation, String family, int blocks,
+                         @Nullable Player player, Level level, BlockPos pos) {
+        end();
+        if (!shouldCommit()) return;
+        this.operation = operation.getId();
+        this.family = family;
+        this.blockCount = blocks;
+        this.player = player == null ? "" : player.getGameProfile().getName();
+        this.dimension = level.dimension().location().toString();
+        this.chunkX = SectionPos.blockToSectionCoord(pos.getX());
+        this.chunkZ = SectionPos.blockToSectionCoord(pos.getZ());
+        commit();
+    }
+}
@@ -0,0 +1,251 @@
+package com.styenvy.egtools;
+
+import com.mojang.logging.LogUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in recorder of every tool operation into a {@link WorkloadTrace}, started and stopped with
+ * {@code /egtools trace}. Traces go to {@code egtools/traces/} in the server directory.
+ * Recording encodes on the server thread into a buffer; file writes happen on a single background thread.
+ * Server thread only; every hook is a single field check while nothing is being recorded.
+ */
+@EventBusSubscriber(modid = EgTools.MODID)
+public final class WorkloadRecorder {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    // Sync-flush the trace every 30 seconds so a crash loses little
+    private static final int FLUSH_INTERVAL_TICKS = 20 * 30;
+
+    @Nullable
+    private static WorkloadTrace.Writer writer;
+    @Nullable
+    private static ExecutorService io;
+    @Nullable
+    private static MinecraftServer server;
+    @Nullable
+    private static Path file;
+    private static int recorded;
+    private static int ticksSinceFlush;
+
+    private WorkloadRecorder() {}
+
+    /**
+     * Gets the folder traces are written to and replayed from.
+     */
+    public static Path traceDir(MinecraftServer server) {
+        return server.getServerDirectory().resolve(EgTools.MODID).resolve("traces");
+    }
+
+    /**
+     * Starts recording to {@code <name>.egtrace}, replacing any trace of that name.
+     *
+     * @throws IOException If the file cannot be created
+     */
+    public static Path start(MinecraftServer server, String name) throws IOException {
+        if (writer != null) stop();
+        Path dir = traceDir(server);
+        Files.createDirectories(dir);
+        Path target = dir.resolve(name + WorkloadTrace.EXTENSION);
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EgTools Trace Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        OutputStream out = new HandoffOutputStream(Files.newOutputStream(target), executor);
+        WorkloadRecorder.writer = new WorkloadTrace.Writer(out, System.currentTimeMillis());
+        WorkloadRecorder.io = executor;
+        WorkloadRecorder.server = server;
+        WorkloadRecorder.file = target;
+        recorded = 0;
+        ticksSinceFlush = 0;
+        return target;
+    }
+
+    /**
+     * Stops recording and closes the trace, waiting for the background writes to finish.
+     *
+     * @return The number of operations recorded, or -1 if nothing was being recorded
+     */
+    public static int stop() {
+        WorkloadTrace.Writer current = writer;
+        if (current == null) return -1;
+        writer = null;
+        server = null;
+        try {
+            current.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close EgTools trace {}", file, e);
+        }
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("Timed out writing EgTools trace {}", file);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        io = null;
+        return recorded;
+    }
+
+    public static boolean isRecording() {
+        return writer != null;
+    }
+
+    /**
+     * Gets the file being recorded to, or null when not recording.
+     */
+    @Nullable
+    public static Path file() {
+        return writer == null ? null : file;
+    }
+
+    /* =========================
+       Hooks
+       ========================= */
+
+    static void hammer(Level level, Player player, BlockPos pos, boolean backward) {
+        if (writer == null || level.isClientSide) return;
+        try {
+            writer.hammer(tick(), player.getUUID(), player.getGameProfile().getName(), dimension(level), pos,
+                    level.getBlockState(pos), level.getBlockState(pos.below()), level.getBlockState(pos.above()), backward);
+            recorded++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    static void paint(Level level, Player player, BlockPos pos, DyeColor color) {
+        if (writer == null || level.isClientSide) return;
+        try {
+            writer.paint(tick(), player.getUUID(), player.getGameProfile().getName(), dimension(level), pos,
+                    level.getBlockState(pos), color);
+            recorded++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    static void paxel(Level level, Player player, BlockPos pos, Direction face) {
+        if (writer == null || level.isClientSide) return;
+        try {
+            writer.paxel(tick(), player.getUUID(), player.getGameProfile().getName(), dimension(level), pos,
+                    level.getBlockState(pos), level.getBlockState(pos.above()), face);
+            recorded++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    static void bulk(Level level, @Nullable Player player, BoundingBox bounds, BulkOperation operation) {
+        if (writer == null || level.isClientSide) return;
+        try {
+            writer.bulk(tick(), player == null ? null : player.getUUID(),
+                    player == null ? null : player.getGameProfile().getName(), dimension(level), bounds, operation.traceName());
+            recorded++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private static long tick() {
+        return server == null ? 0 : server.getTickCount();
+    }
+
+    private static String dimension(Level level) {
+        return level.dimension().location().toString();
+    }
+
+    private static void fail(IOException e) {
+        LOGGER.error("EgTools trace {} failed; recording stopped", file, e);
+        stop();
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post e) {
+        if (writer == null || ++ticksSinceFlush < FLUSH_INTERVAL_TICKS) return;
+        ticksSinceFlush = 0;
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent e) {
+        stop();
+    }
+
+    /**
+     * Hands every write to the background thread as a copy; the file is only touched there.
+     */
+    private static final class HandoffOutputStream extends OutputStream {
+        private final OutputStream file;
+        private final ExecutorService executor;
+
+        HandoffOutputStream(OutputStream file, ExecutorService executor) {
+            this.file = file;
+            this.executor = executor;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            byte[] copy = Arrays.copyOfRange(bytes, offset, offset + length);
+            executor.execute(() -> {
+                try {
+                    file.write(copy);
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to write EgTools trace", e);
+                }
+            });
+        }
+
+        @Override
+        public void flush() {
+            executor.execute(() -> {
+                try {
+                    file.flush();
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to flush EgTools trace", e);
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            executor.execute(() -> {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to close EgTools trace", e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.context.UseOnContext;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs a recorded {@link WorkloadTrace} against a level as fast as possible, ignoring the recorded timing.
+ * Meant for a copy of the recorded world or an in-memory benchmark level; dimensions are ignored and every
+ * operation lands in the given level. With {@code restoreStates}, the recorded starting states are written first
+ * so each operation sees what it saw in production (required on an in-memory level).
+ * Operations replay without a player: no durability, paint uses or audit entries, and nothing is re-recorded.
+ * On a server, {@link #start} replays a slice at a time under the bulk tick budget: the chunks of the next run of
+ * single-block operations are ticketed and loaded before any of them replays, and bulk jobs run as
+ * {@link BulkEdit}s driven by the replay itself (their changes are audited as unattributed).
+ * {@link #run} replays everything at once, for levels without a server.
+ */
+public final class WorkloadReplay {
+    // Restored states must not cascade into neighbor shape changes that were not part of the recording
+    private static final int RESTORE_FLAGS = Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE;
+
+    private final Level level;
+    private final ConstructionHammerItem hammer;
+    private final ItemStack paxel;
+    private final boolean restoreStates;
+
+    /**
+     * @param hammer        The hammer whose cycle logic is replayed
+     * @param paxel         A paxel stack used for right-clicks
+     * @param restoreStates Whether to write the recorded starting states before each operation
+     */
+    public WorkloadReplay(Level level, ConstructionHammerItem hammer, ItemStack paxel, boolean restoreStates) {
+        this.level = level;
+        this.hammer = hammer;
+        this.paxel = paxel;
+        this.restoreStates = restoreStates;
+    }
+
+    /**
+     * Starts replaying the operations in order on the server, a slice per tick. Must be called on the server thread.
+     *
+     * @return The totals, once every operation has been replayed or skipped
+     */
+    public static CompletableFuture<Result> start(ServerLevel level, ConstructionHammerItem hammer, ItemStack paxel,
+                                                  boolean restoreStates, List<WorkloadTrace.Op> ops) {
+        ServerReplay replay = new ServerReplay(new WorkloadReplay(level, hammer, paxel, restoreStates), level, ops);
+        BulkEditScheduler.run(replay);
+        return replay.result;
+    }
+
+    /**
+     * Replays the operations in order in one go. Must run on the thread that owns the level; every chunk the trace
+     * touches is read as is, so this is for levels without a server, like benchmark levels.
+     */
+    public Result run(List<WorkloadTrace.Op> ops) {
+        Totals totals = new Totals(ops);
+        for (WorkloadTrace.Op op : ops) {
+            if (op instanceof WorkloadTrace.BulkOp bulkOp) {
+                long start = System.nanoTime();
+                totals.add(op, runBulk(bulkOp), System.nanoTime() - start);
+            } else {
+                replay(op, totals);
+            }
+        }
+        return totals.result();
+    }
+
+    /**
+     * Replays one single-block operation.
+     */
+    private void replay(WorkloadTrace.Op op, Totals totals) {
+        if (restoreStates && !restore(op)) {
+            totals.skipped++;
+            return;
+        }
+        long start = System.nanoTime();
+        int blocks = switch (op) {
+            case WorkloadTrace.HammerOp hammerOp -> hammer.cycleBlock(level, hammerOp.pos(), null, hammerOp.backward());
+            case WorkloadTrace.PaintOp paintOp -> PaintVariantRegistry.paint(level, paintOp.pos(), paintOp.color(), null) ? 1 : 0;
+            case WorkloadTrace.PaxelOp paxelOp -> paxel.getItem().useOn(new UseOnContext(level, null, InteractionHand.MAIN_HAND,
+                    paxel, new BlockHitResult(Vec3.atCenterOf(paxelOp.pos()), paxelOp.face(), paxelOp.pos(), false)) {})
+                    .consumesAction() ? 1 : 0;
+            case WorkloadTrace.BulkOp ignored -> throw new IllegalArgumentException("Bulk jobs are not single-block operations");
+        };
+        totals.add(op, blocks, System.nanoTime() - start);
+    }
+
+    /**
+     * Writes the recorded starting states of an operation.
+     *
+     * @return false if a recorded state no longer exists, so the operation cannot be reproduced
+     */
+    private boolean restore(WorkloadTrace.Op op) {
+        BlockPos pos = op.pos();
+        return switch (op) {
+            case WorkloadTrace.HammerOp h -> restore(pos.below(), h.below()) && restore(pos.above(), h.above())
+                    && restore(pos, h.state());
+            case WorkloadTrace.PaintOp p -> restore(pos, p.state());
+            case WorkloadTrace.PaxelOp p -> restore(pos.above(), p.above()) && restore(pos, p.state());
+            case WorkloadTrace.BulkOp ignored -> true;
+        };
+    }
+
+    private boolean restore(BlockPos pos, @Nullable BlockState state) {
+        if (state == null) return false;
+        if (level.getBlockState(pos) != state) {
+            level.setBlock(pos, state, RESTORE_FLAGS);
+        }
+        return true;
+    }
+
+    /**
+     * Applies a bulk job in one go.
+     *
+     * @return The number of blocks changed, or -1 if the operation name is not known
+     */
+    private int runBulk(WorkloadTrace.BulkOp op) {
+        BulkOperation operation = resolve(op.operation());
+        if (operation == null) return -1;
+        int changed = 0;
+        PaletteRewriter.Mapping mapping = operation.paletteMapping();
+        if (mapping != null) {
+            BlockChangeList rewritten = new BlockChangeList(4096);
+            LongArrayList sections = BulkEdit.coveredSections(level, op.bounds());
+            for (int i = 0; i < sections.size(); i++) {
+                PaletteRewriter.rewrite(level, SectionPos.of(sections.getLong(i)), mapping, rewritten);
+            }
+            changed += rewritten.size();
+        }
+        BulkEditPlanner.Plan plan = BulkEditPlanner.plan(
+                RegionSnapshot.capture(level, op.bounds(), operation::mayAffect), operation).join();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (BlockChangeList section : plan.sections()) {
+            for (int i = 0; i < section.size(); i++) {
+                if (level.getBlockState(pos.set(section.getPos(i))) == section.getOldState(i)
+                        && level.setBlock(pos, section.getNewState(i), operation.writeFlags())) {
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Rebuilds a bulk operation from its {@link BulkOperation#traceName()}: cycles, paints, family and color
+     * restyles, and variant and color scatters.
+     * Pastes, rollbacks and pixel art depend on data a trace does not hold (and the latter two are never recorded).
+     *
+     * @return The operation, or null if the name does not describe an operation that can be rebuilt
+     */
+    @Nullable
+    static BulkOperation resolve(String name) {
+        if (name.equals("cycle")) return BulkOperation.cycle(false);
+        if (name.equals("cycle_back")) return BulkOperation.cycle(true);
+        if (name.startsWith("paint:")) {
+            DyeColor color = DyeColor.byName(name.substring("paint:".length()), null);
+            return color == null ? null : BulkOperation.paint(color);
+        }
+        if (name.startsWith("scatter:")) return resolveScatter(name);
+        if (name.startsWith("restyle:")) return resolveRestyle(name.substring("restyle:".length()));
+        return null;
+    }
+
+    /**
+     * Parses {@code family:<from>-><to>} or {@code color:<from>-><to>} (see {@link RestyleMapping#traceName()}).
+     * Traces recorded before the kind was written hold just {@code <from>-><to>}; families are tried first.
+     */
+    @Nullable
+    private static BulkOperation resolveRestyle(String spec) {
+        boolean families = !spec.startsWith("color:"), colors = !spec.startsWith("family:");
+        if (!families || !colors) spec = spec.substring(spec.indexOf(':') + 1);
+        int arrow = spec.indexOf("->");
+        if (arrow < 0) return null;
+        String from = spec.substring(0, arrow), to = spec.substring(arrow + 2);
+        if (families) {
+            BlockVariantCycle fromCycle = BlockVariantRegistry.getCycleByFamily(from);
+            BlockVariantCycle toCycle = BlockVariantRegistry.getCycleByFamily(to);
+            if (fromCycle != null && toCycle != null) return RestyleMapping.families(fromCycle, toCycle);
+        }
+        if (colors) {
+            DyeColor fromColor = DyeColor.byName(from, null), toColor = DyeColor.byName(to, null);
+            if (fromColor != null && toColor != null) return RestyleMapping.colors(fromColor, toColor);
+        }
+        return null;
+    }
+
+    /**
+     * Parses {@code scatter:<mode>:<seed>:<choice>=<weight>,...} (see {@link ScatterOperation#traceName()}).
+     */
+    @Nullable
+    private static BulkOperation resolveScatter(String name) {
+        String[] parts = name.split(":", 4);
+        if (parts.length < 4) return null;
+        try {
+            long seed = Long.parseLong(parts[2]);
+            boolean variants = parts[1].equals("variants");
+            if (!variants && !parts[1].equals("colors")) return null;
+            Map<Block, Double> blocks = new LinkedHashMap<>();
+            Map<DyeColor, Double> colors = new LinkedHashMap<>();
+            for (String choice : parts[3].split(",")) {
+                int eq = choice.lastIndexOf('=');
+                if (eq < 0) return null;
+                double weight = Double.parseDouble(choice.substring(eq + 1));
+                String key = choice.substring(0, eq);
+                if (variants) {
+                    ResourceLocation id = ResourceLocation.tryParse(key);
+                    Block block = id == null ? null : BuiltInRegistries.BLOCK.getOptional(id).orElse(null);
+                    if (block == null) return null;
+                    blocks.put(block, weight);
+                } else {
+                    DyeColor color = DyeColor.byName(key, null);
+                    if (color == null) return null;
+                    colors.put(color, weight);
+                }
+            }
+            return variants ? ScatterOperation.variants(blocks, seed) : ScatterOperation.colors(colors, seed);
+        } catch (IllegalArgumentException e) {
+            // Bad numbers, or blocks that no longer share a cycle
+            return null;
+        }
+    }
+
+    /**
+     * Replays a trace on the server thread, under the bulk tick budget.
+     */
+    private static final class ServerReplay implements BulkEditScheduler.Task {
+        private final WorkloadReplay replay;
+        private final ServerLevel level;
+        private final List<WorkloadTrace.Op> ops;
+        private final Totals totals;
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private int next;
+        // Single-block operations before this index have their chunks ticketed by chunks
+        private int windowEnd;
+        @Nullable
+        private RegionChunkLoader chunks;
+        private final LongOpenHashSet loaded = new LongOpenHashSet();
+        // The bulk job being replayed, and the server time spent on it
+        @Nullable
+        private BulkEdit bulk;
+        private long bulkNanos;
+        private volatile boolean cancelled;
+
+        ServerReplay(WorkloadReplay replay, ServerLevel level, List<WorkloadTrace.Op> ops) {
+            this.replay = replay;
+            this.level = level;
+            this.ops = ops;
+            this.totals = new Totals(ops);
+        }
+
+        @Override
+        public boolean tick(long deadlineNanos) {
+            if (cancelled || result.isCancelled()) {
+                stop();
+                result.completeExceptionally(new CancellationException("Replay cancelled"));
+                return true;
+            }
+            try {
+                return replayUntil(deadlineNanos);
+            } catch (RuntimeException e) {
+                stop();
+                result.completeExceptionally(e);
+                return true;
+            }
+        }
+
+        private boolean replayUntil(long deadlineNanos) {
+            while (System.nanoTime() < deadlineNanos) {
+                if (bulk != null) {
+                    long start = System.nanoTime();
+                    boolean done = bulk.tick(deadlineNanos);
+                    bulkNanos += System.nanoTime() - start;
+                    if (!done) return false;
+                    CompletableFuture<BulkEdit.Result> edit = bulk.result();
+                    totals.add(ops.get(next++), edit.isCompletedExceptionally() ? -1 : edit.join().changed(), bulkNanos);
+                    bulk = null;
+                    continue;
+                }
+                if (next >= ops.size()) {
+                    stop();
+                    result.complete(totals.result());
+                    return true;
+                }
+                WorkloadTrace.Op op = ops.get(next);
+                if (op instanceof WorkloadTrace.BulkOp bulkOp) {
+                    BulkOperation operation = resolve(bulkOp.operation());
+                    if (operation == null) {
+                        totals.skipped++;
+                        next++;
+                    } else {
+                        // The edit tickets its own chunks
+                        if (chunks != null) chunks.releaseAll();
+                        bulk = new BulkEdit(level, null, operation, bulkOp.bounds());
+                        bulkNanos = 0;
+                    }
+                    continue;
+                }
+                if (next >= windowEnd) ticketWindow();
+                if (!chunks.isDone()) {
+                    chunks.poll(loaded::add);
+                    if (!chunks.isDone()) return false;
+                }
+                if (loaded.contains(chunkOf(op))) {
+                    replay.replay(op, totals);
+                } else {
+                    // Its chunk did not load in time
+                    totals.skipped++;
+                }
+                next++;
+            }
+            return false;
+        }
+
+        /**
+         * Tickets the chunks of the single-block operations from {@code next} on, up to the bulk ticket limit or
+         * the next bulk job.
+         */
+        private void ticketWindow() {
+            if (chunks != null) chunks.releaseAll();
+            int limit = EgToolsConfig.BULK_MAX_TICKETED_CHUNKS.get();
+            LongOpenHashSet window = new LongOpenHashSet();
+            int end = next;
+            while (end < ops.size() && !(ops.get(end) instanceof WorkloadTrace.BulkOp)) {
+                long chunk = chunkOf(ops.get(end));
+                if (!window.contains(chunk) && window.size() >= limit) break;
+                window.add(chunk);
+                end++;
+            }
+            windowEnd = end;
+            loaded.clear();
+            chunks = new RegionChunkLoader(level, window, limit, true);
+        }
+
+        private static long chunkOf(WorkloadTrace.Op op) {
+            return ChunkPos.asLong(SectionPos.blockToSectionCoord(op.pos().getX()),
+                    SectionPos.blockToSectionCoord(op.pos().getZ()));
+        }
+
+        private void stop() {
+            if (bulk != null) {
+                bulk.cancel();
+                bulk.tick(0L);
+                bulk = null;
+            }
+            if (chunks != null) chunks.releaseAll();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Running totals of a replay.
+     */
+    private static final class Totals {
+        private final long[] count = new long[ToolOperation.values().length];
+        private final long[] changed = new long[ToolOperation.values().length];
+        private final long[] nanos = new long[ToolOperation.values().length];
+        private final long traceTicks;
+        private int skipped;
+
+        Totals(List<WorkloadTrace.Op> ops) {
+            this.traceTicks = ops.isEmpty() ? 0 : ops.get(ops.size() - 1).tick() - ops.get(0).tick();
+        }
+
+        /**
+         * Counts a replayed operation.
+         *
+         * @param blocks Blocks it changed, or -1 if it could not be reproduced
+         */
+        void add(WorkloadTrace.Op op, int blocks, long elapsedNanos) {
+            if (blocks < 0) {
+                skipped++;
+                return;
+            }
+            ToolOperation kind = switch (op) {
+                case WorkloadTrace.HammerOp ignored -> ToolOperation.HAMMER_CYCLE;
+                case WorkloadTrace.PaintOp ignored -> ToolOperation.PAINT;
+                case WorkloadTrace.PaxelOp ignored -> ToolOperation.PAXEL_MODIFY;
+                case WorkloadTrace.BulkOp ignored -> ToolOperation.BULK;
+            };
+            nanos[kind.ordinal()] += elapsedNanos;
+            count[kind.ordinal()]++;
+            changed[kind.ordinal()] += blocks;
+        }
+
+        Result result() {
+            return new Result(count.clone(), changed.clone(), nanos.clone(), skipped, traceTicks);
+        }
+    }
+
+    /**
+     * Totals of a replay, indexed by {@link ToolOperation#ordinal()}.
+     *
+     * @param count      Operations replayed
+     * @param changed    Blocks changed
+     * @param nanos      Time spent in the operations, excluding state restores
+     * @param skipped    Operations that could not be reproduced (unknown states, chunks that did not load or bulk
+     *                   jobs that cannot be rebuilt)
+     * @param traceTicks Ticks the recording spanned
+     */
+    public record Result(long[] count, long[] changed, long[] nanos, int skipped, long traceTicks) {
+        public long totalNanos() {
+            long total = 0;
+            for (long n : nanos) total += n;
+            return total;
+        }
+
+        /**
+         * Describes the replay: per-operation throughput and the time taken against the recorded span.
+         */
+        public String summary() {
+            StringBuilder out = new StringBuilder();
+            for (ToolOperation operation : ToolOperation.values()) {
+                int i = operation.ordinal();
+                if (count[i] == 0) continue;
+                out.append(operation.getId()).append(": ").append(count[i]).append(" ops, ").append(changed[i])
+                        .append(" blocks, ").append(nanos[i] / count[i] / 1_000L).append("µs/op");
+                if (changed[i] > 0) out.append(", ").append(nanos[i] / changed[i]).append("ns/block");
+                out.append('\n');
+            }
+            out.append("total ").append(totalNanos() / 1_000_000L).append(" ms for ").append(traceTicks)
+                    .append(" recorded ticks (").append(traceTicks * 50L).append(" ms)");
+            if (skipped > 0) out.append(", ").append(skipped).append(" skipped");
+            return out.toString();
+        }
+    }
+}
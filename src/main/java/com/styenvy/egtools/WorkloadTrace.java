@@ -0,0 +1,296 @@
+package com.styenvy.egtools;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.SharedConstants;
+import net.minecraft.commands.arguments.blocks.BlockStateParser;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The binary trace format written by {@link WorkloadRecorder} and read by {@link WorkloadReplay}.
+ * A gzipped stream of a header followed by records. Block states, players and dimensions are written in full
+ * the first time they occur (as definitions) and referenced by index afterwards; ticks are stored as deltas.
+ * States are stored as their command syntax ({@code minecraft:oak_stairs[facing=east,...]}), so traces stay
+ * readable across mod lists and versions.
+ * Header: magic "EGTR", format version (short), data version (int), start epoch millis (long).
+ * Operation records start with: kind (byte), tick delta, player ref (0 = none), dimension ref (varints), packed pos.
+ */
+public final class WorkloadTrace {
+    public static final String EXTENSION = ".egtrace";
+    private static final int MAGIC = 0x45475452; // "EGTR"
+    private static final short VERSION = 1;
+
+    private static final int DEFINE_STATE = 0;
+    private static final int DEFINE_PLAYER = 1;
+    private static final int DEFINE_DIMENSION = 2;
+    private static final int HAMMER = 16;
+    private static final int PAINT = 17;
+    private static final int PAXEL = 18;
+    private static final int BULK = 19;
+
+    private WorkloadTrace() {}
+
+    /**
+     * One recorded tool operation.
+     */
+    public sealed interface Op {
+        /** Server tick the operation happened on. */
+        long tick();
+
+        @Nullable
+        UUID player();
+
+        String dimension();
+
+        /** Clicked position; the box center for bulk jobs. */
+        BlockPos pos();
+    }
+
+    /**
+     * A Construction Hammer click, with the states the slab handling reads (null where unknown).
+     */
+    public record HammerOp(long tick, @Nullable UUID player, String dimension, BlockPos pos, @Nullable BlockState state,
+                           @Nullable BlockState below, @Nullable BlockState above, boolean backward) implements Op {}
+
+    /**
+     * A Paint Brush stroke on the (bed-normalized) clicked block.
+     */
+    public record PaintOp(long tick, @Nullable UUID player, String dimension, BlockPos pos, @Nullable BlockState state,
+                          DyeColor color) implements Op {}
+
+    /**
+     * A Paxel right-click; tilling and flattening also read the block above.
+     */
+    public record PaxelOp(long tick, @Nullable UUID player, String dimension, BlockPos pos, @Nullable BlockState state,
+                          @Nullable BlockState above, Direction face) implements Op {}
+
+    /**
+     * A submitted bulk job, identified by its {@link BulkOperation#name()}.
+     */
+    public record BulkOp(long tick, @Nullable UUID player, String dimension, BlockPos pos, BoundingBox bounds,
+                         String operation) implements Op {}
+
+    /**
+     * Encodes operations onto a stream. Not thread-safe.
+     */
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final Object2IntOpenHashMap<BlockState> states = new Object2IntOpenHashMap<>();
+        private final Object2IntOpenHashMap<UUID> players = new Object2IntOpenHashMap<>();
+        private final Object2IntOpenHashMap<String> dimensions = new Object2IntOpenHashMap<>();
+        private long lastTick = -1;
+
+        /**
+         * Writes the header to a gzip stream over {@code out}.
+         */
+        public Writer(OutputStream out, long startMillis) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(out, 1 << 16, true), 1 << 16));
+            this.out.writeInt(MAGIC);
+            this.out.writeShort(VERSION);
+            this.out.writeInt(SharedConstants.getCurrentVersion().getDataVersion().getVersion());
+            this.out.writeLong(startMillis);
+        }
+
+        public void hammer(long tick, @Nullable UUID player, @Nullable String playerName, String dimension, BlockPos pos,
+                           BlockState state, BlockState below, BlockState above, boolean backward) throws IOException {
+            int stateRef = state(state), belowRef = state(below), aboveRef = state(above);
+            header(HAMMER, tick, player, playerName, dimension, pos);
+            writeVarInt(stateRef);
+            writeVarInt(belowRef);
+            writeVarInt(aboveRef);
+            out.writeBoolean(backward);
+        }
+
+        public void paint(long tick, @Nullable UUID player, @Nullable String playerName, String dimension, BlockPos pos,
+                          BlockState state, DyeColor color) throws IOException {
+            int stateRef = state(state);
+            header(PAINT, tick, player, playerName, dimension, pos);
+            writeVarInt(stateRef);
+            out.writeByte(color.getId());
+        }
+
+        public void paxel(long tick, @Nullable UUID player, @Nullable String playerName, String dimension, BlockPos pos,
+                          BlockState state, BlockState above, Direction face) throws IOException {
+            int stateRef = state(state), aboveRef = state(above);
+            header(PAXEL, tick, player, playerName, dimension, pos);
+            writeVarInt(stateRef);
+            writeVarInt(aboveRef);
+            out.writeByte(face.get3DDataValue());
+        }
+
+        public void bulk(long tick, @Nullable UUID player, @Nullable String playerName, String dimension,
+                         BoundingBox bounds, String operation) throws IOException {
+            header(BULK, tick, player, playerName, dimension, bounds.getCenter());
+            out.writeInt(bounds.minX());
+            out.writeInt(bounds.minY());
+            out.writeInt(bounds.minZ());
+            out.writeInt(bounds.maxX());
+            out.writeInt(bounds.maxY());
+            out.writeInt(bounds.maxZ());
+            out.writeUTF(operation);
+        }
+
+        private void header(int kind, long tick, @Nullable UUID player, @Nullable String playerName, String dimension,
+                            BlockPos pos) throws IOException {
+            int playerRef = player == null ? 0 : player(player, playerName) + 1;
+            int dimensionRef = dimension(dimension);
+            out.writeByte(kind);
+            writeVarLong(lastTick < 0 ? 0 : Math.max(0, tick - lastTick));
+            lastTick = tick;
+            writeVarInt(playerRef);
+            writeVarInt(dimensionRef);
+            out.writeLong(pos.asLong());
+        }
+
+        private int state(BlockState state) throws IOException {
+            int ref = states.getOrDefault(state, -1);
+            if (ref < 0) {
+                ref = states.size();
+                states.put(state, ref);
+                out.writeByte(DEFINE_STATE);
+                out.writeUTF(BlockStateParser.serialize(state));
+            }
+            return ref;
+        }
+
+        private int player(UUID player, @Nullable String name) throws IOException {
+            int ref = players.getOrDefault(player, -1);
+            if (ref < 0) {
+                ref = players.size();
+                players.put(player, ref);
+                out.writeByte(DEFINE_PLAYER);
+                out.writeLong(player.getMostSignificantBits());
+                out.writeLong(player.getLeastSignificantBits());
+                out.writeUTF(name == null ? "" : name);
+            }
+            return ref;
+        }
+
+        private int dimension(String dimension) throws IOException {
+            int ref = dimensions.getOrDefault(dimension, -1);
+            if (ref < 0) {
+                ref = dimensions.size();
+                dimensions.put(dimension, ref);
+                out.writeByte(DEFINE_DIMENSION);
+                out.writeUTF(dimension);
+            }
+            return ref;
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a whole trace into memory. States that no longer parse (removed blocks or properties) are read as null.
+     * A trace cut short (the server died while recording) is read up to its last complete record.
+     *
+     * @throws IOException If the file cannot be read or is not a trace
+     */
+    public static List<Op> read(Path file) throws IOException {
+        List<Op> ops = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), 1 << 16), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not an EgTools trace: " + file);
+            short version = in.readShort();
+            if (version != VERSION) throw new IOException("Unsupported trace version " + version + ": " + file);
+            in.readInt(); // data version, informational
+            in.readLong(); // start time, informational
+
+            Int2ObjectOpenHashMap<BlockState> states = new Int2ObjectOpenHashMap<>();
+            List<UUID> players = new ArrayList<>();
+            List<String> dimensions = new ArrayList<>();
+            long tick = 0;
+            int kind;
+            while ((kind = in.read()) >= 0) {
+                switch (kind) {
+                    case DEFINE_STATE -> states.put(states.size(), parseState(in.readUTF()));
+                    case DEFINE_PLAYER -> {
+                        players.add(new UUID(in.readLong(), in.readLong()));
+                        in.readUTF();
+                    }
+                    case DEFINE_DIMENSION -> dimensions.add(in.readUTF());
+                    case HAMMER, PAINT, PAXEL, BULK -> {
+                        tick += readVarLong(in);
+                        int playerRef = readVarInt(in);
+                        UUID player = playerRef == 0 ? null : players.get(playerRef - 1);
+                        String dimension = dimensions.get(readVarInt(in));
+                        BlockPos pos = BlockPos.of(in.readLong());
+                        ops.add(switch (kind) {
+                            case HAMMER -> new HammerOp(tick, player, dimension, pos, states.get(readVarInt(in)),
+                                    states.get(readVarInt(in)), states.get(readVarInt(in)), in.readBoolean());
+                            case PAINT -> new PaintOp(tick, player, dimension, pos, states.get(readVarInt(in)),
+                                    DyeColor.byId(in.readUnsignedByte()));
+                            case PAXEL -> new PaxelOp(tick, player, dimension, pos, states.get(readVarInt(in)),
+                                    states.get(readVarInt(in)), Direction.from3DDataValue(in.readUnsignedByte()));
+                            default -> new BulkOp(tick, player, dimension, pos, new BoundingBox(in.readInt(),
+                                    in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt()), in.readUTF());
+                        });
+                    }
+                    default -> throw new IOException("Corrupt trace record " + kind + " in " + file);
+                }
+            }
+            return ops;
+        } catch (EOFException e) {
+            return ops;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt trace: " + file, e);
+        }
+    }
+
+    @Nullable
+    private static BlockState parseState(String text) {
+        try {
+            return BlockStateParser.parseForBlock(BuiltInRegistries.BLOCK.asLookup(), text, false).blockState();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Varint too long");
+    }
+}